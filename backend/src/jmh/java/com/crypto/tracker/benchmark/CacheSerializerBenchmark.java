@@ -0,0 +1,73 @@
+package com.crypto.tracker.benchmark;
+
+import com.crypto.tracker.cache.BinaryCacheSerializer;
+import com.crypto.tracker.cache.CachedValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding the cached values (a quote, 30 and 365 daily bars, each in its CachedValue envelope)
+ * with the JSON serializer, the binary serializer, and the binary serializer with LZ4 above 1 KB.
+ *
+ * <p>The encoded size of each combination is printed once per fork, before the measurements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheSerializerBenchmark {
+
+    @Param({"quote", "bars30", "bars365"})
+    public String value;
+
+    @Param({"json", "binary", "binaryLz4"})
+    public String format;
+
+    private RedisSerializer<Object> serializer;
+    private CachedValue cached;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        serializer = switch (format) {
+            case "json" -> json;
+            case "binary" -> new BinaryCacheSerializer(json, 0);
+            default -> new BinaryCacheSerializer(json, 1024);
+        };
+
+        Object payload = switch (value) {
+            case "quote" -> Fixtures.quote("SPY", 0);
+            case "bars30" -> Fixtures.dailyBars(30);
+            default -> Fixtures.dailyBars(365);
+        };
+        cached = new CachedValue(payload, System.currentTimeMillis());
+        encoded = serializer.serialize(cached);
+        System.out.printf("%n%s/%s: %d bytes%n", value, format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(cached);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+}
@@ -0,0 +1,127 @@
+package com.crypto.tracker.benchmark;
+
+import com.crypto.tracker.model.BarSeries;
+import com.crypto.tracker.model.CryptoQuote;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payloads shaped like Twelve Data's, shared by the benchmarks. The first four symbols are the tracked ETFs;
+ * larger universes continue with generated tickers. Everything is deterministic, so runs are comparable.
+ */
+final class Fixtures {
+
+    private static final String[] ETFS = {"SPY", "DIA", "QQQ", "IWM"};
+
+    private Fixtures() {
+    }
+
+    static List<String> symbols(int count) {
+        List<String> symbols = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            symbols.add(i < ETFS.length ? ETFS[i] : "SYM" + i);
+        }
+        return symbols;
+    }
+
+    /**
+     * A multi-symbol /quote body. Every 50th symbol is an error entry, as Twelve Data returns for unknown symbols.
+     */
+    static byte[] quoteResponse(List<String> symbols) {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < symbols.size(); i++) {
+            String symbol = symbols.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(symbol).append("\":");
+            if (i % 50 == 49) {
+                json.append("{\"code\":404,\"message\":\"symbol not found\",\"status\":\"error\"}");
+            } else {
+                json.append(quoteJson(symbol, i));
+            }
+        }
+        return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A quote with the fields Twelve Data sends, including the nested 52-week range.
+     */
+    static String quoteJson(String symbol, int i) {
+        double close = price(i);
+        return "{\"symbol\":\"" + symbol + "\",\"name\":\"" + symbol + " Trust\",\"exchange\":\"NYSE\","
+            + "\"mic_code\":\"ARCX\",\"currency\":\"USD\",\"datetime\":\"2024-01-02\",\"timestamp\":1704205800,"
+            + "\"open\":\"" + (close - 1) + "\",\"high\":\"" + (close + 2) + "\",\"low\":\"" + (close - 2) + "\","
+            + "\"close\":\"" + close + "\",\"volume\":\"123456789\",\"previous_close\":\"" + (close - 0.5) + "\","
+            + "\"change\":\"0.5\",\"percent_change\":\"0.41\",\"average_volume\":\"98765432\",\"is_market_open\":false,"
+            + "\"fifty_two_week\":{\"low\":\"" + (close - 50) + "\",\"high\":\"" + (close + 10) + "\","
+            + "\"low_change\":\"50\",\"high_change\":\"-10\",\"low_change_percent\":\"33.3\","
+            + "\"high_change_percent\":\"-6.2\",\"range\":\"" + (close - 50) + " - " + (close + 10) + "\"}}";
+    }
+
+    /**
+     * Parsed quotes as the service hands them to the controller, in symbol order.
+     */
+    static Map<String, CryptoQuote> quotes(List<String> symbols) {
+        Map<String, CryptoQuote> quotes = new LinkedHashMap<>();
+        for (int i = 0; i < symbols.size(); i++) {
+            quotes.put(symbols.get(i), quote(symbols.get(i), i));
+        }
+        return quotes;
+    }
+
+    static CryptoQuote quote(String symbol, int i) {
+        double close = price(i);
+        CryptoQuote quote = new CryptoQuote();
+        quote.setSymbol(symbol);
+        quote.setName(symbol + " Trust");
+        quote.setExchange("NYSE");
+        quote.setDatetime("2024-01-02");
+        quote.setTimestamp(1704205800L);
+        quote.setOpen(String.valueOf(close - 1));
+        quote.setHigh(String.valueOf(close + 2));
+        quote.setLow(String.valueOf(close - 2));
+        quote.setClose(String.valueOf(close));
+        quote.setVolume("123456789");
+        quote.setPreviousClose(String.valueOf(close - 0.5));
+        quote.setChange("0.5");
+        quote.setPercentChange("0.41");
+        quote.setAverageVolume("98765432");
+        return quote;
+    }
+
+    private static double price(int i) {
+        return 100 + i * 0.37;
+    }
+
+    /**
+     * Daily bars with weekend gaps and prices that wander like a real index.
+     */
+    static BarSeries dailyBars(int n) {
+        long[] epochs = new long[n];
+        double[] open = new double[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        long[] volume = new long[n];
+
+        long epoch = BarSeries.parseDatetime("2005-01-03");
+        double price = 380;
+        for (int i = 0; i < n; i++) {
+            epochs[i] = epoch;
+            epoch += (i % 5 == 4 ? 3 : 1) * 86_400L;
+
+            open[i] = price;
+            price += Math.sin(i * 0.7) * 3.1 + 0.2;
+            close[i] = Math.round(price * 100) / 100.0;
+            high[i] = Math.max(open[i], close[i]) + 1.37;
+            low[i] = Math.min(open[i], close[i]) - 0.91;
+            volume[i] = 70_000_000L + (i * 7_919_777L) % 40_000_000L;
+        }
+        return new BarSeries(epochs, open, high, low, close, volume);
+    }
+}
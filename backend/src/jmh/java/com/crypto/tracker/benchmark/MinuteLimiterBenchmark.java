@@ -0,0 +1,126 @@
+package com.crypto.tracker.benchmark;
+
+import com.crypto.tracker.service.MinuteLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Throughput of MinuteLimiter.allowRequest() and getRemainingRequests() with 1 to 64 contending threads,
+ * compared with the previous synchronized queue-based implementation.
+ *
+ * <p>The window fills after 20 permits, so most calls measure the reject path - which is what callers hit
+ * when a burst of cache misses arrives.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MinuteLimiterBenchmark {
+
+    @Param({"lockFree", "synchronizedQueue"})
+    public String implementation;
+
+    private BooleanSupplier allowRequest;
+    private IntSupplier remainingRequests;
+
+    @Setup
+    public void setUp() {
+        if (implementation.equals("lockFree")) {
+            MinuteLimiter limiter = new MinuteLimiter();
+            allowRequest = limiter::allowRequest;
+            remainingRequests = limiter::getRemainingRequests;
+        } else {
+            SynchronizedQueueLimiter limiter = new SynchronizedQueueLimiter();
+            allowRequest = limiter::allowRequest;
+            remainingRequests = limiter::getRemainingRequests;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean allowRequest01Thread() {
+        return allowRequest.getAsBoolean();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean allowRequest04Threads() {
+        return allowRequest.getAsBoolean();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean allowRequest16Threads() {
+        return allowRequest.getAsBoolean();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean allowRequest64Threads() {
+        return allowRequest.getAsBoolean();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public int remainingRequests16Threads() {
+        return remainingRequests.getAsInt();
+    }
+
+    /**
+     * The implementation MinuteLimiter replaced, kept here as the baseline.
+     */
+    static class SynchronizedQueueLimiter {
+
+        private static final int MAX_REQUESTS_PER_MINUTE = 20;
+        private static final long WINDOW_SIZE_SECONDS = 60;
+
+        private final Queue<Long> requestTimestamps = new ConcurrentLinkedQueue<>();
+
+        synchronized boolean allowRequest() {
+            long currentTime = Instant.now().getEpochSecond();
+            long windowStart = currentTime - WINDOW_SIZE_SECONDS;
+
+            while (!requestTimestamps.isEmpty() && requestTimestamps.peek() < windowStart) {
+                requestTimestamps.poll();
+            }
+
+            if (requestTimestamps.size() < MAX_REQUESTS_PER_MINUTE) {
+                requestTimestamps.offer(currentTime);
+                return true;
+            }
+            return false;
+        }
+
+        synchronized int getCurrentRequestCount() {
+            long windowStart = Instant.now().getEpochSecond() - WINDOW_SIZE_SECONDS;
+
+            while (!requestTimestamps.isEmpty() && requestTimestamps.peek() < windowStart) {
+                requestTimestamps.poll();
+            }
+            return requestTimestamps.size();
+        }
+
+        int getRemainingRequests() {
+            return MAX_REQUESTS_PER_MINUTE - getCurrentRequestCount();
+        }
+    }
+}
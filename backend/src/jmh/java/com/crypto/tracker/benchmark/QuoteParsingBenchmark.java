@@ -0,0 +1,79 @@
+package com.crypto.tracker.benchmark;
+
+import com.crypto.tracker.model.CryptoQuote;
+import com.crypto.tracker.service.QuoteResponseParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a multi-symbol /quote response of 4, 100 and 1000 symbols: the streaming QuoteResponseParser
+ * against the previous path (whole body as a String, a JsonNode tree, then one conversion per symbol).
+ *
+ * <p>Every 50th symbol is an error entry, as Twelve Data returns for unknown symbols.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuoteParsingBenchmark {
+
+    @Param({"4", "100", "1000"})
+    public int symbols;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private QuoteResponseParser parser;
+
+    private byte[] body;
+    private List<String> batch;
+
+    @Setup
+    public void setUp() {
+        parser = new QuoteResponseParser(objectMapper.getFactory());
+        batch = Fixtures.symbols(symbols);
+        body = Fixtures.quoteResponse(batch);
+    }
+
+    @Benchmark
+    public Map<String, CryptoQuote> streaming() throws Exception {
+        return parser.parse(new ByteArrayInputStream(body), batch).quotes();
+    }
+
+    @Benchmark
+    public Map<String, CryptoQuote> stringTreeConvert() throws Exception {
+        // What RestTemplate.getForObject(url, String.class) followed by the old parseQuoteResponse did
+        String response = new String(body, StandardCharsets.UTF_8);
+        Map<String, CryptoQuote> result = new HashMap<>();
+        JsonNode root = objectMapper.readTree(response);
+
+        Iterator<Map.Entry<String, JsonNode>> entries = root.fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            if ("error".equals(entry.getValue().path("status").asText())) {
+                continue;
+            }
+            result.put(entry.getKey(), objectMapper.treeToValue(entry.getValue(), CryptoQuote.class));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+package com.crypto.tracker.benchmark;
+
+import com.crypto.tracker.cache.ResponseCache;
+import com.crypto.tracker.dto.CryptoHistoryResponse;
+import com.crypto.tracker.dto.CryptoIndexResponse;
+import com.crypto.tracker.model.BarSeries;
+import com.crypto.tracker.model.CryptoQuote;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work CryptoController does per request once the data is in hand: mapping quotes to CryptoIndexResponse
+ * DTOs (4, 100 and 1000 symbols) or wrapping bars in a CryptoHistoryResponse (30, 365 and 5000 bars), writing
+ * the JSON and hashing the ETag. The "build" benchmarks always rebuild, as on a new data version; the "cached"
+ * ones measure the ResponseCache hit served while the data version is unchanged.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+
+    // Same version on every call, so after the first build the cached bytes are reused
+    private static final Long VERSION = 1L;
+
+    @State(Scope.Benchmark)
+    public static class Indices {
+
+        @Param({"4", "100", "1000"})
+        public int symbols;
+
+        ResponseCache responseCache;
+        Map<String, CryptoQuote> quotes;
+
+        @Setup
+        public void setUp() {
+            responseCache = new ResponseCache(new ObjectMapper(), 500, 3600);
+            quotes = Fixtures.quotes(Fixtures.symbols(symbols));
+        }
+
+        // The body supplier passed by getAllIndices
+        List<CryptoIndexResponse> body() {
+            List<CryptoIndexResponse> indices = new ArrayList<>();
+            for (CryptoQuote quote : quotes.values()) {
+                indices.add(CryptoIndexResponse.from(quote));
+            }
+            return indices;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class History {
+
+        @Param({"30", "365", "5000"})
+        public int bars;
+
+        ResponseCache responseCache;
+        BarSeries series;
+
+        @Setup
+        public void setUp() {
+            responseCache = new ResponseCache(new ObjectMapper(), 500, 3600);
+            series = Fixtures.dailyBars(bars);
+        }
+
+        // The body supplier passed by getHistory
+        CryptoHistoryResponse body() {
+            return new CryptoHistoryResponse("SPY", "SPY", series, true);
+        }
+    }
+
+    @Benchmark
+    public ResponseCache.CachedResponse indicesBuild(Indices state) throws Exception {
+        return state.responseCache.get("indices", null, state::body);
+    }
+
+    @Benchmark
+    public ResponseCache.CachedResponse indicesCached(Indices state) throws Exception {
+        return state.responseCache.get("indices", VERSION, state::body);
+    }
+
+    @Benchmark
+    public ResponseCache.CachedResponse historyBuild(History state) throws Exception {
+        return state.responseCache.get("history:SPY", null, state::body);
+    }
+
+    @Benchmark
+    public ResponseCache.CachedResponse historyCached(History state) throws Exception {
+        return state.responseCache.get("history:SPY", VERSION, state::body);
+    }
+}
@@ -0,0 +1,241 @@
+package com.crypto.tracker.loadtest;
+
+import com.crypto.tracker.cache.TwoTierCacheManager;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives /api/indices, /api/indices/{symbol}/history and /api/meta/limits against a local Twelve Data stub and
+ * an embedded Redis, one scenario at a time, and reports per scenario the latency histogram, cache hit ratio and
+ * the upstream calls it cost. Caches are cleared before each scenario, so every one starts cold.
+ *
+ * <p>Run with {@code mvn -Ploadtest test}. Tunable with system properties:
+ * {@code loadtest.concurrency} (16), {@code loadtest.requests} (2000 per scenario) and {@code loadtest.scenarios}
+ * (comma-separated names, all by default). The report is printed and written to
+ * {@code target/loadtest-report.json}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext
+class IndexApiLoadTest {
+
+    private static final List<String> SYMBOLS = List.of("SPY", "DIA", "QQQ", "IWM");
+
+    /**
+     * Stub behaviour for one run: added latency per upstream call, and the share of calls answered with a 500
+     * or a 429.
+     */
+    record Scenario(String name, long latencyMs, double errorRate, double rateLimitRate) {
+    }
+
+    private static final List<Scenario> SCENARIOS = List.of(
+        new Scenario("baseline", 20, 0.0, 0.0),
+        new Scenario("slow-upstream", 800, 0.0, 0.0),
+        new Scenario("flaky-upstream", 100, 0.2, 0.0),
+        new Scenario("rate-limited", 100, 0.0, 0.3)
+    );
+
+    private static final TwelveDataStub stub;
+    private static final RedisServer redis;
+    private static final int redisPort;
+    private static final Path barStoreDir;
+
+    static {
+        try {
+            stub = new TwelveDataStub();
+            stub.start();
+
+            redisPort = freePort();
+            redis = new RedisServer(redisPort);
+            redis.start();
+
+            barStoreDir = Files.createTempDirectory("loadtest-bars");
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the load-test stubs", e);
+        }
+        // Shared by every load-test class in the run, so they stay up until the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(IndexApiLoadTest::stopStubs));
+    }
+
+    @DynamicPropertySource
+    static void stubProperties(DynamicPropertyRegistry registry) {
+        registry.add("twelve.data.api.base-url", stub::baseUrl);
+        registry.add("twelve.data.api.key", () -> "loadtest");
+        registry.add("spring.data.redis.host", () -> "127.0.0.1");
+        registry.add("spring.data.redis.port", () -> redisPort);
+        registry.add("history.store.dir", barStoreDir::toString);
+        registry.add("symbols.universe", () -> String.join(",", SYMBOLS));
+        registry.add("logging.level.com.crypto.tracker", () -> "WARN");
+        registry.add("logging.level.org.springframework.cache", () -> "WARN");
+    }
+
+    private static void stopStubs() {
+        stub.stop();
+        try {
+            redis.stop();
+        } catch (IOException e) {
+            // The JVM is exiting anyway
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TwoTierCacheManager cacheManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void runScenarios() throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+        int requests = Integer.getInteger("loadtest.requests", 2000);
+        List<String> selected = List.of(System.getProperty("loadtest.scenarios", "").split(","));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        for (Scenario scenario : SCENARIOS) {
+            if (selected.equals(List.of("")) || selected.contains(scenario.name())) {
+                report.put(scenario.name(), run(scenario, concurrency, requests));
+            }
+        }
+
+        String json = objectMapper.writeValueAsString(report);
+        System.out.println(json);
+        Path output = Path.of("target", reportName());
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, json);
+
+        assertFalse(report.isEmpty(), "No scenario matched loadtest.scenarios");
+    }
+
+    String reportName() {
+        return "loadtest-report.json";
+    }
+
+    private Map<String, Object> run(Scenario scenario, int concurrency, int requests) throws Exception {
+        stub.configure(scenario.latencyMs(), scenario.errorRate(), scenario.rateLimitRate());
+        for (String name : cacheManager.getCacheNames()) {
+            cacheManager.getCache(name).clear();
+        }
+
+        List<String> paths = new ArrayList<>();
+        paths.add("/api/indices");
+        for (String symbol : SYMBOLS) {
+            paths.add("/api/indices/" + symbol + "/history");
+        }
+        paths.add("/api/meta/limits");
+
+        Map<String, Long> upstreamBefore = stub.counts();
+        long[] cacheBefore = cacheCounters();
+
+        LatencyRecorder recorder = new LatencyRecorder(requests);
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            workers.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < requests) {
+                    send(paths.get(i % paths.size()), recorder);
+                }
+            });
+        }
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(10, TimeUnit.MINUTES), "Scenario " + scenario.name() + " timed out");
+        long elapsed = System.nanoTime() - start;
+
+        long[] cacheAfter = cacheCounters();
+        long hits = cacheAfter[0] - cacheBefore[0];
+        long misses = cacheAfter[1] - cacheBefore[1];
+
+        Map<String, Long> upstream = new LinkedHashMap<>();
+        Map<String, Long> upstreamAfter = stub.counts();
+        upstreamAfter.forEach((key, value) -> upstream.put(key, value - upstreamBefore.get(key)));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("scenario", scenario);
+        result.put("concurrency", concurrency);
+        result.put("latency", recorder.summary(elapsed));
+        result.put("cacheHitRatio", hits + misses > 0 ? hits / (double) (hits + misses) : 0.0);
+        result.put("upstreamCalls", upstream);
+        return result;
+    }
+
+    private void send(String path, LatencyRecorder recorder) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            ok = status / 100 == 2 || status == 304;
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        recorder.record(System.nanoTime() - start, ok);
+    }
+
+    /**
+     * Hits (near plus remote) and misses summed over all caches, read from /api/meta/stats.
+     */
+    private long[] cacheCounters() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/meta/stats"))
+                .GET()
+                .build();
+        JsonNode caches = objectMapper.readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body())
+                .path("caches");
+
+        long hits = 0;
+        long misses = 0;
+        Iterator<JsonNode> stats = caches.elements();
+        while (stats.hasNext()) {
+            JsonNode cache = stats.next();
+            hits += cache.path("nearHits").asLong() + cache.path("remoteHits").asLong();
+            misses += cache.path("misses").asLong();
+        }
+        return new long[] {hits, misses};
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.crypto.tracker.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Request latencies of one scenario. Every sample is kept, so percentiles are exact; the histogram groups them
+ * into power-of-two millisecond buckets (up to 1 ms, up to 2 ms, ... and everything over 4 s).
+ */
+class LatencyRecorder {
+
+    private static final int BUCKETS = 14;  // 1 ms .. 4096 ms, plus overflow
+
+    private final long[] samples;
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    /**
+     * @param ok whether the response had a 2xx or 304 status
+     */
+    void record(long nanos, boolean ok) {
+        int i = count.getAndIncrement();
+        if (i < samples.length) {
+            samples[i] = nanos;
+        }
+        if (!ok) {
+            failures.incrementAndGet();
+        }
+
+        long micros = nanos / 1_000;
+        int bucket = 0;
+        while (bucket < BUCKETS - 1 && micros > 1_000L << bucket) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+    }
+
+    Map<String, Object> summary(long elapsedNanos) {
+        int n = Math.min(count.get(), samples.length);
+        long[] sorted = Arrays.copyOf(samples, n);
+        Arrays.sort(sorted);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", n);
+        summary.put("failures", failures.get());
+        summary.put("throughputPerSecond", n / (elapsedNanos / 1e9));
+        summary.put("p50Ms", percentile(sorted, 0.50));
+        summary.put("p90Ms", percentile(sorted, 0.90));
+        summary.put("p99Ms", percentile(sorted, 0.99));
+        summary.put("maxMs", n > 0 ? sorted[n - 1] / 1e6 : 0.0);
+
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            String label = i < BUCKETS - 1 ? "<=" + (1L << i) + "ms" : ">" + (1L << (BUCKETS - 2)) + "ms";
+            histogram.put(label, buckets.get(i));
+        }
+        summary.put("histogram", histogram);
+        return summary;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
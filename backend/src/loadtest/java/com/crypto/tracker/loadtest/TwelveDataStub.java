@@ -0,0 +1,216 @@
+package com.crypto.tracker.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for Twelve Data's {@code /quote} and {@code /time_series}, answering in the API's own shapes
+ * (one object for a single symbol, an object keyed by symbol for several). Latency, server errors and 429s are
+ * injected per call with the configured probabilities.
+ */
+class TwelveDataStub {
+
+    private final HttpServer server;
+
+    private volatile long latencyMs;
+    private volatile double errorRate;
+    private volatile double rateLimitRate;
+
+    private final AtomicLong quoteCalls = new AtomicLong();
+    private final AtomicLong timeSeriesCalls = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    TwelveDataStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/quote", exchange -> handle(exchange, quoteCalls, this::quotes));
+        server.createContext("/time_series", exchange -> handle(exchange, timeSeriesCalls, this::timeSeries));
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    void configure(long latencyMs, double errorRate, double rateLimitRate) {
+        this.latencyMs = latencyMs;
+        this.errorRate = errorRate;
+        this.rateLimitRate = rateLimitRate;
+    }
+
+    /**
+     * Calls received so far, by endpoint, plus how many were answered with a 500 or a 429.
+     */
+    Map<String, Long> counts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("quote", quoteCalls.get());
+        counts.put("time_series", timeSeriesCalls.get());
+        counts.put("errors", errors.get());
+        counts.put("rateLimited", rateLimited.get());
+        return counts;
+    }
+
+    private interface Body {
+        String build(Map<String, String> params);
+    }
+
+    private void handle(HttpExchange exchange, AtomicLong calls, Body body) throws IOException {
+        calls.incrementAndGet();
+        try {
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < rateLimitRate) {
+                rateLimited.incrementAndGet();
+                respond(exchange, 429, "{\"code\":429,\"message\":\"You have run out of API credits for the "
+                    + "current minute.\",\"status\":\"error\"}");
+            } else if (roll < rateLimitRate + errorRate) {
+                errors.incrementAndGet();
+                respond(exchange, 500, "{\"code\":500,\"message\":\"Internal error\",\"status\":\"error\"}");
+            } else {
+                respond(exchange, 200, body.build(params(exchange)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "{}");
+        }
+    }
+
+    private String quotes(Map<String, String> params) {
+        List<String> symbols = List.of(params.get("symbol").split(","));
+        if (symbols.size() == 1) {
+            return quote(symbols.get(0));
+        }
+
+        StringBuilder json = new StringBuilder("{");
+        for (String symbol : symbols) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(symbol).append("\":").append(quote(symbol));
+        }
+        return json.append('}').toString();
+    }
+
+    private static String quote(String symbol) {
+        double close = price(symbol) + ThreadLocalRandom.current().nextDouble(-1, 1);
+        long now = System.currentTimeMillis() / 1000;
+        return String.format(Locale.ROOT, "{\"symbol\":\"%s\",\"name\":\"%s Trust\",\"exchange\":\"NYSE\","
+                + "\"mic_code\":\"ARCX\",\"currency\":\"USD\",\"datetime\":\"%s\",\"timestamp\":%d,"
+                + "\"open\":\"%.5f\",\"high\":\"%.5f\",\"low\":\"%.5f\",\"close\":\"%.5f\","
+                + "\"volume\":\"71234500\",\"previous_close\":\"%.5f\","
+                + "\"change\":\"0.50000\",\"percent_change\":\"0.11000\",\"average_volume\":\"80123400\","
+                + "\"is_market_open\":true}",
+            symbol, symbol, LocalDate.now(), now, close - 1, close + 2, close - 2, close, close - 0.5);
+    }
+
+    private String timeSeries(Map<String, String> params) {
+        List<String> symbols = List.of(params.get("symbol").split(","));
+        List<LocalDate> days = tradingDays(params);
+        if (symbols.size() == 1) {
+            return series(symbols.get(0), params.get("interval"), days);
+        }
+
+        StringBuilder json = new StringBuilder("{");
+        for (String symbol : symbols) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(symbol).append("\":").append(series(symbol, params.get("interval"), days));
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Weekdays up to today, newest first: from start_date if given, otherwise the last outputsize of them.
+     */
+    private static List<LocalDate> tradingDays(Map<String, String> params) {
+        int outputSize = Integer.parseInt(params.getOrDefault("outputsize", "30"));
+        LocalDate from = params.containsKey("start_date")
+            ? LocalDate.parse(params.get("start_date").substring(0, 10))
+            : null;
+
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = LocalDate.now(); days.size() < outputSize; day = day.minusDays(1)) {
+            if (from != null && day.isBefore(from)) {
+                break;
+            }
+            if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    private static String series(String symbol, String interval, List<LocalDate> days) {
+        StringBuilder values = new StringBuilder();
+        double price = price(symbol);
+        for (LocalDate day : days) {
+            if (values.length() > 0) {
+                values.append(',');
+            }
+            double close = price + Math.sin(day.toEpochDay() * 0.7) * 3;
+            values.append(String.format(Locale.ROOT, "{\"datetime\":\"%s\",\"open\":\"%.5f\",\"high\":\"%.5f\","
+                    + "\"low\":\"%.5f\",\"close\":\"%.5f\",\"volume\":\"70123400\"}",
+                day, close - 0.4, close + 1.2, close - 1.1, close));
+        }
+        return "{\"meta\":{\"symbol\":\"" + symbol + "\",\"interval\":\"" + interval + "\",\"currency\":\"USD\","
+            + "\"exchange_timezone\":\"America/New_York\",\"exchange\":\"NYSE\",\"type\":\"ETF\"},"
+            + "\"values\":[" + values + "],\"status\":\"ok\"}";
+    }
+
+    private static double price(String symbol) {
+        return 100 + Math.floorMod(symbol.hashCode(), 400);
+    }
+
+    private static Map<String, String> params(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    String value = URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                    params.put(pair.substring(0, eq), value);
+                }
+            }
+        }
+        return params;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.crypto.tracker.loadtest;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The same scenarios with {@code spring.threads.virtual.enabled=true}, so requests, background refreshes and
+ * upstream calls run on virtual threads. Fails if a virtual thread was pinned to its carrier inside this
+ * application's code; pinning inside libraries is not counted. The report goes to
+ * {@code target/loadtest-report-virtual-threads.json}, next to the platform-thread one.
+ */
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadIndexApiLoadTest extends IndexApiLoadTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Test
+    @Override
+    void runScenarios() throws Exception {
+        TomcatWebServer server = (TomcatWebServer) context.getWebServer();
+        assertInstanceOf(VirtualThreadExecutor.class,
+            server.getTomcat().getConnector().getProtocolHandler().getExecutor());
+
+        Path events = Path.of("target", "loadtest-virtual-threads.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withStackTrace().withThreshold(Duration.ZERO);
+            recording.start();
+            super.runScenarios();
+            recording.stop();
+            Files.createDirectories(events.getParent());
+            recording.dump(events);
+        }
+
+        Set<String> pinnedAt = new LinkedHashSet<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(events)) {
+            if (event.getStackTrace() == null) {
+                continue;
+            }
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                String type = frame.getMethod().getType().getName();
+                if (type.startsWith("com.crypto.tracker.") && !type.startsWith("com.crypto.tracker.loadtest.")) {
+                    pinnedAt.add(type + "." + frame.getMethod().getName());
+                    break;
+                }
+            }
+        }
+        assertTrue(pinnedAt.isEmpty(), "Virtual threads pinned in " + pinnedAt);
+    }
+
+    @Override
+    String reportName() {
+        return "loadtest-report-virtual-threads.json";
+    }
+}
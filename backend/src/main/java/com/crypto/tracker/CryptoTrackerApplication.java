@@ -4,9 +4,11 @@ import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableCaching  // Enable Spring's caching support
+@EnableScheduling  // Enable background refresh-ahead of cache entries
 public class CryptoTrackerApplication {
 
     public static void main(String[] args) {
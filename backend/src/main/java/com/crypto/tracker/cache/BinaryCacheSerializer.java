@@ -0,0 +1,340 @@
+package com.crypto.tracker.cache;
+
+import com.crypto.tracker.model.BarSeries;
+import com.crypto.tracker.model.CryptoQuote;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compact binary Redis format for cache entries: {@link CachedValue} envelopes holding a {@link CryptoQuote} or a
+ * {@link BarSeries}. Bar times are delta-encoded, volumes are varints, prices are raw doubles (NaN included).
+ *
+ * <p>Layout: magic byte, format version, flags, then the value. With {@link #FLAG_LZ4} set the value is LZ4
+ * compressed and preceded by its uncompressed length. Values of any other type are embedded as JSON, and bytes
+ * without the magic byte (entries written by the JSON serializer) are read as JSON, so switching a cache over
+ * needs no flush.
+ *
+ * <p>Version 2 added envelopes with their own soft TTL. Older versions are still read; entries in a newer version
+ * than this replica knows (written by a replica deployed after it) are read as misses.
+ */
+public class BinaryCacheSerializer implements RedisSerializer<Object> {
+
+    // Never the first byte of a JSON document
+    static final byte MAGIC = (byte) 0xB1;
+    static final byte VERSION = 2;
+    static final byte FLAG_LZ4 = 1;
+
+    private static final byte NULL = 0;
+    private static final byte CACHED_VALUE = 1;
+    private static final byte QUOTE = 2;
+    private static final byte BAR_SERIES = 3;
+    private static final byte JSON = 4;
+    // Since version 2: an envelope carrying its own soft TTL
+    private static final byte CACHED_VALUE_TTL = 5;
+
+    private static final int HEADER_BYTES = 3;
+
+    // No LZ4 block expands by more than this, so a larger declared length means a corrupt entry
+    private static final int MAX_LZ4_RATIO = 255;
+
+    private final GenericJackson2JsonRedisSerializer json;
+    private final int compressAboveBytes;
+    private final LZ4Compressor compressor;
+    private final LZ4SafeDecompressor decompressor;
+
+    /**
+     * @param compressAboveBytes values encoding to more bytes than this are LZ4 compressed; 0 never compresses
+     */
+    public BinaryCacheSerializer(GenericJackson2JsonRedisSerializer json, int compressAboveBytes) {
+        this.json = json;
+        this.compressAboveBytes = compressAboveBytes;
+        LZ4Factory lz4 = LZ4Factory.fastestInstance();
+        this.compressor = lz4.fastCompressor();
+        this.decompressor = lz4.safeDecompressor();
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeValue(out, value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode " + value.getClass().getName(), e);
+        }
+        byte[] raw = bytes.toByteArray();
+
+        if (compressAboveBytes > 0 && raw.length > compressAboveBytes) {
+            byte[] packed = new byte[HEADER_BYTES + 4 + compressor.maxCompressedLength(raw.length)];
+            int length = compressor.compress(raw, 0, raw.length, packed, HEADER_BYTES + 4);
+            // Only worth it if it actually got smaller
+            if (length + 4 < raw.length) {
+                header(packed, FLAG_LZ4);
+                ByteBuffer.wrap(packed, HEADER_BYTES, 4).putInt(raw.length);
+                return Arrays.copyOf(packed, HEADER_BYTES + 4 + length);
+            }
+        }
+
+        byte[] framed = new byte[HEADER_BYTES + raw.length];
+        header(framed, (byte) 0);
+        System.arraycopy(raw, 0, framed, HEADER_BYTES, raw.length);
+        return framed;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return json.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_BYTES || bytes[1] < 1) {
+            throw new SerializationException("Unsupported cache format version " + (bytes.length > 1 ? bytes[1] : -1));
+        }
+        if (bytes[1] > VERSION) {
+            return null;
+        }
+
+        byte[] raw;
+        int offset;
+        if ((bytes[2] & FLAG_LZ4) != 0) {
+            raw = decompress(bytes);
+            offset = 0;
+        } else {
+            raw = bytes;
+            offset = HEADER_BYTES;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw, offset, raw.length - offset))) {
+            return readValue(in);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not decode cache entry", e);
+        }
+    }
+
+    /**
+     * The uncompressed value of an LZ4 entry. The declared length is checked before anything is allocated, and
+     * the safe decompressor never reads or writes outside the given arrays, whatever the entry holds.
+     */
+    private byte[] decompress(byte[] bytes) {
+        int compressedLength = bytes.length - HEADER_BYTES - 4;
+        if (compressedLength <= 0) {
+            throw new SerializationException("Truncated compressed cache entry");
+        }
+        int length = ByteBuffer.wrap(bytes, HEADER_BYTES, 4).getInt();
+        if (length < 0 || length > (long) compressedLength * MAX_LZ4_RATIO) {
+            throw new SerializationException("Corrupt compressed cache entry: declares " + length + " bytes");
+        }
+
+        byte[] raw = new byte[length];
+        try {
+            int decoded = decompressor.decompress(bytes, HEADER_BYTES + 4, compressedLength, raw, 0, length);
+            if (decoded != length) {
+                throw new SerializationException("Corrupt compressed cache entry: " + decoded + " of " + length
+                    + " bytes");
+            }
+        } catch (LZ4Exception e) {
+            throw new SerializationException("Corrupt compressed cache entry", e);
+        }
+        return raw;
+    }
+
+    private static void header(byte[] target, byte flags) {
+        target[0] = MAGIC;
+        target[1] = VERSION;
+        target[2] = flags;
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof CachedValue cached) {
+            out.writeByte(cached.getSoftTtlMillis() > 0 ? CACHED_VALUE_TTL : CACHED_VALUE);
+            out.writeLong(cached.getStoredAt());
+            if (cached.getSoftTtlMillis() > 0) {
+                writeVarLong(out, cached.getSoftTtlMillis());
+            }
+            writeValue(out, cached.getValue());
+        } else if (value instanceof CryptoQuote quote) {
+            out.writeByte(QUOTE);
+            writeQuote(out, quote);
+        } else if (value instanceof BarSeries bars) {
+            out.writeByte(BAR_SERIES);
+            writeBars(out, bars);
+        } else {
+            byte[] encoded = json.serialize(value);
+            out.writeByte(JSON);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case NULL -> null;
+            case CACHED_VALUE -> {
+                long storedAt = in.readLong();
+                yield new CachedValue(readValue(in), storedAt);
+            }
+            case CACHED_VALUE_TTL -> {
+                long storedAt = in.readLong();
+                long softTtlMillis = readVarLong(in);
+                yield new CachedValue(readValue(in), storedAt, softTtlMillis);
+            }
+            case QUOTE -> readQuote(in);
+            case BAR_SERIES -> readBars(in);
+            case JSON -> {
+                byte[] encoded = new byte[in.readInt()];
+                in.readFully(encoded);
+                yield json.deserialize(encoded);
+            }
+            default -> throw new IOException("Unknown value type " + type);
+        };
+    }
+
+    private static void writeQuote(DataOutputStream out, CryptoQuote quote) throws IOException {
+        writeString(out, quote.getSymbol());
+        writeString(out, quote.getName());
+        writeString(out, quote.getExchange());
+        writeString(out, quote.getDatetime());
+        out.writeBoolean(quote.getTimestamp() != null);
+        if (quote.getTimestamp() != null) {
+            writeVarLong(out, quote.getTimestamp());
+        }
+        // Kept as Twelve Data's strings, so a cached quote reads back exactly as fetched
+        writeString(out, quote.getOpen());
+        writeString(out, quote.getHigh());
+        writeString(out, quote.getLow());
+        writeString(out, quote.getClose());
+        writeString(out, quote.getVolume());
+        writeString(out, quote.getPreviousClose());
+        writeString(out, quote.getChange());
+        writeString(out, quote.getPercentChange());
+        writeString(out, quote.getAverageVolume());
+    }
+
+    private static CryptoQuote readQuote(DataInputStream in) throws IOException {
+        CryptoQuote quote = new CryptoQuote();
+        quote.setSymbol(readString(in));
+        quote.setName(readString(in));
+        quote.setExchange(readString(in));
+        quote.setDatetime(readString(in));
+        quote.setTimestamp(in.readBoolean() ? readVarLong(in) : null);
+        quote.setOpen(readString(in));
+        quote.setHigh(readString(in));
+        quote.setLow(readString(in));
+        quote.setClose(readString(in));
+        quote.setVolume(readString(in));
+        quote.setPreviousClose(readString(in));
+        quote.setChange(readString(in));
+        quote.setPercentChange(readString(in));
+        quote.setAverageVolume(readString(in));
+        return quote;
+    }
+
+    private static void writeBars(DataOutputStream out, BarSeries bars) throws IOException {
+        long[] epochs = bars.getEpochs();
+        int n = epochs.length;
+        writeVarLong(out, n);
+
+        // Bars are evenly spaced more often than not, so deltas stay small
+        long previous = 0;
+        for (long epoch : epochs) {
+            writeVarLong(out, epoch - previous);
+            previous = epoch;
+        }
+        writeDoubles(out, bars.getOpen());
+        writeDoubles(out, bars.getHigh());
+        writeDoubles(out, bars.getLow());
+        writeDoubles(out, bars.getClose());
+        for (long volume : bars.getVolume()) {
+            writeVarLong(out, volume);  // -1 when missing
+        }
+    }
+
+    private static BarSeries readBars(DataInputStream in) throws IOException {
+        int n = (int) readVarLong(in);
+        long[] epochs = new long[n];
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            previous += readVarLong(in);
+            epochs[i] = previous;
+        }
+        double[] open = readDoubles(in, n);
+        double[] high = readDoubles(in, n);
+        double[] low = readDoubles(in, n);
+        double[] close = readDoubles(in, n);
+        long[] volume = new long[n];
+        for (int i = 0; i < n; i++) {
+            volume[i] = readVarLong(in);
+        }
+        return new BarSeries(epochs, open, high, low, close, volume);
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static double[] readDoubles(DataInputStream in, int n) throws IOException {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Zigzag varint: small magnitudes of either sign take one or two bytes.
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
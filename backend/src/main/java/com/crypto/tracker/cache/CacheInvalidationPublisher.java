@@ -0,0 +1,58 @@
+package com.crypto.tracker.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Broadcasts near-cache invalidations over Redis pub/sub.
+ * Message format: {@code <instanceId>|<cacheName>|<key>}, with an empty key meaning "clear".
+ */
+public class CacheInvalidationPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationPublisher.class);
+
+    public static final String CHANNEL = "cache:invalidate";
+
+    private static final String SEPARATOR = "|";
+
+    private final StringRedisTemplate redisTemplate;
+
+    // Lets each replica ignore the messages it published itself
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        publish(cacheName, String.valueOf(key));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName, "");
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, instanceId + SEPARATOR + cacheName + SEPARATOR + key);
+        } catch (Exception e) {
+            // Other replicas fall back to the near-cache TTL if a message is lost
+            log.warn("Failed to publish cache invalidation for {}::{}", cacheName, key, e);
+        }
+    }
+
+    /**
+     * Splits a raw message into [instanceId, cacheName, key], or returns null if it is malformed.
+     */
+    static String[] parse(String message) {
+        String[] parts = message.split("\\" + SEPARATOR, 3);
+        return parts.length == 3 ? parts : null;
+    }
+}
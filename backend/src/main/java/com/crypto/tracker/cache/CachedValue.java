@@ -0,0 +1,57 @@
+package com.crypto.tracker.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.io.Serializable;
+
+/**
+ * Envelope stored in both cache tiers so readers can tell how old a value is.
+ */
+public class CachedValue implements Serializable {
+
+    private Object value;
+    private long storedAt;  // Epoch millis when the value was fetched
+    private long softTtlMillis;  // How long this value stays fresh; 0 means the cache's configured soft TTL
+
+    public CachedValue() {
+    }
+
+    public CachedValue(Object value, long storedAt) {
+        this(value, storedAt, 0);
+    }
+
+    public CachedValue(Object value, long storedAt, long softTtlMillis) {
+        this.value = value;
+        this.storedAt = storedAt;
+        this.softTtlMillis = softTtlMillis;
+    }
+
+    @JsonIgnore
+    public long getAgeMillis() {
+        return Math.max(0, System.currentTimeMillis() - storedAt);
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public long getStoredAt() {
+        return storedAt;
+    }
+
+    public void setStoredAt(long storedAt) {
+        this.storedAt = storedAt;
+    }
+
+    public long getSoftTtlMillis() {
+        return softTtlMillis;
+    }
+
+    public void setSoftTtlMillis(long softTtlMillis) {
+        this.softTtlMillis = softTtlMillis;
+    }
+}
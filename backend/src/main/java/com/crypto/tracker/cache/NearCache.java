@@ -0,0 +1,103 @@
+package com.crypto.tracker.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, TTL-aware in-heap map used as the L1 tier of {@link TwoTierCache}.
+ * Entries are evicted least-recently-used once the size limit is reached.
+ */
+public class NearCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // Access-ordered map so the eldest entry is always the least recently read
+    private final LinkedHashMap<Object, Entry> entries;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public NearCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > NearCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached entry, or null if it is missing or expired.
+     */
+    public Entry get(Object key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(Object key, Object value) {
+        put(key, value, Long.MAX_VALUE);
+    }
+
+    /**
+     * Stores the value for the cache's TTL, but no later than {@code notAfter} (epoch millis).
+     */
+    public void put(Object key, Object value, long notAfter) {
+        lock.lock();
+        try {
+            entries.put(key, new Entry(value, Math.min(System.currentTimeMillis() + ttlMillis, notAfter)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void evict(Object key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public record Entry(Object value, long expiresAt) {
+    }
+}
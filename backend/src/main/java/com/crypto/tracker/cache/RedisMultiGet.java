@@ -0,0 +1,54 @@
+package com.crypto.tracker.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads several entries of a {@link RedisCache} with one MGET instead of one GET per key.
+ * Keys and values are (de)serialized with the cache's own configuration, so it sees exactly what the cache wrote.
+ */
+public class RedisMultiGet {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    public RedisMultiGet(RedisConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Values for the keys in the same order, with null for keys that are not cached.
+     */
+    public List<Object> get(RedisCache cache, List<?> keys) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        String prefix = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) : "";
+
+        byte[][] rawKeys = new byte[keys.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = toBytes(config.getKeySerializationPair().write(prefix + keys.get(i)));
+        }
+
+        List<byte[]> rawValues;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            rawValues = connection.stringCommands().mGet(rawKeys);
+        }
+
+        List<Object> values = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] raw = rawValues != null ? rawValues.get(i) : null;
+            values.add(raw != null ? config.getValueSerializationPair().read(ByteBuffer.wrap(raw)) : null);
+        }
+        return values;
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,89 @@
+package com.crypto.tracker.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Final JSON response bytes per key, kept together with the version of the data they were built from.
+ * A response is only transformed and serialized again when its data version changes.
+ *
+ * <p>ETags are a hash of the bytes, so every replica hands out the same strong ETag for the same content.
+ */
+@Component
+public class ResponseCache {
+
+    // Leading bytes of the SHA-256 digest used in ETags
+    private static final int ETAG_BYTES = 16;
+
+    private final ObjectMapper objectMapper;
+    private final NearCache entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong builds = new AtomicLong();
+
+    public ResponseCache(ObjectMapper objectMapper,
+                         @Value("${cache.response.max-entries:500}") int maxEntries,
+                         @Value("${cache.response.ttl-seconds:3600}") long ttlSeconds) {
+        this.objectMapper = objectMapper;
+        this.entries = new NearCache(maxEntries, ttlSeconds * 1000);
+    }
+
+    /**
+     * The serialized response for the key at the given data version. The body is only built if the cached
+     * bytes are missing or belong to another version. With a null version (data not cached) nothing is kept.
+     */
+    public CachedResponse get(String key, Long version, Supplier<?> body) throws JsonProcessingException {
+        if (version != null) {
+            NearCache.Entry entry = entries.get(key);
+            if (entry != null && entry.value() instanceof CachedResponse cached && cached.version() == version) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        byte[] bytes = objectMapper.writeValueAsBytes(body.get());
+        CachedResponse response = new CachedResponse(version != null ? version : 0L, bytes, etag(bytes));
+        builds.incrementAndGet();
+
+        if (version != null) {
+            entries.put(key, response);
+        }
+        return response;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("hits", hits.get());
+        stats.put("builds", builds.get());
+        return stats;
+    }
+
+    static String etag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(Arrays.copyOf(digest, ETAG_BYTES)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * @param version data version the bytes were built from
+     * @param body    serialized JSON
+     * @param etag    quoted strong ETag
+     */
+    public record CachedResponse(long version, byte[] body, String etag) {
+    }
+}
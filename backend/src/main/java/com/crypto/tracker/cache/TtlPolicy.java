@@ -0,0 +1,21 @@
+package com.crypto.tracker.cache;
+
+import java.time.Duration;
+
+/**
+ * Decides, when a value is written to a {@link TwoTierCache}, how long it stays fresh. The result is stored in the
+ * entry's {@link CachedValue} envelope; RedisCacheConfig keeps the Redis entry at least that long.
+ */
+@FunctionalInterface
+public interface TtlPolicy {
+
+    /**
+     * Every entry gets the cache's configured soft TTL.
+     */
+    TtlPolicy FIXED = (cacheName, key, value, softTtl) -> softTtl;
+
+    /**
+     * @param softTtl the soft TTL configured for the cache
+     */
+    Duration softTtl(String cacheName, Object key, Object value, Duration softTtl);
+}
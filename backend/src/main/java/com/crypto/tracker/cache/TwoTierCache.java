@@ -0,0 +1,393 @@
+package com.crypto.tracker.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache that checks an in-process {@link NearCache} (L1) before the shared Redis cache (L2).
+ * Writes and evictions go to both tiers and are broadcast so other replicas drop their L1 copy.
+ *
+ * <p>Values are stored as {@link CachedValue} envelopes with a soft and a hard TTL. Redis expires entries
+ * at the hard TTL. Past the soft TTL, {@link #get(Object, Callable)} still returns the stale value
+ * immediately and reloads it in the background, so upstream failures only surface once the hard TTL is gone.
+ * A {@link TtlPolicy} may give each written value its own soft TTL, kept in the envelope.
+ *
+ * <p>A near copy expires after the near TTL, but never after the Redis entry it was read from would.
+ */
+public class TwoTierCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoTierCache.class);
+
+    private final String name;
+    private final Cache remote;
+    private final NearCache near;
+    private final CacheInvalidationPublisher publisher;
+    private final Duration softTtl;
+    private final Duration hardTtl;
+    private final TtlPolicy ttlPolicy;
+    private final Executor refreshExecutor;
+    private final RedisMultiGet multiGet;
+
+    // Keys with a background reload in flight, so a stale entry triggers only one refresh
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    // Counters for /api/meta/stats
+    private final AtomicLong nearHits = new AtomicLong();
+    private final AtomicLong remoteHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong backgroundRefreshFailures = new AtomicLong();
+    private final AtomicLong invalidationsReceived = new AtomicLong();
+
+    public TwoTierCache(String name, Cache remote, NearCache near, CacheInvalidationPublisher publisher,
+                        Duration softTtl, Executor refreshExecutor) {
+        this(name, remote, near, publisher, softTtl, refreshExecutor, null);
+    }
+
+    /**
+     * @param multiGet used by {@link #getEntries} when the remote tier is a RedisCache; null reads key by key
+     */
+    public TwoTierCache(String name, Cache remote, NearCache near, CacheInvalidationPublisher publisher,
+                        Duration softTtl, Executor refreshExecutor, RedisMultiGet multiGet) {
+        this(name, remote, near, publisher, softTtl, null, TtlPolicy.FIXED, refreshExecutor, multiGet);
+    }
+
+    /**
+     * @param hardTtl the Redis entry TTL, which caps how long near copies live; null if unknown
+     * @param ttlPolicy decides the soft TTL of each written value
+     */
+    public TwoTierCache(String name, Cache remote, NearCache near, CacheInvalidationPublisher publisher,
+                        Duration softTtl, Duration hardTtl, TtlPolicy ttlPolicy, Executor refreshExecutor,
+                        RedisMultiGet multiGet) {
+        this.name = name;
+        this.remote = remote;
+        this.near = near;
+        this.publisher = publisher;
+        this.softTtl = softTtl;
+        this.hardTtl = hardTtl;
+        this.ttlPolicy = ttlPolicy;
+        this.refreshExecutor = refreshExecutor;
+        this.multiGet = multiGet;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    /**
+     * Returns the value only while it is within the soft TTL; stale entries count as a miss here.
+     */
+    @Override
+    public ValueWrapper get(Object key) {
+        CachedValue cached = lookup(key, true);
+        if (cached == null || isStale(cached)) {
+            return null;
+        }
+        return new SimpleValueWrapper(cached.getValue());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Stale-while-revalidate read for loader-style callers such as {@code @Cacheable(sync = true)}.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CachedValue cached = lookup(key, true);
+        if (cached != null) {
+            if (isStale(cached)) {
+                staleHits.incrementAndGet();
+                refreshInBackground(key, valueLoader);
+            }
+            return (T) cached.getValue();
+        }
+
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        // Don't cache null results
+        if (value == null) {
+            return;
+        }
+        put(key, value, ttlPolicy.softTtl(name, key, value, softTtl));
+    }
+
+    /**
+     * Writes the value with a soft TTL the caller worked out instead of the one the policy picks.
+     */
+    public void put(Object key, Object value, Duration entrySoftTtl) {
+        if (value == null) {
+            return;
+        }
+
+        // 0 keeps the cache's own soft TTL
+        long softTtlMillis = entrySoftTtl.equals(softTtl) ? 0 : Math.max(1, entrySoftTtl.toMillis());
+        CachedValue cached = new CachedValue(value, System.currentTimeMillis(), softTtlMillis);
+        puts.incrementAndGet();
+        remote.put(key, cached);
+        putNear(key, cached);
+        publisher.publishEvict(name, key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictions.incrementAndGet();
+        remote.evict(key);
+        near.evict(key);
+        publisher.publishEvict(name, key);
+    }
+
+    @Override
+    public void clear() {
+        evictions.incrementAndGet();
+        remote.clear();
+        near.clear();
+        publisher.publishClear(name);
+    }
+
+    /**
+     * Returns the stored envelope, fresh or stale, or null if nothing is cached.
+     * For batch loaders that reload stale keys together instead of one {@link #get(Object, Callable)} at a time.
+     */
+    public CachedValue getEntry(Object key) {
+        CachedValue cached = lookup(key, true);
+        if (cached != null && isStale(cached)) {
+            staleHits.incrementAndGet();
+        }
+        return cached;
+    }
+
+    /**
+     * {@link #getEntry} for several keys. Keys missing from the near cache are read from Redis in one MGET.
+     * Keys with nothing cached are left out of the result.
+     */
+    public Map<Object, CachedValue> getEntries(Collection<?> keys) {
+        Map<Object, CachedValue> result = new HashMap<>();
+        List<Object> remoteKeys = new ArrayList<>();
+        for (Object key : keys) {
+            NearCache.Entry entry = near.get(key);
+            if (entry != null) {
+                nearHits.incrementAndGet();
+                result.put(key, (CachedValue) entry.value());
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+
+        if (!remoteKeys.isEmpty()) {
+            List<Object> values = readRemote(remoteKeys);
+            for (int i = 0; i < remoteKeys.size(); i++) {
+                // Values written before envelopes were introduced are treated as missing
+                if (!(values.get(i) instanceof CachedValue cached)) {
+                    misses.incrementAndGet();
+                    continue;
+                }
+                remoteHits.incrementAndGet();
+                putNear(remoteKeys.get(i), cached);
+                result.put(remoteKeys.get(i), cached);
+            }
+        }
+
+        for (CachedValue cached : result.values()) {
+            if (isStale(cached)) {
+                staleHits.incrementAndGet();
+            }
+        }
+        return result;
+    }
+
+    private List<Object> readRemote(List<Object> keys) {
+        if (multiGet != null && remote instanceof RedisCache redisCache) {
+            return multiGet.get(redisCache, keys);
+        }
+
+        List<Object> values = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            ValueWrapper wrapper = remote.get(key);
+            values.add(wrapper != null ? wrapper.get() : null);
+        }
+        return values;
+    }
+
+    /**
+     * Age of the cached value in milliseconds, or null if nothing is cached for the key.
+     */
+    public Long getAgeMillis(Object key) {
+        CachedValue cached = lookup(key, false);
+        return cached != null ? cached.getAgeMillis() : null;
+    }
+
+    /**
+     * When the cached value was stored (its data version), or null if nothing is cached for the key.
+     */
+    public Long getStoredAt(Object key) {
+        CachedValue cached = lookup(key, false);
+        return cached != null ? cached.getStoredAt() : null;
+    }
+
+    /**
+     * Milliseconds until the cached value goes stale (negative once it is), or null if nothing is cached for the key.
+     */
+    public Long getMillisUntilStale(Object key) {
+        CachedValue cached = lookup(key, false);
+        return cached != null ? softTtlMillis(cached) - cached.getAgeMillis() : null;
+    }
+
+    public Duration getSoftTtl() {
+        return softTtl;
+    }
+
+    private CachedValue lookup(Object key, boolean recordStats) {
+        NearCache.Entry entry = near.get(key);
+        if (entry != null) {
+            if (recordStats) {
+                nearHits.incrementAndGet();
+            }
+            return (CachedValue) entry.value();
+        }
+
+        ValueWrapper wrapper = remote.get(key);
+
+        // Values written before envelopes were introduced are treated as missing
+        if (wrapper == null || !(wrapper.get() instanceof CachedValue cached)) {
+            if (recordStats) {
+                misses.incrementAndGet();
+            }
+            return null;
+        }
+
+        // Promote the Redis value so the next read stays in-process
+        if (recordStats) {
+            remoteHits.incrementAndGet();
+        }
+        putNear(key, cached);
+        return cached;
+    }
+
+    /**
+     * Keeps the near copy no longer than Redis keeps the entry: the hard TTL, or the entry's own soft TTL when
+     * that is longer (see RedisCacheConfig), counted from when the value was stored.
+     */
+    private void putNear(Object key, CachedValue cached) {
+        if (hardTtl == null) {
+            near.put(key, cached);
+            return;
+        }
+        long redisTtl = Math.max(hardTtl.toMillis(), cached.getSoftTtlMillis());
+        near.put(key, cached, cached.getStoredAt() + redisTtl);
+    }
+
+    public boolean isStale(CachedValue cached) {
+        return cached.getAgeMillis() >= softTtlMillis(cached);
+    }
+
+    private long softTtlMillis(CachedValue cached) {
+        return cached.getSoftTtlMillis() > 0 ? cached.getSoftTtlMillis() : softTtl.toMillis();
+    }
+
+    private void refreshInBackground(Object key, Callable<?> valueLoader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    put(key, valueLoader.call());
+                } catch (Exception e) {
+                    // Keep serving the stale value until the hard TTL removes it
+                    backgroundRefreshFailures.incrementAndGet();
+                    log.warn("Background refresh of {}::{} failed: {}", name, key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (Exception e) {
+            refreshing.remove(key);
+            log.warn("Could not schedule background refresh of {}::{}", name, key, e);
+        }
+    }
+
+    /**
+     * Drops the local L1 copy only. Called when another replica changed the entry in Redis.
+     */
+    void evictLocal(Object key) {
+        invalidationsReceived.incrementAndGet();
+        near.evict(key);
+    }
+
+    void clearLocal() {
+        invalidationsReceived.incrementAndGet();
+        near.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        long l1 = nearHits.get();
+        long l2 = remoteHits.get();
+        long miss = misses.get();
+        long total = l1 + l2 + miss;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nearHits", l1);
+        stats.put("remoteHits", l2);
+        stats.put("misses", miss);
+        stats.put("hitRatio", total > 0 ? (l1 + l2) / (double) total : 0.0);
+        stats.put("staleHits", staleHits.get());
+        stats.put("puts", puts.get());
+        stats.put("evictions", evictions.get());
+        stats.put("backgroundRefreshFailures", backgroundRefreshFailures.get());
+        stats.put("nearSize", near.size());
+        stats.put("nearTtlMillis", near.getTtlMillis());
+        stats.put("softTtlMillis", softTtl.toMillis());
+        stats.put("invalidationsReceived", invalidationsReceived.get());
+        return stats;
+    }
+}
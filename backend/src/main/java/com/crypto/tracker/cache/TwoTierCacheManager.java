@@ -0,0 +1,113 @@
+package com.crypto.tracker.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Wraps the Redis cache manager so every cache gets an in-process near cache in front of it.
+ * Also listens on {@link CacheInvalidationPublisher#CHANNEL} to keep replicas coherent.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager remoteCacheManager;
+    private final CacheInvalidationPublisher publisher;
+    private final int nearMaxEntries;
+    private final TierSettings defaultSettings;
+    private final Map<String, TierSettings> cacheSettings;
+    private final TtlPolicy ttlPolicy;
+    private final Executor refreshExecutor;
+    private final RedisMultiGet multiGet;
+
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager,
+                               CacheInvalidationPublisher publisher,
+                               int nearMaxEntries,
+                               TierSettings defaultSettings,
+                               Map<String, TierSettings> cacheSettings,
+                               TtlPolicy ttlPolicy,
+                               Executor refreshExecutor,
+                               RedisMultiGet multiGet) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.publisher = publisher;
+        this.nearMaxEntries = nearMaxEntries;
+        this.defaultSettings = defaultSettings;
+        this.cacheSettings = cacheSettings;
+        this.ttlPolicy = ttlPolicy;
+        this.refreshExecutor = refreshExecutor;
+        this.multiGet = multiGet;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+
+        TierSettings settings = cacheSettings.getOrDefault(name, defaultSettings);
+        return caches.computeIfAbsent(name, n -> new TwoTierCache(
+            n,
+            remote,
+            new NearCache(nearMaxEntries, settings.nearTtl().toMillis()),
+            publisher,
+            settings.softTtl(),
+            settings.hardTtl(),
+            ttlPolicy,
+            refreshExecutor,
+            multiGet
+        ));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = CacheInvalidationPublisher.parse(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (parts == null || parts[0].equals(publisher.getInstanceId())) {
+            return;
+        }
+
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+
+        if (parts[2].isEmpty()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> stats.put(name, cache.getStats()));
+        return stats;
+    }
+
+    /**
+     * Per-cache timings: how long the near copy lives, when a value becomes stale unless the TtlPolicy
+     * says otherwise, and the Redis entry TTL configured in RedisCacheConfig.
+     */
+    public record TierSettings(Duration nearTtl, Duration softTtl, Duration hardTtl) {
+    }
+}
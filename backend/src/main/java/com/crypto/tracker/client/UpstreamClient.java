@@ -0,0 +1,292 @@
+package com.crypto.tracker.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HTTP client for Twelve Data, built on one shared JDK {@link HttpClient}: connections are kept alive and reused,
+ * HTTP/2 is negotiated where the server offers it, and responses are requested gzip-compressed.
+ *
+ * <p>Each endpoint has its own response timeout. At most {@code upstream.max-connections} requests are in flight;
+ * further callers wait up to {@code upstream.acquire-timeout-ms} for a slot and then fail instead of piling up.
+ * Callers wait for a slot without holding a thread: released slots are handed to queued callers before they
+ * go back to the semaphore.
+ */
+@Component
+public class UpstreamClient {
+
+    private final HttpClient httpClient;
+    private final Semaphore slots;
+    private final int maxConnections;
+    private final Duration acquireTimeout;
+    private final Duration defaultTimeout;
+    private final Map<String, Duration> endpointTimeouts;
+    private final MeterRegistry meterRegistry;
+
+    // Async callers waiting for a slot; completing one hands it a released slot
+    private final Queue<CompletableFuture<Void>> slotWaiters = new ConcurrentLinkedQueue<>();
+
+    // Pool metrics
+    private final AtomicLong waitedForSlot = new AtomicLong();
+    private final AtomicLong rejectedNoSlot = new AtomicLong();
+    private final Map<String, EndpointStats> endpointStats = new ConcurrentHashMap<>();
+
+    public UpstreamClient(long connectTimeoutMs, int maxConnections, long acquireTimeoutMs, long defaultTimeoutMs,
+                          long quoteTimeoutMs, long timeSeriesTimeoutMs) {
+        this(connectTimeoutMs, maxConnections, acquireTimeoutMs, defaultTimeoutMs, quoteTimeoutMs, timeSeriesTimeoutMs,
+            new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public UpstreamClient(@Value("${upstream.connect-timeout-ms:3000}") long connectTimeoutMs,
+                          @Value("${upstream.max-connections:8}") int maxConnections,
+                          @Value("${upstream.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+                          @Value("${upstream.default-timeout-ms:10000}") long defaultTimeoutMs,
+                          @Value("${upstream.quote-timeout-ms:5000}") long quoteTimeoutMs,
+                          @Value("${upstream.time-series-timeout-ms:15000}") long timeSeriesTimeoutMs,
+                          MeterRegistry meterRegistry) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)  // Falls back to HTTP/1.1 if the server does not speak it
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.maxConnections = maxConnections;
+        this.slots = new Semaphore(maxConnections);
+        this.acquireTimeout = Duration.ofMillis(acquireTimeoutMs);
+        this.defaultTimeout = Duration.ofMillis(defaultTimeoutMs);
+        this.endpointTimeouts = Map.of(
+            "quote", Duration.ofMillis(quoteTimeoutMs),
+            "time_series", Duration.ofMillis(timeSeriesTimeoutMs)
+        );
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * GETs the URI and hands the (decompressed) body to the reader. No thread waits for the slot or the response:
+     * the body is buffered and read on the client's completion thread, so readers should only parse. Non-2xx
+     * statuses, timeouts and a full pool complete the future with an IOException.
+     *
+     * @param endpoint Twelve Data endpoint name, e.g. "quote"; selects the timeout and the metrics bucket
+     */
+    public <T> CompletableFuture<T> getAsync(String endpoint, URI uri, BodyReader<T> reader) {
+        EndpointStats stats = endpointStats.computeIfAbsent(endpoint, e -> new EndpointStats());
+
+        return acquireSlotAsync().thenCompose(slot -> {
+            long start = System.nanoTime();
+            CompletableFuture<HttpResponse<byte[]>> sent;
+            try {
+                sent = httpClient.sendAsync(request(endpoint, uri), HttpResponse.BodyHandlers.ofByteArray());
+            } catch (RuntimeException e) {
+                releaseSlot();
+                throw e;
+            }
+
+            return sent.handle((response, error) -> {
+                String status = "error";
+                try {
+                    if (error != null) {
+                        throw unwrap(error);
+                    }
+                    status = String.valueOf(response.statusCode());
+                    try (InputStream body = decode(response.headers(), new ByteArrayInputStream(response.body()))) {
+                        if (response.statusCode() / 100 != 2) {
+                            throw new UpstreamStatusException(endpoint, response.statusCode(),
+                                new String(body.readNBytes(200), StandardCharsets.UTF_8));
+                        }
+                        T result = reader.read(body);
+                        stats.record(System.nanoTime() - start);
+                        return result;
+                    }
+                } catch (HttpTimeoutException e) {
+                    status = "timeout";
+                    stats.timeouts.incrementAndGet();
+                    throw new CompletionException(e);
+                } catch (IOException e) {
+                    stats.failures.incrementAndGet();
+                    throw new CompletionException(e);
+                } finally {
+                    releaseSlot();
+                    recordCall(endpoint, status, System.nanoTime() - start);
+                }
+            });
+        });
+    }
+
+    /**
+     * {@link #getAsync} with the body as a string.
+     */
+    public CompletableFuture<String> getStringAsync(String endpoint, URI uri) {
+        return getAsync(endpoint, uri, body -> new String(body.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("maxConnections", maxConnections);
+        pool.put("inFlight", maxConnections - slots.availablePermits());
+        pool.put("waitedForSlot", waitedForSlot.get());
+        pool.put("rejectedNoSlot", rejectedNoSlot.get());
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        endpointStats.forEach((endpoint, stats) -> endpoints.put(endpoint, stats.toMap()));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pool", pool);
+        stats.put("endpoints", endpoints);
+        return stats;
+    }
+
+    /**
+     * Times one call under {@code upstream.requests}, tagged with the endpoint and the HTTP status
+     * ("timeout" or "error" when there was none).
+     */
+    private void recordCall(String endpoint, String status, long nanos) {
+        Timer.builder("upstream.requests")
+                .description("Twelve Data calls by endpoint and status")
+                .tag("endpoint", endpoint)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private HttpRequest request(String endpoint, URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(endpointTimeouts.getOrDefault(endpoint, defaultTimeout))
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+    }
+
+    private CompletableFuture<Void> acquireSlotAsync() {
+        if (slots.tryAcquire()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        waitedForSlot.incrementAndGet();
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        slotWaiters.add(waiter);
+
+        // A slot released before we were queued went back to the semaphore
+        if (slots.tryAcquire() && !waiter.complete(null)) {
+            // Handed a slot in the meantime as well - keep only one
+            releaseSlot();
+        }
+
+        return waiter.orTimeout(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(error -> {
+                    slotWaiters.remove(waiter);
+                    if (error instanceof TimeoutException) {
+                        rejectedNoSlot.incrementAndGet();
+                        throw new CompletionException(
+                            new IOException("All " + maxConnections + " upstream connections are busy"));
+                    }
+                    throw new CompletionException(error);
+                });
+    }
+
+    /**
+     * Hands the slot to the oldest waiting async caller, or returns it to the semaphore.
+     */
+    private void releaseSlot() {
+        CompletableFuture<Void> waiter;
+        while ((waiter = slotWaiters.poll()) != null) {
+            // False if the waiter already timed out
+            if (waiter.complete(null)) {
+                return;
+            }
+        }
+        slots.release();
+    }
+
+    private static IOException unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof IOException io ? io : new IOException(cause.getMessage(), cause);
+    }
+
+    private static InputStream decode(HttpHeaders headers, InputStream body) throws IOException {
+        boolean gzip = headers.firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        return gzip ? new GZIPInputStream(body) : body;
+    }
+
+    /**
+     * Upstream answered with a non-2xx status.
+     */
+    public static class UpstreamStatusException extends IOException {
+
+        private final int statusCode;
+
+        public UpstreamStatusException(String endpoint, int statusCode, String body) {
+            super("HTTP " + statusCode + " from " + endpoint + ": " + body);
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+
+    /**
+     * Reads a response body; the stream is closed afterwards.
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+
+    private static final class EndpointStats {
+
+        private final AtomicLong successes = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void record(long nanos) {
+            successes.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        private Map<String, Object> toMap() {
+            long ok = successes.get();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("successes", ok);
+            map.put("failures", failures.get());
+            map.put("timeouts", timeouts.get());
+            map.put("avgMillis", ok > 0 ? totalNanos.get() / ok / 1_000_000.0 : 0.0);
+            map.put("maxMillis", maxNanos.get() / 1_000_000.0);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.crypto.tracker.config;
+
+import com.crypto.tracker.cache.TwoTierCache;
+import com.crypto.tracker.cache.TwoTierCacheManager;
+import com.crypto.tracker.client.UpstreamClient;
+import com.crypto.tracker.service.MonthlyBudget;
+import com.crypto.tracker.service.RateLimiter;
+import com.crypto.tracker.service.UpstreamScheduler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * Exposes the counters the caches, limits and upstream pool already keep as Micrometer meters, so they reach
+ * {@code /actuator/prometheus}. Request latency comes from Spring's own {@code http.server.requests} and upstream
+ * latency from {@code upstream.requests}, recorded in UpstreamClient.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * {@code cache.gets} by cache, result and tier, plus stale hits, puts, evictions and near-cache size.
+     */
+    @Bean
+    public MeterBinder cacheMetrics(TwoTierCacheManager cacheManager) {
+        return registry -> {
+            for (String name : cacheManager.getCacheNames()) {
+                TwoTierCache cache = (TwoTierCache) cacheManager.getCache(name);
+                cacheCounter(registry, "cache.gets", cache, "nearHits", "result", "hit", "tier", "near");
+                cacheCounter(registry, "cache.gets", cache, "remoteHits", "result", "hit", "tier", "remote");
+                cacheCounter(registry, "cache.gets", cache, "misses", "result", "miss", "tier", "none");
+                cacheCounter(registry, "cache.gets.stale", cache, "staleHits");
+                cacheCounter(registry, "cache.puts", cache, "puts");
+                cacheCounter(registry, "cache.evictions", cache, "evictions");
+                cacheCounter(registry, "cache.refresh.failures", cache, "backgroundRefreshFailures");
+                Gauge.builder("cache.size", cache, c -> stat(c.getStats(), "nearSize"))
+                        .tag("cache", name)
+                        .tag("tier", "near")
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Twelve Data budget and per-minute window as gauges. The consumption rate is {@code twelvedata.budget.consumed}.
+     */
+    @Bean
+    public MeterBinder budgetMetrics(MonthlyBudget monthlyBudget, RateLimiter minuteLimiter) {
+        return registry -> {
+            Gauge.builder("twelvedata.budget.used", monthlyBudget, MonthlyBudget::getCurrentUsage)
+                    .description("Calls used this month")
+                    .register(registry);
+            Gauge.builder("twelvedata.budget.remaining", monthlyBudget, MonthlyBudget::getRemainingBudget)
+                    .description("Calls left this month")
+                    .register(registry);
+            Gauge.builder("twelvedata.minute.remaining", minuteLimiter, RateLimiter::getRemainingRequests)
+                    .description("Calls left in the current minute window")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * {@code upstream.scheduler.queued} by priority; the scheduler registers its own counters and wait timers.
+     */
+    @Bean
+    public MeterBinder upstreamSchedulerMetrics(UpstreamScheduler upstreamScheduler) {
+        return registry -> {
+            for (UpstreamScheduler.Priority priority : UpstreamScheduler.Priority.values()) {
+                Gauge.builder("upstream.scheduler.queued", upstreamScheduler, s -> s.getQueued(priority))
+                        .description("Calls waiting to be admitted")
+                        .tag("priority", priority.name().toLowerCase())
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder upstreamPoolMetrics(UpstreamClient upstreamClient) {
+        return registry -> {
+            Gauge.builder("upstream.pool.in.flight", upstreamClient, c -> pool(c, "inFlight"))
+                    .description("Upstream requests holding a connection slot")
+                    .register(registry);
+            FunctionCounter.builder("upstream.pool.waited", upstreamClient, c -> pool(c, "waitedForSlot"))
+                    .description("Requests that had to wait for a connection slot")
+                    .register(registry);
+            FunctionCounter.builder("upstream.pool.rejected", upstreamClient, c -> pool(c, "rejectedNoSlot"))
+                    .description("Requests that gave up waiting for a connection slot")
+                    .register(registry);
+        };
+    }
+
+    private static void cacheCounter(MeterRegistry registry, String meter, TwoTierCache cache, String stat,
+                                     String... tags) {
+        FunctionCounter.builder(meter, cache, c -> stat(c.getStats(), stat))
+                .tag("cache", cache.getName())
+                .tags(tags)
+                .register(registry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double pool(UpstreamClient client, String stat) {
+        return stat((Map<String, Object>) client.getStats().get("pool"), stat);
+    }
+
+    private static double stat(Map<String, Object> stats, String name) {
+        Object value = stats.get(name);
+        return value instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+}
@@ -1,69 +1,192 @@
 package com.crypto.tracker.config;
 
-import org.springframework.cache.CacheManager;
+import com.crypto.tracker.cache.BinaryCacheSerializer;
+import com.crypto.tracker.cache.CacheInvalidationPublisher;
+import com.crypto.tracker.cache.CachedValue;
+import com.crypto.tracker.cache.RedisMultiGet;
+import com.crypto.tracker.cache.TtlPolicy;
+import com.crypto.tracker.cache.TwoTierCacheManager;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 @Configuration
 @EnableCaching
 public class RedisCacheConfig {
 
-    // Cache names - used in @Cacheable annotations
+    // Cache names. Both are keyed by symbol.
     public static final String PRICE_LIST_CACHE = "priceList";
-    public static final String CRYPTO_HISTORY_CACHE = "cryptoHistory";
+    // History entries are BarSeries; the name changed with the format so old TimeSeriesResponse entries are never read
+    public static final String CRYPTO_HISTORY_CACHE = "historyBars";
 
-    // TTL values in seconds
+    // TTL values in seconds. After this long a value is stale and gets reloaded, unless the TtlPolicy picks
+    // another TTL for it (AdaptiveTtlPolicy, by market session, volatility and budget)
     private static final long PRICE_LIST_TTL_SECONDS = 120;  // 2 minutes
     private static final long HISTORY_TTL_SECONDS = 300;      // 5 minutes
 
+    // In-process near cache in front of Redis
+    @Value("${cache.near.enabled:true}")
+    private boolean nearCacheEnabled;
+
+    @Value("${cache.near.max-entries:500}")
+    private int nearCacheMaxEntries;
+
+    @Value("${cache.near.ttl-seconds:30}")
+    private long nearCacheTtlSeconds;
+
+    // Stale values are served (and refreshed in the background) until Redis drops them at the hard TTL
+    @Value("${cache.stale.enabled:true}")
+    private boolean staleEnabled;
+
+    @Value("${cache.stale.price-list-hard-ttl-seconds:3600}")
+    private long priceListHardTtlSeconds;
+
+    @Value("${cache.stale.history-hard-ttl-seconds:86400}")
+    private long historyHardTtlSeconds;
+
+    // Redis value format per cache: "binary" (BinaryCacheSerializer) or "json" (GenericJackson2JsonRedisSerializer)
+    @Value("${cache.serializer.price-list:binary}")
+    private String priceListFormat;
+
+    @Value("${cache.serializer.history:binary}")
+    private String historyFormat;
+
+    // Binary values larger than this are LZ4 compressed; 0 turns compression off
+    @Value("${cache.serializer.compress-above-bytes:1024}")
+    private int compressAboveBytes;
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                            StringRedisTemplate stringRedisTemplate,
+                                            TtlPolicy ttlPolicy,
+                                            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                            Executor refreshExecutor) {
+        long priceListHardTtl = staleEnabled ? priceListHardTtlSeconds : PRICE_LIST_TTL_SECONDS;
+        long historyHardTtl = staleEnabled ? historyHardTtlSeconds : HISTORY_TTL_SECONDS;
+
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        BinaryCacheSerializer binary = new BinaryCacheSerializer(json, compressAboveBytes);
+
         // Default cache configuration
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofSeconds(PRICE_LIST_TTL_SECONDS))
+                .entryTtl(Duration.ofSeconds(priceListHardTtl))
                 .serializeKeysWith(
                     RedisSerializationContext.SerializationPair.fromSerializer(
                         new StringRedisSerializer()
                     )
                 )
                 .serializeValuesWith(
-                    RedisSerializationContext.SerializationPair.fromSerializer(
-                        new GenericJackson2JsonRedisSerializer()
-                    )
+                    RedisSerializationContext.SerializationPair.fromSerializer(json)
                 )
                 .disableCachingNullValues();  // Don't cache null results
 
-        // Custom configurations for specific caches
+        // Custom configurations for specific caches. Redis keeps entries until the hard TTL.
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
 
-        // Price list cache: 120 seconds
+        // Price list cache: stale after 120 seconds
         cacheConfigurations.put(
             PRICE_LIST_CACHE,
-            defaultConfig.entryTtl(Duration.ofSeconds(PRICE_LIST_TTL_SECONDS))
+            defaultConfig.entryTtl(entryTtl(priceListHardTtl))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                    serializer(priceListFormat, json, binary)))
         );
 
-        // Historical data cache: 300 seconds
+        // Historical data cache: stale after 300 seconds
         cacheConfigurations.put(
             CRYPTO_HISTORY_CACHE,
-            defaultConfig.entryTtl(Duration.ofSeconds(HISTORY_TTL_SECONDS))
+            defaultConfig.entryTtl(entryTtl(historyHardTtl))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                    serializer(historyFormat, json, binary)))
         );
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        // TwoTierCache also ends each near copy when the Redis entry it was read from expires
+        Map<String, TwoTierCacheManager.TierSettings> tierSettings = new HashMap<>();
+        TwoTierCacheManager.TierSettings priceListSettings = new TwoTierCacheManager.TierSettings(
+            Duration.ofSeconds(Math.min(nearCacheTtlSeconds, priceListHardTtl)),
+            Duration.ofSeconds(PRICE_LIST_TTL_SECONDS),
+            Duration.ofSeconds(priceListHardTtl)
+        );
+        tierSettings.put(PRICE_LIST_CACHE, priceListSettings);
+        tierSettings.put(CRYPTO_HISTORY_CACHE, new TwoTierCacheManager.TierSettings(
+            Duration.ofSeconds(Math.min(nearCacheTtlSeconds, historyHardTtl)),
+            Duration.ofSeconds(HISTORY_TTL_SECONDS),
+            Duration.ofSeconds(historyHardTtl)
+        ));
+
+        return new TwoTierCacheManager(
+            redisCacheManager,
+            new CacheInvalidationPublisher(stringRedisTemplate),
+            nearCacheEnabled ? nearCacheMaxEntries : 0,
+            priceListSettings,
+            tierSettings,
+            ttlPolicy,
+            refreshExecutor,
+            new RedisMultiGet(connectionFactory)
+        );
+    }
+
+    /**
+     * The hard TTL, or the entry's own soft TTL when the TtlPolicy made that longer, so Redis never drops an entry
+     * before it goes stale.
+     */
+    private static RedisCacheWriter.TtlFunction entryTtl(long hardTtlSeconds) {
+        Duration hardTtl = Duration.ofSeconds(hardTtlSeconds);
+        return (key, value) -> value instanceof CachedValue cached && cached.getSoftTtlMillis() > hardTtl.toMillis()
+            ? Duration.ofMillis(cached.getSoftTtlMillis())
+            : hardTtl;
+    }
+
+    private static RedisSerializer<Object> serializer(String format, GenericJackson2JsonRedisSerializer json,
+                                                      BinaryCacheSerializer binary) {
+        return switch (format) {
+            case "binary" -> binary;
+            case "json" -> json;
+            default -> throw new IllegalArgumentException("Unknown cache serializer: " + format);
+        };
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            TwoTierCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+
+        // Drop near-cache copies when another replica writes or evicts an entry
+        container.addMessageListener(cacheManager, new ChannelTopic(CacheInvalidationPublisher.CHANNEL));
+        return container;
+    }
+
+    /**
+     * Redis key used by RedisCacheManager for an entry, e.g. "historyBars::SPY".
+     */
+    public static String redisKey(String cacheName, Object key) {
+        return cacheName + "::" + key;
     }
 
     @Bean
@@ -17,6 +17,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins(frontendUrl)
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("X-Data-Age")  // Let the frontend read how old the data is
                 .allowCredentials(true)
                 .maxAge(3600);  // Cache preflight response for 1 hour
     }
@@ -1,21 +1,50 @@
 package com.crypto.tracker.controller;
 
+import com.crypto.tracker.cache.ResponseCache;
+import com.crypto.tracker.cache.TwoTierCache;
+import com.crypto.tracker.cache.TwoTierCacheManager;
 import com.crypto.tracker.dto.CryptoHistoryResponse;
 import com.crypto.tracker.dto.CryptoIndexResponse;
-import com.crypto.tracker.dto.HistoryDataPoint;
+import com.crypto.tracker.dto.HistoryResult;
+import com.crypto.tracker.dto.IndicatorResponse;
+import com.crypto.tracker.indicator.IndicatorEngine;
+import com.crypto.tracker.indicator.IndicatorSpec;
+import com.crypto.tracker.model.BarSeries;
 import com.crypto.tracker.model.CryptoQuote;
-import com.crypto.tracker.model.TimeSeriesResponse;
-import com.crypto.tracker.model.TimeSeriesValue;
+import com.crypto.tracker.series.HistoryInterval;
+import com.crypto.tracker.series.HistoryRange;
+import com.crypto.tracker.series.Lttb;
+import com.crypto.tracker.service.AccessTracker;
+import com.crypto.tracker.service.QuoteStreamHub;
+import com.crypto.tracker.service.SymbolUniverse;
 import com.crypto.tracker.service.TwelveDataService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import static com.crypto.tracker.config.RedisCacheConfig.CRYPTO_HISTORY_CACHE;
+import static com.crypto.tracker.config.RedisCacheConfig.PRICE_LIST_CACHE;
+import static com.crypto.tracker.config.RedisCacheConfig.redisKey;
 
 @RestController
 @RequestMapping("/api/indices")
@@ -25,118 +54,351 @@ public class CryptoController {
     private static final Logger log = LoggerFactory.getLogger(CryptoController.class);
 
     private final TwelveDataService twelveDataService;
+    private final AccessTracker accessTracker;
+    private final TwoTierCacheManager cacheManager;
+    private final QuoteStreamHub quoteStreamHub;
+    private final SymbolUniverse symbolUniverse;
+    private final ResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+    private final IndicatorEngine indicatorEngine;
+
+    // Upper bound on symbols per bulk history request
+    @Value("${history.bulk.max-symbols:50}")
+    private int maxBulkSymbols;
+
+    // Seconds since the returned data was fetched from Twelve Data
+    public static final String DATA_AGE_HEADER = "X-Data-Age";
 
-    public CryptoController(TwelveDataService twelveDataService) {
+    public CryptoController(TwelveDataService twelveDataService, AccessTracker accessTracker,
+                            TwoTierCacheManager cacheManager, QuoteStreamHub quoteStreamHub,
+                            SymbolUniverse symbolUniverse, ResponseCache responseCache,
+                            ObjectMapper objectMapper, IndicatorEngine indicatorEngine) {
         this.twelveDataService = twelveDataService;
+        this.accessTracker = accessTracker;
+        this.cacheManager = cacheManager;
+        this.quoteStreamHub = quoteStreamHub;
+        this.symbolUniverse = symbolUniverse;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.indicatorEngine = indicatorEngine;
     }
 
+    /**
+     * Cached quotes are answered right away; on a miss the servlet thread is released until Twelve Data answers.
+     */
     @GetMapping
-    public ResponseEntity<?> getAllIndices() {
+    public CompletableFuture<ResponseEntity<?>> getAllIndices() {
         log.info("GET /api/indices - Fetching all stock market indices");
 
-        try {
-            // Fetch current prices from Twelve Data (or cache)
-            Map<String, CryptoQuote> quotes = twelveDataService.getCurrentPrices();
-
-            // Transform to response DTOs
-            List<CryptoIndexResponse> response = new ArrayList<>();
-            for (Map.Entry<String, CryptoQuote> entry : quotes.entrySet()) {
-                CryptoQuote quote = entry.getValue();
-
-                // Convert timestamp from seconds to milliseconds for JavaScript
-                Long timestamp = quote.getTimestamp();
-                if (timestamp != null && timestamp < 10000000000L) {
-                    // If timestamp is less than 10 billion, it's in seconds, convert to milliseconds
-                    timestamp = timestamp * 1000;
+        // Read before the data, so cached bytes are never labelled with a newer version than they hold
+        Long version = dataVersion(PRICE_LIST_CACHE, symbolUniverse.getSymbols());
+
+        // Fetch current prices from Twelve Data (or cache)
+        return twelveDataService.getCurrentPricesAsync()
+            .<ResponseEntity<?>>thenApply(quotes -> {
+                for (String symbol : quotes.keySet()) {
+                    accessTracker.recordAccess(redisKey(PRICE_LIST_CACHE, symbol));
                 }
 
-                CryptoIndexResponse dto = new CryptoIndexResponse(
-                    quote.getSymbol(),
-                    quote.getName(),
-                    quote.getCurrentPrice(),
-                    quote.getPercentChangeValue(),
-                    quote.getExchange(),
-                    timestamp
-                );
-                response.add(dto);
-            }
+                // Transform to response DTOs, unless this version is already serialized
+                ResponseCache.CachedResponse response = serialize("indices", version, () -> {
+                    List<CryptoIndexResponse> indices = new ArrayList<>();
+                    for (CryptoQuote quote : quotes.values()) {
+                        indices.add(CryptoIndexResponse.from(quote));
+                    }
+                    return indices;
+                });
 
-            log.info("Successfully returned {} stock market indices", response.size());
-            return ResponseEntity.ok(response);
+                log.info("Successfully returned {} stock market indices", quotes.size());
+                return okWithDataAge(PRICE_LIST_CACHE, quotes.keySet(), response);
+            })
+            .exceptionally(error -> {
+                Throwable cause = causeOf(error);
+                log.error("Error fetching stock market indices", cause);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", String.valueOf(cause.getMessage())));
+            });
+    }
 
-        } catch (Exception e) {
-            log.error("Error fetching stock market indices", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", e.getMessage()));
-        }
+    /**
+     * Server-Sent Events stream of index quotes. Each "quotes" event carries only the entries that changed.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamIndices() {
+        log.info("GET /api/indices/stream - New quote stream subscriber");
+        return quoteStreamHub.subscribe();
     }
 
+    /**
+     * The last 30 daily bars by default. {@code interval} (e.g. 15min, 1h, 1week), {@code range} (e.g. 5d, 6m,
+     * max) and {@code maxPoints} select other bars; those responses are built per request rather than cached.
+     */
     @GetMapping("/{symbol}/history")
-    public ResponseEntity<?> getHistory(@PathVariable String symbol) {
+    public CompletableFuture<ResponseEntity<?>> getHistory(
+            @PathVariable String symbol,
+            @RequestParam(required = false) String interval,
+            @RequestParam(required = false) String range,
+            @RequestParam(required = false) Integer maxPoints) {
         // Convert URL-safe symbol format back to API format if needed
         // For simple symbols like SPX, DJI, this does nothing
         String apiSymbol = symbol.replace("-", "/");
 
+        if (interval != null || range != null || maxPoints != null) {
+            return getHistory(symbol, apiSymbol, interval, range, maxPoints);
+        }
+
         log.info("GET /api/indices/{}/history - Fetching historical data for index", symbol);
 
+        Long version = dataVersion(CRYPTO_HISTORY_CACHE, List.of(apiSymbol));
+
+        // Fetch historical data from Twelve Data (or cache)
+        return twelveDataService.getHistoricalPricesAsync(apiSymbol)
+            .<ResponseEntity<?>>thenApply(bars -> {
+                if (bars == null || bars.size() == 0) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(Map.of("error", "No historical data found for " + symbol));
+                }
+                accessTracker.recordAccess(redisKey(CRYPTO_HISTORY_CACHE, apiSymbol));
+
+                // Written straight from the bar columns, statistics included
+                ResponseCache.CachedResponse response = serialize("history:" + apiSymbol, version,
+                    () -> new CryptoHistoryResponse(
+                        apiSymbol,
+                        apiSymbol,
+                        bars,
+                        BarSeries.isDateOnly(TwelveDataService.HISTORY_INTERVAL)
+                    ));
+
+                log.info("Successfully returned {} days of history for {}", bars.size(), symbol);
+                return okWithDataAge(CRYPTO_HISTORY_CACHE, List.of(apiSymbol), response);
+            })
+            .exceptionally(error -> {
+                Throwable cause = causeOf(error);
+                log.error("Error fetching history for {}", symbol, cause);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", String.valueOf(cause.getMessage())));
+            });
+    }
+
+    private CompletableFuture<ResponseEntity<?>> getHistory(String symbol, String apiSymbol, String intervalCode,
+                                                            String rangeCode, Integer maxPoints) {
+        log.info("GET /api/indices/{}/history - interval={}, range={}, maxPoints={}",
+                symbol, intervalCode, rangeCode, maxPoints);
+
+        HistoryInterval interval;
+        HistoryRange range;
         try {
-            // Fetch historical data from Twelve Data (or cache)
-            TimeSeriesResponse timeSeriesResponse = twelveDataService.getHistoricalPrices(apiSymbol);
+            interval = intervalCode != null ? HistoryInterval.fromCode(intervalCode) : HistoryInterval.ONE_DAY;
+            range = rangeCode != null ? HistoryRange.parse(rangeCode) : null;
+            if (maxPoints != null && maxPoints < Lttb.MIN_POINTS) {
+                throw new IllegalArgumentException("maxPoints must be at least " + Lttb.MIN_POINTS);
+            }
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage())));
+        }
+
+        // Served from the bar store; only reads that serve the cached daily series are recorded for refresh-ahead
+        return twelveDataService.getHistoryAsync(apiSymbol, interval, range)
+            .<ResponseEntity<?>>thenApply(bars -> {
+                if (bars == null || bars.size() == 0) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(Map.of("error", "No historical data found for " + symbol));
+                }
+
+                BarSeries points = maxPoints != null ? Lttb.downsample(bars, maxPoints) : bars;
+                log.info("Successfully returned {} {} bars of history for {}", points.size(), interval.code(), symbol);
+                return ResponseEntity.ok(new CryptoHistoryResponse(
+                        apiSymbol,
+                        apiSymbol,
+                        points,
+                        BarSeries.isDateOnly(interval.code())
+                ));
+            })
+            .exceptionally(error -> {
+                Throwable cause = causeOf(error);
+                log.error("Error fetching {} history for {}", interval.code(), symbol, cause);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", String.valueOf(cause.getMessage())));
+            });
+    }
+
+    /**
+     * Indicators over the cached daily bars, e.g. {@code ?indicators=sma:50,rsi,bbands:20:2}. Computed locally
+     * from memoised state, so this costs no upstream calls beyond loading the history itself.
+     */
+    @GetMapping("/{symbol}/indicators")
+    public CompletableFuture<ResponseEntity<?>> getIndicators(
+            @PathVariable String symbol,
+            @RequestParam(name = "indicators", defaultValue = IndicatorSpec.DEFAULTS) String indicators) {
+        String apiSymbol = symbol.replace("-", "/");
+
+        log.info("GET /api/indices/{}/indicators - Computing {}", symbol, indicators);
 
-            if (timeSeriesResponse == null || timeSeriesResponse.getValues() == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of("error", "No historical data found for " + symbol));
+        List<IndicatorSpec> specs;
+        try {
+            specs = IndicatorSpec.parseList(indicators);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage())));
+        }
+
+        return twelveDataService.getHistoricalPricesAsync(apiSymbol)
+            .<ResponseEntity<?>>thenApply(bars -> {
+                if (bars == null || bars.size() == 0) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(Map.of("error", "No historical data found for " + symbol));
+                }
+
+                boolean dateOnly = BarSeries.isDateOnly(TwelveDataService.HISTORY_INTERVAL);
+                List<String> dates = new ArrayList<>(bars.size());
+                for (long epoch : bars.getEpochs()) {
+                    dates.add(BarSeries.formatDatetime(epoch, dateOnly));
+                }
+
+                IndicatorResponse response = new IndicatorResponse(apiSymbol, TwelveDataService.HISTORY_INTERVAL, dates);
+                for (IndicatorSpec spec : specs) {
+                    response.add(spec.toString(),
+                        indicatorEngine.compute(apiSymbol, TwelveDataService.HISTORY_INTERVAL, bars, spec));
+                }
+                return ResponseEntity.ok(response);
+            })
+            .exceptionally(error -> {
+                Throwable cause = causeOf(error);
+                log.error("Error computing indicators for {}", symbol, cause);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", String.valueOf(cause.getMessage())));
+            });
+    }
+
+    /**
+     * History for several symbols (e.g. {@code ?symbols=SPY,QQQ}) as newline-delimited JSON, one
+     * {@link HistoryResult} per symbol. Lines are written as soon as each symbol is available: cached symbols
+     * first, then each fetched batch, so the order can differ from the request.
+     */
+    @GetMapping("/history")
+    public ResponseEntity<?> getHistories(@RequestParam String symbols) {
+        // Same URL-safe symbol format as the single-symbol endpoint
+        Set<String> apiSymbols = new LinkedHashSet<>();
+        for (String symbol : symbols.split(",")) {
+            if (!symbol.isBlank()) {
+                apiSymbols.add(symbol.trim().replace("-", "/"));
             }
+        }
+
+        log.info("GET /api/indices/history - Fetching historical data for {} indices", apiSymbols.size());
+
+        if (apiSymbols.isEmpty() || apiSymbols.size() > maxBulkSymbols) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Between 1 and " + maxBulkSymbols + " symbols are allowed"));
+        }
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        Map<String, CompletableFuture<BarSeries>> histories = twelveDataService.getHistoricalPricesAsync(apiSymbols);
+
+        List<CompletableFuture<Void>> lines = new ArrayList<>(histories.size());
+        histories.forEach((apiSymbol, history) -> lines.add(history
+            .handle((bars, error) -> historyResult(apiSymbol, bars, error))
+            .thenAccept(result -> sendLine(emitter, result))));
+
+        CompletableFuture.allOf(lines.toArray(new CompletableFuture<?>[0])).whenComplete((done, error) -> {
+            log.info("Successfully streamed history for {} indices", histories.size());
+            emitter.complete();
+        });
 
-            // Transform to response DTOs
-            List<HistoryDataPoint> historyPoints = new ArrayList<>();
-            double minPrice = Double.MAX_VALUE;
-            double maxPrice = Double.MIN_VALUE;
-            double sumPrice = 0.0;
-            int count = 0;
-
-            for (TimeSeriesValue value : timeSeriesResponse.getValues()) {
-                Double closePrice = value.getClosePrice();
-
-                // Build data point for chart
-                HistoryDataPoint point = new HistoryDataPoint(
-                    value.getDatetime(),
-                    value.getClosePrice(),  // Using close as open for simplicity
-                    value.getHighPrice(),
-                    value.getLowPrice(),
-                    closePrice,
-                    value.getVolume()
-                );
-                historyPoints.add(point);
-
-                // Calculate statistics
-                if (closePrice != null) {
-                    minPrice = Math.min(minPrice, closePrice);
-                    maxPrice = Math.max(maxPrice, closePrice);
-                    sumPrice += closePrice;
-                    count++;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
+    private HistoryResult historyResult(String apiSymbol, BarSeries bars, Throwable error) {
+        if (error != null) {
+            Throwable cause = causeOf(error);
+            log.warn("Error fetching history for {}: {}", apiSymbol, cause.getMessage());
+            return HistoryResult.error(apiSymbol, String.valueOf(cause.getMessage()));
+        }
+        if (bars == null || bars.size() == 0) {
+            return HistoryResult.notFound(apiSymbol);
+        }
+
+        accessTracker.recordAccess(redisKey(CRYPTO_HISTORY_CACHE, apiSymbol));
+        return HistoryResult.ok(apiSymbol, new CryptoHistoryResponse(
+            apiSymbol,
+            apiSymbol,
+            bars,
+            BarSeries.isDateOnly(TwelveDataService.HISTORY_INTERVAL)
+        ));
+    }
+
+    /**
+     * Writes one JSON line. A client that went away only loses its own stream.
+     */
+    private void sendLine(ResponseBodyEmitter emitter, HistoryResult result) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(result);
+            byte[] line = Arrays.copyOf(json, json.length + 1);
+            line[json.length] = '\n';
+            emitter.send(line, MediaType.APPLICATION_NDJSON);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Could not send history for {}: {}", result.symbol(), e.getMessage());
+        }
+    }
+
+    /**
+     * {@link ResponseCache#get} for use inside future callbacks; serialization errors complete the future.
+     */
+    private ResponseCache.CachedResponse serialize(String key, Long version, Supplier<?> body) {
+        try {
+            return responseCache.get(key, version, body);
+        } catch (JsonProcessingException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static Throwable causeOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * 200 response with the serialized body, its ETag and the X-Data-Age header, so clients can tell when stale
+     * data was served. With several keys the age of the oldest one is reported.
+     * Spring answers a matching If-None-Match with 304 and no body.
+     */
+    private ResponseEntity<byte[]> okWithDataAge(String cacheName, Collection<String> keys,
+                                                 ResponseCache.CachedResponse response) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(response.etag())
+                .contentType(MediaType.APPLICATION_JSON);
+
+        if (cacheManager.getCache(cacheName) instanceof TwoTierCache cache) {
+            Long oldestMillis = null;
+            for (String key : keys) {
+                Long ageMillis = cache.getAgeMillis(key);
+                if (ageMillis != null && (oldestMillis == null || ageMillis > oldestMillis)) {
+                    oldestMillis = ageMillis;
                 }
             }
+            if (oldestMillis != null) {
+                builder.header(DATA_AGE_HEADER, String.valueOf(oldestMillis / 1000));
+            }
+        }
+        return builder.body(response.body());
+    }
+
+    /**
+     * Version of the cached data behind the keys (their store times combined), or null if any key is not cached.
+     */
+    private Long dataVersion(String cacheName, Collection<String> keys) {
+        if (!(cacheManager.getCache(cacheName) instanceof TwoTierCache cache)) {
+            return null;
+        }
 
-            double avgPrice = count > 0 ? sumPrice / count : 0.0;
-
-            // Build response
-            CryptoHistoryResponse response = new CryptoHistoryResponse(
-                apiSymbol,
-                timeSeriesResponse.getMeta() != null ? timeSeriesResponse.getMeta().getSymbol() : apiSymbol,
-                historyPoints,
-                minPrice == Double.MAX_VALUE ? null : minPrice,
-                maxPrice == Double.MIN_VALUE ? null : maxPrice,
-                avgPrice
-            );
-
-            log.info("Successfully returned {} days of history for {}", historyPoints.size(), symbol);
-            return ResponseEntity.ok(response);
-
-        } catch (Exception e) {
-            log.error("Error fetching history for {}", symbol, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", e.getMessage()));
+        long version = 0;
+        for (String key : keys) {
+            Long storedAt = cache.getStoredAt(key);
+            if (storedAt == null) {
+                return null;
+            }
+            version = 31 * version + storedAt;
         }
+        return version;
     }
 }
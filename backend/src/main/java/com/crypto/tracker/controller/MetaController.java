@@ -1,15 +1,27 @@
 package com.crypto.tracker.controller;
 
+import com.crypto.tracker.cache.ResponseCache;
+import com.crypto.tracker.cache.TwoTierCacheManager;
+import com.crypto.tracker.client.UpstreamClient;
 import com.crypto.tracker.dto.ApiLimitsResponse;
+import com.crypto.tracker.indicator.IndicatorEngine;
+import com.crypto.tracker.service.AdaptiveTtlPolicy;
+import com.crypto.tracker.service.MonthlyBudget;
+import com.crypto.tracker.service.QuoteStreamHub;
+import com.crypto.tracker.service.RefreshAheadScheduler;
+import com.crypto.tracker.service.SingleFlight;
 import com.crypto.tracker.service.TwelveDataService;
+import com.crypto.tracker.service.UpstreamScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -20,9 +32,38 @@ public class MetaController {
     private static final Logger log = LoggerFactory.getLogger(MetaController.class);
 
     private final TwelveDataService twelveDataService;
+    private final TwoTierCacheManager cacheManager;
+    private final SingleFlight singleFlight;
+    private final ObjectProvider<RefreshAheadScheduler> refreshAheadScheduler;
+    private final QuoteStreamHub quoteStreamHub;
+    private final MonthlyBudget monthlyBudget;
+    private final ResponseCache responseCache;
+    private final UpstreamClient upstreamClient;
+    private final IndicatorEngine indicatorEngine;
+    private final AdaptiveTtlPolicy ttlPolicy;
+    private final UpstreamScheduler upstreamScheduler;
 
-    public MetaController(TwelveDataService twelveDataService) {
+    public MetaController(TwelveDataService twelveDataService, TwoTierCacheManager cacheManager,
+                          SingleFlight singleFlight,
+                          ObjectProvider<RefreshAheadScheduler> refreshAheadScheduler,
+                          QuoteStreamHub quoteStreamHub,
+                          MonthlyBudget monthlyBudget,
+                          ResponseCache responseCache,
+                          UpstreamClient upstreamClient,
+                          IndicatorEngine indicatorEngine,
+                          AdaptiveTtlPolicy ttlPolicy,
+                          UpstreamScheduler upstreamScheduler) {
         this.twelveDataService = twelveDataService;
+        this.cacheManager = cacheManager;
+        this.singleFlight = singleFlight;
+        this.refreshAheadScheduler = refreshAheadScheduler;
+        this.quoteStreamHub = quoteStreamHub;
+        this.monthlyBudget = monthlyBudget;
+        this.responseCache = responseCache;
+        this.upstreamClient = upstreamClient;
+        this.indicatorEngine = indicatorEngine;
+        this.ttlPolicy = ttlPolicy;
+        this.upstreamScheduler = upstreamScheduler;
     }
 
     @GetMapping("/limits")
@@ -61,4 +102,24 @@ public class MetaController {
             return ResponseEntity.ok(errorResponse);
         }
     }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        log.debug("GET /api/meta/stats - Fetching internal cache and upstream statistics");
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("caches", cacheManager.getStats());
+        stats.put("ttl", ttlPolicy.getStats());
+        stats.put("responses", responseCache.getStats());
+        stats.put("singleFlight", singleFlight.getStats());
+
+        // Scheduler bean is absent when refresh.ahead.enabled=false
+        refreshAheadScheduler.ifAvailable(scheduler -> stats.put("refreshAhead", scheduler.getStats()));
+        stats.put("stream", quoteStreamHub.getStats());
+        stats.put("budget", monthlyBudget.getStats());
+        stats.put("upstream", upstreamClient.getStats());
+        stats.put("scheduler", upstreamScheduler.getStats());
+        stats.put("indicators", indicatorEngine.getStats());
+        return ResponseEntity.ok(stats);
+    }
 }
@@ -1,76 +1,169 @@
 package com.crypto.tracker.dto;
 
-import java.util.List;
-
+import com.crypto.tracker.model.BarSeries;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * History for one symbol, written as
+ * {@code {symbol, name, history: [{date, open, high, low, close, volume}], minPrice, maxPrice, avgPrice}}
+ * with the newest bar first.
+ *
+ * <p>The JSON is generated straight from the cached {@link BarSeries} columns, so serving a cached series
+ * creates no per-bar objects and parses nothing.
+ */
+@JsonSerialize(using = CryptoHistoryResponse.Serializer.class)
 public class CryptoHistoryResponse {
 
-    private String symbol;                      // e.g., "BTC/USD"
-    private String name;                        // e.g., "Bitcoin/USD"
-    private List<HistoryDataPoint> history;     // Array of 30 daily data points
-
-    // Calculated statistics for the 30-day period
-    private Double minPrice;                    // Lowest price
-    private Double maxPrice;                    // Highest price
-    private Double avgPrice;                    // Average closing price
+    private final String symbol;                // e.g., "BTC/USD"
+    private final String name;                  // e.g., "Bitcoin/USD"
+    private final BarSeries bars;               // Oldest first
+    private final boolean dateOnly;             // Daily or longer bars are dated without a time
 
-    public CryptoHistoryResponse() {
-    }
-
-    public CryptoHistoryResponse(String symbol, String name, List<HistoryDataPoint> history,
-                                 Double minPrice, Double maxPrice, Double avgPrice) {
+    public CryptoHistoryResponse(String symbol, String name, BarSeries bars, boolean dateOnly) {
         this.symbol = symbol;
         this.name = name;
-        this.history = history;
-        this.minPrice = minPrice;
-        this.maxPrice = maxPrice;
-        this.avgPrice = avgPrice;
+        this.bars = bars;
+        this.dateOnly = dateOnly;
     }
 
     public String getSymbol() {
         return symbol;
     }
 
-    public void setSymbol(String symbol) {
-        this.symbol = symbol;
-    }
-
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
-    public List<HistoryDataPoint> getHistory() {
-        return history;
-    }
-
-    public void setHistory(List<HistoryDataPoint> history) {
-        this.history = history;
-    }
-
-    public Double getMinPrice() {
-        return minPrice;
-    }
-
-    public void setMinPrice(Double minPrice) {
-        this.minPrice = minPrice;
-    }
-
-    public Double getMaxPrice() {
-        return maxPrice;
-    }
-
-    public void setMaxPrice(Double maxPrice) {
-        this.maxPrice = maxPrice;
+    public BarSeries getBars() {
+        return bars;
     }
 
-    public Double getAvgPrice() {
-        return avgPrice;
+    public boolean isDateOnly() {
+        return dateOnly;
     }
 
-    public void setAvgPrice(Double avgPrice) {
-        this.avgPrice = avgPrice;
+    static class Serializer extends StdSerializer<CryptoHistoryResponse> {
+
+        Serializer() {
+            super(CryptoHistoryResponse.class);
+        }
+
+        @Override
+        public void serialize(CryptoHistoryResponse response, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            BarSeries bars = response.getBars();
+            long[] epochs = bars.getEpochs();
+            double[] high = bars.getHigh();
+            double[] low = bars.getLow();
+            double[] close = bars.getClose();
+            long[] volume = bars.getVolume();
+
+            gen.writeStartObject();
+            gen.writeStringField("symbol", response.getSymbol());
+            gen.writeStringField("name", response.getName());
+
+            // Reused for every date and volume string
+            char[] text = new char[20];
+
+            // Calculated statistics for the period, over closing prices
+            double minPrice = Double.POSITIVE_INFINITY;
+            double maxPrice = Double.NEGATIVE_INFINITY;
+            double sumPrice = 0.0;
+            int count = 0;
+
+            gen.writeArrayFieldStart("history");
+            for (int i = epochs.length - 1; i >= 0; i--) {
+                gen.writeStartObject();
+
+                gen.writeFieldName("date");
+                gen.writeString(text, 0, formatDate(epochs[i], response.isDateOnly(), text));
+
+                writePrice(gen, "open", close[i]);  // Using close as open for simplicity
+                writePrice(gen, "high", high[i]);
+                writePrice(gen, "low", low[i]);
+                writePrice(gen, "close", close[i]);
+
+                gen.writeFieldName("volume");
+                if (volume[i] >= 0) {
+                    gen.writeString(text, 0, formatLong(volume[i], text));
+                } else {
+                    gen.writeNull();
+                }
+
+                gen.writeEndObject();
+
+                if (!Double.isNaN(close[i])) {
+                    minPrice = Math.min(minPrice, close[i]);
+                    maxPrice = Math.max(maxPrice, close[i]);
+                    sumPrice += close[i];
+                    count++;
+                }
+            }
+            gen.writeEndArray();
+
+            writePrice(gen, "minPrice", count > 0 ? minPrice : Double.NaN);
+            writePrice(gen, "maxPrice", count > 0 ? maxPrice : Double.NaN);
+            gen.writeNumberField("avgPrice", count > 0 ? sumPrice / count : 0.0);
+            gen.writeEndObject();
+        }
+
+        private static void writePrice(JsonGenerator gen, String field, double value) throws IOException {
+            if (Double.isNaN(value)) {
+                gen.writeNullField(field);
+            } else {
+                gen.writeNumberField(field, value);
+            }
+        }
+
+        /**
+         * Writes "yyyy-MM-dd" (or "yyyy-MM-dd HH:mm:ss") for a {@link BarSeries} epoch into text; returns the length.
+         */
+        static int formatDate(long epoch, boolean dateOnly, char[] text) {
+            long days = Math.floorDiv(epoch, 86_400L);
+            int seconds = (int) Math.floorMod(epoch, 86_400L);
+            LocalDate date = LocalDate.ofEpochDay(days);
+
+            writeDigits(text, 0, date.getYear(), 4);
+            text[4] = '-';
+            writeDigits(text, 5, date.getMonthValue(), 2);
+            text[7] = '-';
+            writeDigits(text, 8, date.getDayOfMonth(), 2);
+            if (dateOnly) {
+                return 10;
+            }
+
+            text[10] = ' ';
+            writeDigits(text, 11, seconds / 3600, 2);
+            text[13] = ':';
+            writeDigits(text, 14, seconds / 60 % 60, 2);
+            text[16] = ':';
+            writeDigits(text, 17, seconds % 60, 2);
+            return 19;
+        }
+
+        /**
+         * Writes a non-negative long into text; returns the length.
+         */
+        static int formatLong(long value, char[] text) {
+            int length = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                length++;
+            }
+            writeDigits(text, 0, value, length);
+            return length;
+        }
+
+        private static void writeDigits(char[] text, int offset, long value, int width) {
+            for (int i = offset + width - 1; i >= offset; i--) {
+                text[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+        }
     }
 }
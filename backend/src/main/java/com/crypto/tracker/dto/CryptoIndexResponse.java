@@ -1,5 +1,9 @@
 package com.crypto.tracker.dto;
 
+import com.crypto.tracker.model.CryptoQuote;
+
+import java.util.Objects;
+
 public class CryptoIndexResponse {
 
     private String symbol;           // e.g., "BTC/USD"
@@ -22,6 +26,27 @@ public class CryptoIndexResponse {
         this.timestamp = timestamp;
     }
 
+    /**
+     * Builds the response DTO for a Twelve Data quote.
+     */
+    public static CryptoIndexResponse from(CryptoQuote quote) {
+        // Convert timestamp from seconds to milliseconds for JavaScript
+        Long timestamp = quote.getTimestamp();
+        if (timestamp != null && timestamp < 10000000000L) {
+            // If timestamp is less than 10 billion, it's in seconds, convert to milliseconds
+            timestamp = timestamp * 1000;
+        }
+
+        return new CryptoIndexResponse(
+            quote.getSymbol(),
+            quote.getName(),
+            quote.getCurrentPrice(),
+            quote.getPercentChangeValue(),
+            quote.getExchange(),
+            timestamp
+        );
+    }
+
     public String getSymbol() {
         return symbol;
     }
@@ -69,4 +94,26 @@ public class CryptoIndexResponse {
     public void setTimestamp(Long timestamp) {
         this.timestamp = timestamp;
     }
+
+    // Value equality so the quote stream can tell which entries changed
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CryptoIndexResponse that)) {
+            return false;
+        }
+        return Objects.equals(symbol, that.symbol)
+                && Objects.equals(name, that.name)
+                && Objects.equals(currentPrice, that.currentPrice)
+                && Objects.equals(percentChange, that.percentChange)
+                && Objects.equals(exchange, that.exchange)
+                && Objects.equals(timestamp, that.timestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(symbol, name, currentPrice, percentChange, exchange, timestamp);
+    }
 }
@@ -0,0 +1,26 @@
+package com.crypto.tracker.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One symbol's line in the bulk history response: {@code {symbol, status, data}} on success,
+ * {@code {symbol, status, error}} otherwise.
+ *
+ * @param status "ok", "not_found" or "error"
+ * @param data   same body as the single-symbol history endpoint, only with status "ok"
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record HistoryResult(String symbol, String status, CryptoHistoryResponse data, String error) {
+
+    public static HistoryResult ok(String symbol, CryptoHistoryResponse data) {
+        return new HistoryResult(symbol, "ok", data, null);
+    }
+
+    public static HistoryResult notFound(String symbol) {
+        return new HistoryResult(symbol, "not_found", null, "No historical data found for " + symbol);
+    }
+
+    public static HistoryResult error(String symbol, String message) {
+        return new HistoryResult(symbol, "error", null, message);
+    }
+}
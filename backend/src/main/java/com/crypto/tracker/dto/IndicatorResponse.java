@@ -0,0 +1,31 @@
+package com.crypto.tracker.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indicator values for one symbol in column form: {@code dates} oldest first, and for each indicator
+ * (keyed like {@code "bbands:20:2.0"}) one array per output aligned with the dates. Values are null where the
+ * indicator has none yet.
+ */
+public record IndicatorResponse(String symbol, String interval, List<String> dates,
+                                Map<String, Map<String, List<Double>>> indicators) {
+
+    public IndicatorResponse(String symbol, String interval, List<String> dates) {
+        this(symbol, interval, dates, new LinkedHashMap<>());
+    }
+
+    public void add(String indicator, Map<String, double[]> outputs) {
+        Map<String, List<Double>> columns = new LinkedHashMap<>();
+        outputs.forEach((name, values) -> {
+            List<Double> column = new ArrayList<>(values.length);
+            for (double value : values) {
+                column.add(Double.isNaN(value) ? null : value);
+            }
+            columns.put(name, column);
+        });
+        indicators.put(indicator, columns);
+    }
+}
@@ -0,0 +1,70 @@
+package com.crypto.tracker.indicator;
+
+/**
+ * Bollinger bands: the simple moving average of closes, plus and minus {@code multiplier} population standard
+ * deviations over the same window. Running sums of closes and squared closes keep each update O(1).
+ */
+public class BollingerBands implements Indicator {
+
+    private final double multiplier;
+    private final double[] window;
+    private int next;
+    private int count;
+    private double sum;
+    private double sumOfSquares;
+
+    public BollingerBands(int period, double multiplier) {
+        this.window = new double[period];
+        this.multiplier = multiplier;
+    }
+
+    private BollingerBands(BollingerBands other) {
+        this.multiplier = other.multiplier;
+        this.window = other.window.clone();
+        this.next = other.next;
+        this.count = other.count;
+        this.sum = other.sum;
+        this.sumOfSquares = other.sumOfSquares;
+    }
+
+    @Override
+    public void add(double high, double low, double close, long volume) {
+        if (count == window.length) {
+            double dropped = window[next];
+            sum -= dropped;
+            sumOfSquares -= dropped * dropped;
+        } else {
+            count++;
+        }
+        window[next] = close;
+        sum += close;
+        sumOfSquares += close * close;
+        next = (next + 1) % window.length;
+    }
+
+    @Override
+    public String[] outputs() {
+        return new String[] {"middle", "upper", "lower"};
+    }
+
+    @Override
+    public double value(int output) {
+        if (count < window.length) {
+            return Double.NaN;
+        }
+
+        double mean = sum / window.length;
+        if (output == 0) {
+            return mean;
+        }
+
+        // Rounding in the running sums can leave a tiny negative variance for a flat window
+        double deviation = Math.sqrt(Math.max(0.0, sumOfSquares / window.length - mean * mean));
+        return output == 1 ? mean + multiplier * deviation : mean - multiplier * deviation;
+    }
+
+    @Override
+    public Indicator copy() {
+        return new BollingerBands(this);
+    }
+}
@@ -0,0 +1,55 @@
+package com.crypto.tracker.indicator;
+
+/**
+ * Exponential moving average of closing prices with smoothing 2 / (period + 1),
+ * seeded with the simple average of the first {@code period} closes.
+ */
+public class Ema implements Indicator {
+
+    private final int period;
+    private final double alpha;
+    private int count;
+    private double seedSum;
+    private double ema = Double.NaN;
+
+    public Ema(int period) {
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    private Ema(Ema other) {
+        this.period = other.period;
+        this.alpha = other.alpha;
+        this.count = other.count;
+        this.seedSum = other.seedSum;
+        this.ema = other.ema;
+    }
+
+    @Override
+    public void add(double high, double low, double close, long volume) {
+        if (count < period) {
+            seedSum += close;
+            count++;
+            if (count == period) {
+                ema = seedSum / period;
+            }
+            return;
+        }
+        ema += alpha * (close - ema);
+    }
+
+    @Override
+    public String[] outputs() {
+        return new String[] {"ema"};
+    }
+
+    @Override
+    public double value(int output) {
+        return ema;
+    }
+
+    @Override
+    public Indicator copy() {
+        return new Ema(this);
+    }
+}
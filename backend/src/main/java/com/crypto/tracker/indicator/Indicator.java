@@ -0,0 +1,28 @@
+package com.crypto.tracker.indicator;
+
+/**
+ * Technical indicator fed one bar at a time. Each {@link #add} is O(1), so a memoised indicator only pays for
+ * the bars it has not seen yet.
+ */
+public interface Indicator {
+
+    /**
+     * Adds the next bar. Volume is -1 when Twelve Data reported none.
+     */
+    void add(double high, double low, double close, long volume);
+
+    /**
+     * Names of the values this indicator produces, e.g. {@code {"middle", "upper", "lower"}}.
+     */
+    String[] outputs();
+
+    /**
+     * Current value of the given output, or NaN while the indicator is still warming up.
+     */
+    double value(int output);
+
+    /**
+     * Independent copy of the current state, used to revise the newest bar.
+     */
+    Indicator copy();
+}
@@ -0,0 +1,214 @@
+package com.crypto.tracker.indicator;
+
+import com.crypto.tracker.cache.NearCache;
+import com.crypto.tracker.model.BarSeries;
+import com.crypto.tracker.store.BarStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Computes indicators over cached bar series without any upstream calls. Indicator state is memoised per
+ * (symbol, interval, indicator, parameters): later requests only feed it the bars it has not seen, one O(1)
+ * update each. A new memo is warmed up from the local {@link BarStore}, so long windows have values from
+ * the first bar served.
+ *
+ * <p>The newest bar is revised in place while it is still open (Twelve Data sends it again with new prices).
+ */
+@Component
+public class IndicatorEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicatorEngine.class);
+
+    private final BarStore barStore;
+    private final NearCache memos;
+    private final int warmupBars;
+
+    private final AtomicLong memoHits = new AtomicLong();
+    private final AtomicLong memoBuilds = new AtomicLong();
+    private final AtomicLong barsApplied = new AtomicLong();
+
+    public IndicatorEngine(BarStore barStore,
+                           @Value("${indicators.memo.max-entries:1000}") int maxEntries,
+                           @Value("${indicators.memo.ttl-seconds:86400}") long ttlSeconds,
+                           @Value("${indicators.warmup-bars:250}") int warmupBars) {
+        this.barStore = barStore;
+        this.memos = new NearCache(maxEntries, ttlSeconds * 1000);
+        this.warmupBars = warmupBars;
+    }
+
+    /**
+     * Values of the indicator for every bar of the series, by output name, each array aligned with
+     * {@link BarSeries#getEpochs()}. NaN where the indicator has no value (still warming up, or a bar without
+     * a close).
+     */
+    public Map<String, double[]> compute(String symbol, String interval, BarSeries bars, IndicatorSpec spec) {
+        Memo memo = memo(symbol, interval, bars, spec);
+        memo.lock.lock();
+        try {
+            barsApplied.addAndGet(memo.advance(bars));
+            return memo.slice(bars.getEpochs());
+        } finally {
+            memo.lock.unlock();
+        }
+    }
+
+    private Memo memo(String symbol, String interval, BarSeries bars, IndicatorSpec spec) {
+        String key = symbol + "|" + interval + "|" + spec;
+        NearCache.Entry entry = memos.get(key);
+        if (entry != null) {
+            memoHits.incrementAndGet();
+            return (Memo) entry.value();
+        }
+
+        // Two requests racing here build one memo each; the last one stays
+        memoBuilds.incrementAndGet();
+        Memo memo = new Memo(spec.create());
+        try {
+            BarSeries stored = barStore.readLast(symbol, interval, warmupBars + bars.size());
+            barsApplied.addAndGet(memo.advance(stored));
+        } catch (IOException e) {
+            log.warn("No stored bars to warm up {} for {}: {}", spec, symbol, e.getMessage());
+        }
+        memos.put(key, memo);
+        return memo;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("memos", memos.size());
+        stats.put("memoHits", memoHits.get());
+        stats.put("memoBuilds", memoBuilds.get());
+        stats.put("barsApplied", barsApplied.get());
+        return stats;
+    }
+
+    /**
+     * Indicator state plus its values for every bar fed so far, oldest first. Guarded by its own lock.
+     */
+    static final class Memo {
+
+        // Oldest half is dropped beyond this, so a long-lived memo stays bounded
+        private static final int MAX_BARS = 4096;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Indicator state;
+        private Indicator beforeNewest;  // State before the newest bar, to revise it
+        private final int outputs;
+
+        private long[] epochs = new long[64];
+        private double[][] values;
+        private int size;
+
+        // The newest bar as it was added, to tell whether a repeat of it changed
+        private double newestHigh;
+        private double newestLow;
+        private double newestClose;
+        private long newestVolume;
+
+        Memo(Indicator indicator) {
+            this.state = indicator;
+            this.outputs = indicator.outputs().length;
+            this.values = new double[outputs][epochs.length];
+        }
+
+        /**
+         * Feeds the bars newer than the newest one seen, and revises the newest one if it changed.
+         * Returns how many bars were applied.
+         */
+        int advance(BarSeries bars) {
+            long[] barEpochs = bars.getEpochs();
+            double[] high = bars.getHigh();
+            double[] low = bars.getLow();
+            double[] close = bars.getClose();
+            long[] volume = bars.getVolume();
+
+            // Only the newest bar can be revised, so only the state before it is kept
+            int lastBar = barEpochs.length - 1;
+            while (lastBar >= 0 && Double.isNaN(close[lastBar])) {
+                lastBar--;
+            }
+
+            int applied = 0;
+            for (int i = 0; i <= lastBar; i++) {
+                if (Double.isNaN(close[i])) {
+                    continue;
+                }
+
+                long newest = size > 0 ? epochs[size - 1] : Long.MIN_VALUE;
+                if (barEpochs[i] < newest) {
+                    continue;
+                }
+                if (barEpochs[i] == newest) {
+                    if (high[i] == newestHigh && low[i] == newestLow && close[i] == newestClose
+                            && volume[i] == newestVolume) {
+                        continue;
+                    }
+                    // Rewind to before the newest bar and apply it again
+                    state = beforeNewest.copy();
+                    size--;
+                } else if (i == lastBar) {
+                    beforeNewest = state.copy();
+                }
+
+                state.add(high[i], low[i], close[i], volume[i]);
+                append(barEpochs[i]);
+                newestHigh = high[i];
+                newestLow = low[i];
+                newestClose = close[i];
+                newestVolume = volume[i];
+                applied++;
+            }
+            return applied;
+        }
+
+        private void append(long epoch) {
+            if (size == MAX_BARS) {
+                int keep = MAX_BARS / 2;
+                System.arraycopy(epochs, size - keep, epochs, 0, keep);
+                for (double[] output : values) {
+                    System.arraycopy(output, size - keep, output, 0, keep);
+                }
+                size = keep;
+            }
+            if (size == epochs.length) {
+                epochs = Arrays.copyOf(epochs, size * 2);
+                for (int o = 0; o < outputs; o++) {
+                    values[o] = Arrays.copyOf(values[o], size * 2);
+                }
+            }
+
+            epochs[size] = epoch;
+            for (int o = 0; o < outputs; o++) {
+                values[o][size] = state.value(o);
+            }
+            size++;
+        }
+
+        Map<String, double[]> slice(long[] barEpochs) {
+            String[] names = state.outputs();
+            double[][] result = new double[outputs][barEpochs.length];
+            for (int i = 0; i < barEpochs.length; i++) {
+                int index = Arrays.binarySearch(epochs, 0, size, barEpochs[i]);
+                for (int o = 0; o < outputs; o++) {
+                    result[o][i] = index >= 0 ? values[o][index] : Double.NaN;
+                }
+            }
+
+            Map<String, double[]> sliced = new LinkedHashMap<>();
+            for (int o = 0; o < outputs; o++) {
+                sliced.put(names[o], result[o]);
+            }
+            return sliced;
+        }
+    }
+}
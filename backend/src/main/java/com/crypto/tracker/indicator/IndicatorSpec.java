@@ -0,0 +1,77 @@
+package com.crypto.tracker.indicator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An indicator type with its parameters, written {@code type[:period[:multiplier]]}, e.g. {@code "sma:50"} or
+ * {@code "bbands:20:2"}. Missing parameters take the usual defaults.
+ */
+public record IndicatorSpec(String type, int period, double multiplier) {
+
+    // Longest window accepted, so a request cannot make the engine allocate huge ring buffers
+    public static final int MAX_PERIOD = 500;
+
+    public static final String DEFAULTS = "sma,ema,rsi,bbands,vwap";
+
+    /**
+     * Parses a comma-separated list, dropping duplicates.
+     *
+     * @throws IllegalArgumentException for an unknown type or invalid parameters
+     */
+    public static List<IndicatorSpec> parseList(String specs) {
+        LinkedHashSet<IndicatorSpec> parsed = new LinkedHashSet<>();
+        for (String spec : specs.split(",")) {
+            if (!spec.isBlank()) {
+                parsed.add(parse(spec.trim()));
+            }
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("No indicators requested");
+        }
+        return new ArrayList<>(parsed);
+    }
+
+    public static IndicatorSpec parse(String spec) {
+        String[] parts = spec.toLowerCase(Locale.ROOT).split(":");
+        String type = parts[0];
+        int defaultPeriod = switch (type) {
+            case "sma", "ema", "bbands", "vwap" -> 20;
+            case "rsi" -> 14;
+            default -> throw new IllegalArgumentException("Unknown indicator: " + parts[0]);
+        };
+
+        try {
+            int period = parts.length > 1 ? Integer.parseInt(parts[1]) : defaultPeriod;
+            double multiplier = type.equals("bbands") && parts.length > 2 ? Double.parseDouble(parts[2]) : 2.0;
+            int maxParts = type.equals("bbands") ? 3 : 2;
+            if (period < 1 || period > MAX_PERIOD || !(multiplier > 0) || parts.length > maxParts) {
+                throw new IllegalArgumentException("Invalid parameters for " + type + ": " + spec);
+            }
+            return new IndicatorSpec(type, period, type.equals("bbands") ? multiplier : 0.0);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid parameters for " + type + ": " + spec);
+        }
+    }
+
+    public Indicator create() {
+        return switch (type) {
+            case "sma" -> new Sma(period);
+            case "ema" -> new Ema(period);
+            case "rsi" -> new Rsi(period);
+            case "bbands" -> new BollingerBands(period, multiplier);
+            case "vwap" -> new Vwap(period);
+            default -> throw new IllegalStateException("Unknown indicator: " + type);
+        };
+    }
+
+    /**
+     * Canonical form, e.g. "rsi:14" or "bbands:20:2.0"; used as the response key and in memo keys.
+     */
+    @Override
+    public String toString() {
+        return type.equals("bbands") ? type + ":" + period + ":" + multiplier : type + ":" + period;
+    }
+}
@@ -0,0 +1,70 @@
+package com.crypto.tracker.indicator;
+
+/**
+ * Relative strength index with Wilder's smoothing: the first {@code period} changes are averaged, later ones
+ * are folded in as {@code avg = (avg * (period - 1) + change) / period}.
+ */
+public class Rsi implements Indicator {
+
+    private final int period;
+    private double previousClose = Double.NaN;
+    private int changes;
+    private double avgGain;
+    private double avgLoss;
+
+    public Rsi(int period) {
+        this.period = period;
+    }
+
+    private Rsi(Rsi other) {
+        this.period = other.period;
+        this.previousClose = other.previousClose;
+        this.changes = other.changes;
+        this.avgGain = other.avgGain;
+        this.avgLoss = other.avgLoss;
+    }
+
+    @Override
+    public void add(double high, double low, double close, long volume) {
+        if (Double.isNaN(previousClose)) {
+            previousClose = close;
+            return;
+        }
+
+        double change = close - previousClose;
+        double gain = Math.max(change, 0.0);
+        double loss = Math.max(-change, 0.0);
+        previousClose = close;
+
+        if (changes < period) {
+            // Seed with plain averages; they are complete once period changes are in
+            avgGain += gain / period;
+            avgLoss += loss / period;
+            changes++;
+            return;
+        }
+        avgGain = (avgGain * (period - 1) + gain) / period;
+        avgLoss = (avgLoss * (period - 1) + loss) / period;
+    }
+
+    @Override
+    public String[] outputs() {
+        return new String[] {"rsi"};
+    }
+
+    @Override
+    public double value(int output) {
+        if (changes < period) {
+            return Double.NaN;
+        }
+        if (avgLoss == 0.0) {
+            return avgGain == 0.0 ? 50.0 : 100.0;
+        }
+        return 100.0 - 100.0 / (1.0 + avgGain / avgLoss);
+    }
+
+    @Override
+    public Indicator copy() {
+        return new Rsi(this);
+    }
+}
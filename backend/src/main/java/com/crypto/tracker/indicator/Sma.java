@@ -0,0 +1,50 @@
+package com.crypto.tracker.indicator;
+
+/**
+ * Simple moving average of closing prices, kept as a running sum over a ring buffer.
+ */
+public class Sma implements Indicator {
+
+    private final double[] window;
+    private int next;
+    private int count;
+    private double sum;
+
+    public Sma(int period) {
+        this.window = new double[period];
+    }
+
+    private Sma(Sma other) {
+        this.window = other.window.clone();
+        this.next = other.next;
+        this.count = other.count;
+        this.sum = other.sum;
+    }
+
+    @Override
+    public void add(double high, double low, double close, long volume) {
+        if (count == window.length) {
+            sum -= window[next];
+        } else {
+            count++;
+        }
+        window[next] = close;
+        sum += close;
+        next = (next + 1) % window.length;
+    }
+
+    @Override
+    public String[] outputs() {
+        return new String[] {"sma"};
+    }
+
+    @Override
+    public double value(int output) {
+        return count == window.length ? sum / window.length : Double.NaN;
+    }
+
+    @Override
+    public Indicator copy() {
+        return new Sma(this);
+    }
+}
@@ -0,0 +1,62 @@
+package com.crypto.tracker.indicator;
+
+/**
+ * Volume-weighted average of the typical price {@code (high + low + close) / 3} over the last {@code period}
+ * bars. Bars without volume count as zero volume; with no volume in the window the value is NaN.
+ */
+public class Vwap implements Indicator {
+
+    private final double[] priceVolume;
+    private final double[] volumes;
+    private int next;
+    private int count;
+    private double sumPriceVolume;
+    private double sumVolume;
+
+    public Vwap(int period) {
+        this.priceVolume = new double[period];
+        this.volumes = new double[period];
+    }
+
+    private Vwap(Vwap other) {
+        this.priceVolume = other.priceVolume.clone();
+        this.volumes = other.volumes.clone();
+        this.next = other.next;
+        this.count = other.count;
+        this.sumPriceVolume = other.sumPriceVolume;
+        this.sumVolume = other.sumVolume;
+    }
+
+    @Override
+    public void add(double high, double low, double close, long volume) {
+        if (count == volumes.length) {
+            sumPriceVolume -= priceVolume[next];
+            sumVolume -= volumes[next];
+        } else {
+            count++;
+        }
+
+        double v = Math.max(volume, 0L);
+        double typical = (high + low + close) / 3.0;
+        priceVolume[next] = Double.isNaN(typical) ? 0.0 : typical * v;
+        volumes[next] = Double.isNaN(typical) ? 0.0 : v;
+        sumPriceVolume += priceVolume[next];
+        sumVolume += volumes[next];
+        next = (next + 1) % volumes.length;
+    }
+
+    @Override
+    public String[] outputs() {
+        return new String[] {"vwap"};
+    }
+
+    @Override
+    public double value(int output) {
+        return count == volumes.length && sumVolume > 0 ? sumPriceVolume / sumVolume : Double.NaN;
+    }
+
+    @Override
+    public Indicator copy() {
+        return new Vwap(this);
+    }
+}
@@ -0,0 +1,191 @@
+package com.crypto.tracker.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * OHLCV bars in columnar form, oldest first. Prices are parsed once; missing values are NaN
+ * (prices) or -1 (volume).
+ *
+ * <p>Times are stored as epoch seconds of the bar's local {@code datetime} read as if it were UTC,
+ * so the exchange-local string Twelve Data sends can be reproduced exactly.
+ */
+public class BarSeries implements Serializable {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final long[] epochs;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final long[] volume;
+
+    @JsonCreator
+    public BarSeries(@JsonProperty("epochs") long[] epochs,
+                     @JsonProperty("open") double[] open,
+                     @JsonProperty("high") double[] high,
+                     @JsonProperty("low") double[] low,
+                     @JsonProperty("close") double[] close,
+                     @JsonProperty("volume") long[] volume) {
+        this.epochs = epochs;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    /**
+     * Builds a series from Twelve Data values (newest first, as the API returns them).
+     * Values with an unreadable datetime are skipped.
+     */
+    public static BarSeries fromValues(List<TimeSeriesValue> values) {
+        int n = values.size();
+        long[] epochs = new long[n];
+        double[] open = new double[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        long[] volume = new long[n];
+
+        int size = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            TimeSeriesValue value = values.get(i);
+            Long epoch = parseDatetime(value.getDatetime());
+            if (epoch == null) {
+                continue;
+            }
+            epochs[size] = epoch;
+            open[size] = parsePrice(value.getOpen());
+            high[size] = parsePrice(value.getHigh());
+            low[size] = parsePrice(value.getLow());
+            close[size] = parsePrice(value.getClose());
+            volume[size] = parseVolume(value.getVolume());
+            size++;
+        }
+
+        if (size < n) {
+            return new BarSeries(Arrays.copyOf(epochs, size), Arrays.copyOf(open, size),
+                Arrays.copyOf(high, size), Arrays.copyOf(low, size),
+                Arrays.copyOf(close, size), Arrays.copyOf(volume, size));
+        }
+        return new BarSeries(epochs, open, high, low, close, volume);
+    }
+
+    /**
+     * Converts back to Twelve Data values, newest first. Daily and longer intervals are written as dates only.
+     */
+    public List<TimeSeriesValue> toValues(String interval) {
+        boolean dateOnly = isDateOnly(interval);
+        List<TimeSeriesValue> values = new ArrayList<>(epochs.length);
+        for (int i = epochs.length - 1; i >= 0; i--) {
+            TimeSeriesValue value = new TimeSeriesValue();
+            value.setDatetime(formatDatetime(epochs[i], dateOnly));
+            value.setOpen(formatPrice(open[i]));
+            value.setHigh(formatPrice(high[i]));
+            value.setLow(formatPrice(low[i]));
+            value.setClose(formatPrice(close[i]));
+            value.setVolume(volume[i] >= 0 ? Long.toString(volume[i]) : null);
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * The newest {@code n} bars (this series itself if it has no more than that).
+     */
+    public BarSeries last(int n) {
+        int from = epochs.length - n;
+        if (from <= 0) {
+            return this;
+        }
+        int to = epochs.length;
+        return new BarSeries(Arrays.copyOfRange(epochs, from, to), Arrays.copyOfRange(open, from, to),
+            Arrays.copyOfRange(high, from, to), Arrays.copyOfRange(low, from, to),
+            Arrays.copyOfRange(close, from, to), Arrays.copyOfRange(volume, from, to));
+    }
+
+    public int size() {
+        return epochs.length;
+    }
+
+    public long[] getEpochs() {
+        return epochs;
+    }
+
+    public double[] getOpen() {
+        return open;
+    }
+
+    public double[] getHigh() {
+        return high;
+    }
+
+    public double[] getLow() {
+        return low;
+    }
+
+    public double[] getClose() {
+        return close;
+    }
+
+    public long[] getVolume() {
+        return volume;
+    }
+
+    /**
+     * Parses "yyyy-MM-dd" or "yyyy-MM-dd HH:mm:ss"; returns null if the value is neither.
+     */
+    public static Long parseDatetime(String datetime) {
+        if (datetime == null) {
+            return null;
+        }
+        try {
+            if (datetime.length() == 10) {
+                return LocalDate.parse(datetime).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            }
+            return LocalDateTime.parse(datetime, DATE_TIME).toEpochSecond(ZoneOffset.UTC);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public static String formatDatetime(long epoch, boolean dateOnly) {
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(epoch, 0, ZoneOffset.UTC);
+        return dateOnly ? dateTime.toLocalDate().toString() : dateTime.format(DATE_TIME);
+    }
+
+    public static boolean isDateOnly(String interval) {
+        return interval.endsWith("day") || interval.endsWith("week") || interval.endsWith("month");
+    }
+
+    private static double parsePrice(String value) {
+        try {
+            return value != null ? Double.parseDouble(value) : Double.NaN;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static long parseVolume(String value) {
+        try {
+            return value != null ? (long) Double.parseDouble(value) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String formatPrice(double value) {
+        return Double.isNaN(value) ? null : Double.toString(value);
+    }
+}
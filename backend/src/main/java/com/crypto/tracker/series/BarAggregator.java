@@ -0,0 +1,107 @@
+package com.crypto.tracker.series;
+
+import com.crypto.tracker.model.BarSeries;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Rolls base bars up into a coarser interval: first open, highest high, lowest low, last close, summed volume.
+ *
+ * <p>Intraday buckets start at each day's first bar (09:30, 13:30 for 4h bars of a US listing, like Twelve Data's
+ * own), weeks start on Monday and months on the 1st. Each bar is dated with the start of its bucket.
+ * Intraday bars should begin with a day's first bar: a slice that starts mid-day shifts that day's buckets.
+ */
+public final class BarAggregator {
+
+    private static final long DAY = 86_400;
+
+    private BarAggregator() {
+    }
+
+    /**
+     * Aggregates bars of {@code interval.base()} (oldest first) into bars of the interval.
+     */
+    public static BarSeries aggregate(BarSeries bars, HistoryInterval interval) {
+        if (interval.isBase() || bars.size() == 0) {
+            return bars;
+        }
+
+        long[] epochs = bars.getEpochs();
+        double[] open = bars.getOpen();
+        double[] high = bars.getHigh();
+        double[] low = bars.getLow();
+        double[] close = bars.getClose();
+        long[] volume = bars.getVolume();
+
+        // Never more buckets than bars
+        int n = epochs.length;
+        long[] outEpochs = new long[n];
+        double[] outOpen = new double[n];
+        double[] outHigh = new double[n];
+        double[] outLow = new double[n];
+        double[] outClose = new double[n];
+        long[] outVolume = new long[n];
+
+        int size = 0;
+        long currentDay = Long.MIN_VALUE;
+        long sessionStart = 0;
+        for (int i = 0; i < n; i++) {
+            long day = Math.floorDiv(epochs[i], DAY);
+            if (day != currentDay) {
+                currentDay = day;
+                sessionStart = epochs[i];
+            }
+            long bucket = bucketStart(epochs[i], day, sessionStart, interval);
+
+            if (size == 0 || outEpochs[size - 1] != bucket) {
+                outEpochs[size] = bucket;
+                outOpen[size] = open[i];
+                outHigh[size] = high[i];
+                outLow[size] = low[i];
+                outClose[size] = close[i];
+                outVolume[size] = volume[i];
+                size++;
+                continue;
+            }
+
+            int last = size - 1;
+            if (Double.isNaN(outOpen[last])) {
+                outOpen[last] = open[i];
+            }
+            outHigh[last] = max(outHigh[last], high[i]);
+            outLow[last] = min(outLow[last], low[i]);
+            if (!Double.isNaN(close[i])) {
+                outClose[last] = close[i];
+            }
+            if (volume[i] >= 0) {
+                outVolume[last] = Math.max(outVolume[last], 0) + volume[i];
+            }
+        }
+
+        return new BarSeries(Arrays.copyOf(outEpochs, size), Arrays.copyOf(outOpen, size),
+            Arrays.copyOf(outHigh, size), Arrays.copyOf(outLow, size),
+            Arrays.copyOf(outClose, size), Arrays.copyOf(outVolume, size));
+    }
+
+    private static long bucketStart(long epoch, long day, long sessionStart, HistoryInterval interval) {
+        if (interval.isIntraday()) {
+            long length = interval.seconds();
+            return sessionStart + (epoch - sessionStart) / length * length;
+        }
+        if (interval == HistoryInterval.ONE_WEEK) {
+            // Epoch day 0 was a Thursday
+            return (day - Math.floorMod(day + 3, 7)) * DAY;
+        }
+        return LocalDate.ofEpochDay(day).withDayOfMonth(1).toEpochDay() * DAY;
+    }
+
+    // Math.max/min would turn a missing (NaN) price into a missing bucket price
+    private static double max(double a, double b) {
+        return Double.isNaN(a) ? b : Double.isNaN(b) ? a : Math.max(a, b);
+    }
+
+    private static double min(double a, double b) {
+        return Double.isNaN(a) ? b : Double.isNaN(b) ? a : Math.min(a, b);
+    }
+}
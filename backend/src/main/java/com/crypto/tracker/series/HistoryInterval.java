@@ -0,0 +1,91 @@
+package com.crypto.tracker.series;
+
+import java.util.Locale;
+
+/**
+ * Bar intervals served by the history endpoint, named as Twelve Data names them. Only the base intervals
+ * (1min, 5min, 1h, 1day) are fetched and stored; the others are aggregated locally from their base.
+ */
+public enum HistoryInterval {
+
+    ONE_MINUTE("1min", 60, null),
+    FIVE_MINUTES("5min", 5 * 60, null),
+    FIFTEEN_MINUTES("15min", 15 * 60, "5min"),
+    THIRTY_MINUTES("30min", 30 * 60, "5min"),
+    FORTY_FIVE_MINUTES("45min", 45 * 60, "5min"),
+    ONE_HOUR("1h", 60 * 60, null),
+    TWO_HOURS("2h", 2 * 60 * 60, "1h"),
+    FOUR_HOURS("4h", 4 * 60 * 60, "1h"),
+    ONE_DAY("1day", 86_400, null),
+    ONE_WEEK("1week", 7 * 86_400, "1day"),
+    ONE_MONTH("1month", 31 * 86_400, "1day");  // Longest month; months are bucketed by calendar
+
+    // How long a synced base interval is used before asking Twelve Data for newer bars
+    private static final long MAX_SYNC_AGE_SECONDS = 300;
+
+    private final String code;
+    private final long seconds;
+    private final String baseCode;
+
+    HistoryInterval(String code, long seconds, String baseCode) {
+        this.code = code;
+        this.seconds = seconds;
+        this.baseCode = baseCode;
+    }
+
+    /**
+     * @throws IllegalArgumentException for an interval that is not supported
+     */
+    public static HistoryInterval fromCode(String code) {
+        String normalized = code.trim().toLowerCase(Locale.ROOT);
+        for (HistoryInterval interval : values()) {
+            if (interval.code.equals(normalized)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported interval: " + code);
+    }
+
+    /**
+     * Twelve Data's name for the interval, e.g. "15min".
+     */
+    public String code() {
+        return code;
+    }
+
+    /**
+     * Length of one bar in seconds (an upper bound for months).
+     */
+    public long seconds() {
+        return seconds;
+    }
+
+    /**
+     * The stored interval this one is built from; itself for base intervals.
+     */
+    public HistoryInterval base() {
+        return baseCode != null ? fromCode(baseCode) : this;
+    }
+
+    public boolean isBase() {
+        return baseCode == null;
+    }
+
+    /**
+     * Most base bars that go into one bar of this interval.
+     */
+    public int basePerBar() {
+        return (int) (seconds / base().seconds);
+    }
+
+    public boolean isIntraday() {
+        return seconds < ONE_DAY.seconds;
+    }
+
+    /**
+     * How long bars synced for this (base) interval stay current: one bar, but at most five minutes.
+     */
+    public long maxSyncAgeMillis() {
+        return Math.min(seconds, MAX_SYNC_AGE_SECONDS) * 1000;
+    }
+}
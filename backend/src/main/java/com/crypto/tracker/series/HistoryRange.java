@@ -0,0 +1,56 @@
+package com.crypto.tracker.series;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+/**
+ * How far back a history request reaches, written as a count and a unit ({@code 5d}, {@code 2w}, {@code 6m},
+ * {@code 1y}) or {@code max}. Ranges are measured back from the newest stored bar, in the same exchange-local
+ * time as the bars themselves.
+ */
+public record HistoryRange(int amount, char unit) {
+
+    private static final int MAX_AMOUNT = 100;
+
+    public static final HistoryRange MAX = new HistoryRange(0, 'x');
+
+    /**
+     * @throws IllegalArgumentException for anything but a positive count with unit d, w, m or y, or "max"
+     */
+    public static HistoryRange parse(String range) {
+        String normalized = range.trim().toLowerCase(Locale.ROOT);
+        if (normalized.equals("max")) {
+            return MAX;
+        }
+
+        try {
+            char unit = normalized.charAt(normalized.length() - 1);
+            int amount = Integer.parseInt(normalized.substring(0, normalized.length() - 1));
+            if (amount >= 1 && amount <= MAX_AMOUNT && "dwmy".indexOf(unit) >= 0) {
+                return new HistoryRange(amount, unit);
+            }
+        } catch (RuntimeException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Unsupported range: " + range + " (use e.g. 5d, 2w, 6m, 1y or max)");
+    }
+
+    /**
+     * First epoch inside the range that ends at the given (newest) epoch.
+     */
+    public long startEpoch(long newestEpoch) {
+        if (unit == 'x') {
+            return Long.MIN_VALUE;
+        }
+
+        LocalDateTime newest = LocalDateTime.ofEpochSecond(newestEpoch, 0, ZoneOffset.UTC);
+        LocalDateTime start = switch (unit) {
+            case 'd' -> newest.minusDays(amount);
+            case 'w' -> newest.minusWeeks(amount);
+            case 'm' -> newest.minusMonths(amount);
+            default -> newest.minusYears(amount);
+        };
+        return start.toEpochSecond(ZoneOffset.UTC);
+    }
+}
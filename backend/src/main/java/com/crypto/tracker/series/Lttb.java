@@ -0,0 +1,103 @@
+package com.crypto.tracker.series;
+
+import com.crypto.tracker.model.BarSeries;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling over closing prices. Keeps the first and last bar, and from each
+ * of {@code maxPoints - 2} equal buckets in between the bar forming the largest triangle with the bar kept
+ * before it and the average of the next bucket. Chosen bars are kept whole, so the result is still OHLCV.
+ */
+public final class Lttb {
+
+    // A line needs both ends
+    public static final int MIN_POINTS = 3;
+
+    private Lttb() {
+    }
+
+    /**
+     * The series reduced to at most {@code maxPoints} bars; unchanged if it is not longer than that.
+     */
+    public static BarSeries downsample(BarSeries bars, int maxPoints) {
+        int n = bars.size();
+        if (maxPoints < MIN_POINTS) {
+            throw new IllegalArgumentException("maxPoints must be at least " + MIN_POINTS);
+        }
+        if (n <= maxPoints) {
+            return bars;
+        }
+
+        long[] epochs = bars.getEpochs();
+        double[] close = bars.getClose();
+        int[] selected = new int[maxPoints];
+        selected[0] = 0;
+
+        // Buckets between the fixed first and last bar
+        double bucketSize = (double) (n - 2) / (maxPoints - 2);
+        int previous = 0;
+        for (int b = 0; b < maxPoints - 2; b++) {
+            int from = (int) (b * bucketSize) + 1;
+            int to = (int) ((b + 1) * bucketSize) + 1;
+
+            // Average point of the next bucket (just the last bar for the final bucket)
+            int nextFrom = to;
+            int nextTo = Math.min((int) ((b + 2) * bucketSize) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            int count = 0;
+            for (int i = nextFrom; i < nextTo; i++) {
+                if (!Double.isNaN(close[i])) {
+                    avgX += epochs[i];
+                    avgY += close[i];
+                    count++;
+                }
+            }
+            if (count == 0) {
+                avgX = epochs[n - 1];
+                avgY = close[n - 1];
+            } else {
+                avgX /= count;
+                avgY /= count;
+            }
+
+            double ax = epochs[previous];
+            double ay = close[previous];
+            double maxArea = -1;
+            int chosen = from;
+            for (int i = from; i < to; i++) {
+                // Twice the triangle area; NaN closes never win
+                double area = Math.abs((ax - avgX) * (close[i] - ay) - (ax - epochs[i]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+
+            selected[b + 1] = chosen;
+            previous = chosen;
+        }
+        selected[maxPoints - 1] = n - 1;
+
+        return select(bars, selected);
+    }
+
+    private static BarSeries select(BarSeries bars, int[] indices) {
+        int n = indices.length;
+        long[] epochs = new long[n];
+        double[] open = new double[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        long[] volume = new long[n];
+        for (int i = 0; i < n; i++) {
+            int j = indices[i];
+            epochs[i] = bars.getEpochs()[j];
+            open[i] = bars.getOpen()[j];
+            high[i] = bars.getHigh()[j];
+            low[i] = bars.getLow()[j];
+            close[i] = bars.getClose()[j];
+            volume[i] = bars.getVolume()[j];
+        }
+        return new BarSeries(epochs, open, high, low, close, volume);
+    }
+}
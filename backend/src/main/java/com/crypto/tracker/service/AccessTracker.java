@@ -0,0 +1,54 @@
+package com.crypto.tracker.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counts how often each cache key is read so background refreshes can favour popular symbols.
+ * Scores decay by half on every snapshot, so old traffic fades out over a few scheduler ticks.
+ */
+@Component
+public class AccessTracker {
+
+    private static final double DECAY_FACTOR = 0.5;
+    private static final double MIN_SCORE = 0.01;
+
+    // Reads since the last snapshot
+    private final Map<String, LongAdder> recentAccesses = new ConcurrentHashMap<>();
+
+    // Decayed score per key, only touched by snapshotAndDecay() while holding the lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Double> scores = new HashMap<>();
+
+    public void recordAccess(String key) {
+        recentAccesses.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Folds recent reads into the decayed scores and returns a copy of them.
+     */
+    public Map<String, Double> snapshotAndDecay() {
+        lock.lock();
+        try {
+            scores.replaceAll((key, score) -> score * DECAY_FACTOR);
+
+            for (Map.Entry<String, LongAdder> entry : recentAccesses.entrySet()) {
+                long count = entry.getValue().sumThenReset();
+                if (count > 0) {
+                    scores.merge(entry.getKey(), (double) count, Double::sum);
+                }
+            }
+
+            // Forget keys nobody has asked for in a long time
+            scores.values().removeIf(score -> score < MIN_SCORE);
+            return new HashMap<>(scores);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.crypto.tracker.service;
+
+import com.crypto.tracker.cache.TtlPolicy;
+import com.crypto.tracker.model.BarSeries;
+import com.crypto.tracker.model.CryptoQuote;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Soft TTL per cache entry, from the exchange session, how much the price is moving and how fast the monthly
+ * budget is going, starting from the cache's configured TTL:
+ * <ul>
+ *   <li>Regular session: the configured TTL, halved while the symbol is up or down more than
+ *   {@code volatile-percent} and doubled while it has moved less than {@code calm-percent}.</li>
+ *   <li>Pre- and after-market: the same, times {@code extended-hours-factor}.</li>
+ *   <li>Closed (nights, weekends, holidays): until the next session opens, since prices cannot move before.</li>
+ * </ul>
+ * When usage runs ahead of an even pace through the month, open-session TTLs are stretched by that ratio, up to
+ * {@code max-budget-stretch}. The result stays between {@code min-seconds} and {@code max-seconds}; RedisCacheConfig
+ * keeps the Redis entry at least that long.
+ *
+ * <p>Sessions are US equity hours (pre-market 04:00, open 09:30, close 16:00, after-hours end 20:00) in the
+ * symbol's exchange timezone, taken from time series metadata and {@code market.timezone} until one is seen.
+ */
+@Component
+public class AdaptiveTtlPolicy implements TtlPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveTtlPolicy.class);
+
+    enum Session { REGULAR, EXTENDED, CLOSED }
+
+    private static final LocalTime PRE_MARKET_OPEN = LocalTime.of(4, 0);
+    private static final LocalTime REGULAR_OPEN = LocalTime.of(9, 30);
+    private static final LocalTime REGULAR_CLOSE = LocalTime.of(16, 0);
+    private static final LocalTime AFTER_HOURS_CLOSE = LocalTime.of(20, 0);
+
+    private final MonthlyBudget monthlyBudget;
+    private final Clock clock;
+    private final boolean enabled;
+    private final ZoneId defaultZone;
+    private final Set<LocalDate> holidays = new HashSet<>();
+    private final long minTtlMillis;
+    private final long maxTtlMillis;
+    private final double extendedHoursFactor;
+    private final double volatilePercent;
+    private final double calmPercent;
+    private final double maxBudgetStretch;
+
+    // Exchange timezone per symbol, from time series metadata
+    private final Map<String, ZoneId> symbolZones = new ConcurrentHashMap<>();
+
+    // Entries written per session, for /api/meta/stats
+    private final AtomicLong regularWrites = new AtomicLong();
+    private final AtomicLong extendedWrites = new AtomicLong();
+    private final AtomicLong closedWrites = new AtomicLong();
+    private final AtomicLong budgetStretchedWrites = new AtomicLong();
+
+    @Autowired
+    public AdaptiveTtlPolicy(MonthlyBudget monthlyBudget,
+                             @Value("${cache.ttl.adaptive.enabled:true}") boolean enabled,
+                             @Value("${market.timezone:America/New_York}") String defaultZone,
+                             @Value("${market.holidays:}") String[] holidays,
+                             @Value("${cache.ttl.adaptive.min-seconds:30}") long minTtlSeconds,
+                             @Value("${cache.ttl.adaptive.max-seconds:345600}") long maxTtlSeconds,
+                             @Value("${cache.ttl.adaptive.extended-hours-factor:3}") double extendedHoursFactor,
+                             @Value("${cache.ttl.adaptive.volatile-percent:1.5}") double volatilePercent,
+                             @Value("${cache.ttl.adaptive.calm-percent:0.25}") double calmPercent,
+                             @Value("${cache.ttl.adaptive.max-budget-stretch:4}") double maxBudgetStretch) {
+        this(monthlyBudget, Clock.systemDefaultZone(), enabled, defaultZone, holidays, minTtlSeconds, maxTtlSeconds,
+            extendedHoursFactor, volatilePercent, calmPercent, maxBudgetStretch);
+    }
+
+    AdaptiveTtlPolicy(MonthlyBudget monthlyBudget, Clock clock, boolean enabled, String defaultZone,
+                      String[] holidays, long minTtlSeconds, long maxTtlSeconds, double extendedHoursFactor,
+                      double volatilePercent, double calmPercent, double maxBudgetStretch) {
+        this.monthlyBudget = monthlyBudget;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.defaultZone = ZoneId.of(defaultZone);
+        for (String holiday : holidays) {
+            if (!holiday.isBlank()) {
+                this.holidays.add(LocalDate.parse(holiday.trim()));
+            }
+        }
+        this.minTtlMillis = minTtlSeconds * 1000;
+        this.maxTtlMillis = maxTtlSeconds * 1000;
+        this.extendedHoursFactor = extendedHoursFactor;
+        this.volatilePercent = volatilePercent;
+        this.calmPercent = calmPercent;
+        this.maxBudgetStretch = maxBudgetStretch;
+    }
+
+    @Override
+    public Duration softTtl(String cacheName, Object key, Object value, Duration softTtl) {
+        if (!enabled) {
+            return softTtl;
+        }
+
+        ZonedDateTime now = clock.instant().atZone(zoneFor(key));
+        Session session = session(now);
+
+        double millis = softTtl.toMillis();
+        switch (session) {
+            case REGULAR -> {
+                regularWrites.incrementAndGet();
+                millis *= volatilityFactor(value);
+            }
+            case EXTENDED -> {
+                extendedWrites.incrementAndGet();
+                millis *= volatilityFactor(value) * extendedHoursFactor;
+            }
+            case CLOSED -> {
+                closedWrites.incrementAndGet();
+                millis = Math.max(millis, Duration.between(now, nextSessionStart(now)).toMillis());
+            }
+        }
+
+        // A closed-market TTL already ends when prices can next move; stretching it would serve them stale
+        double stretch = session == Session.CLOSED ? 1.0 : budgetStretch();
+        if (stretch > 1) {
+            budgetStretchedWrites.incrementAndGet();
+            millis *= stretch;
+        }
+
+        // Volatility never pushes the TTL below the floor, but a shorter configured TTL is kept
+        long floor = Math.min(minTtlMillis, softTtl.toMillis());
+        return Duration.ofMillis(Math.max(Math.min((long) millis, maxTtlMillis), floor));
+    }
+
+    /**
+     * How long intraday bars synced now stay current for the symbol. New bars only come out during the regular
+     * session, so that is {@code barAge} while it runs (stretched like open-session TTLs when the budget runs
+     * ahead) and otherwise until the next regular open: one sync after the close stores the session's last bars.
+     */
+    public Duration intradaySyncAge(String symbol, Duration barAge) {
+        if (!enabled) {
+            return barAge;
+        }
+
+        ZonedDateTime now = clock.instant().atZone(zoneFor(symbol));
+        long millis = session(now) == Session.REGULAR
+                ? (long) (barAge.toMillis() * budgetStretch())
+                : Duration.between(now, nextTradingDayAt(now, REGULAR_OPEN)).toMillis();
+        return Duration.ofMillis(Math.max(Math.min(millis, maxTtlMillis), barAge.toMillis()));
+    }
+
+    /**
+     * Remembers the exchange timezone Twelve Data reported for a symbol. Unknown zone ids are ignored.
+     */
+    public void recordTimezone(String symbol, String timezone) {
+        if (timezone == null || timezone.isBlank()) {
+            return;
+        }
+        try {
+            symbolZones.put(symbol, ZoneId.of(timezone));
+        } catch (DateTimeException e) {
+            log.debug("Ignoring unknown exchange timezone {} for {}", timezone, symbol);
+        }
+    }
+
+    private ZoneId zoneFor(Object key) {
+        return symbolZones.getOrDefault(String.valueOf(key), defaultZone);
+    }
+
+    Session session(ZonedDateTime now) {
+        if (!isTradingDay(now.toLocalDate())) {
+            return Session.CLOSED;
+        }
+
+        LocalTime time = now.toLocalTime();
+        if (!time.isBefore(REGULAR_OPEN) && time.isBefore(REGULAR_CLOSE)) {
+            return Session.REGULAR;
+        }
+        if (!time.isBefore(PRE_MARKET_OPEN) && time.isBefore(AFTER_HOURS_CLOSE)) {
+            return Session.EXTENDED;
+        }
+        return Session.CLOSED;
+    }
+
+    private boolean isTradingDay(LocalDate day) {
+        DayOfWeek dayOfWeek = day.getDayOfWeek();
+        return dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY && !holidays.contains(day);
+    }
+
+    /**
+     * Start of the next pre-market session after a closed moment.
+     */
+    ZonedDateTime nextSessionStart(ZonedDateTime now) {
+        return nextTradingDayAt(now, PRE_MARKET_OPEN);
+    }
+
+    /**
+     * The first time after now that is {@code time} on a trading day.
+     */
+    private ZonedDateTime nextTradingDayAt(ZonedDateTime now, LocalTime time) {
+        LocalDate day = now.toLocalDate();
+        if (!isTradingDay(day) || !now.toLocalTime().isBefore(time)) {
+            day = day.plusDays(1);
+        }
+        // Weekends plus a holiday never run longer than this
+        for (int i = 0; i < 7 && !isTradingDay(day); i++) {
+            day = day.plusDays(1);
+        }
+        return day.atTime(time).atZone(now.getZone());
+    }
+
+    /**
+     * Shorter for big moves, longer for quiet symbols, unchanged when the move is unknown.
+     */
+    private double volatilityFactor(Object value) {
+        Double percent = percentMove(value);
+        if (percent == null) {
+            return 1.0;
+        }
+        if (Math.abs(percent) >= volatilePercent) {
+            return 0.5;
+        }
+        if (Math.abs(percent) <= calmPercent) {
+            return 2.0;
+        }
+        return 1.0;
+    }
+
+    /**
+     * Today's percent change of a quote, or the last bar's change from the close before it.
+     */
+    private static Double percentMove(Object value) {
+        if (value instanceof CryptoQuote quote) {
+            return quote.getPercentChangeValue();
+        }
+        if (value instanceof BarSeries bars && bars.size() >= 2) {
+            double[] close = bars.getClose();
+            double previous = close[close.length - 2];
+            double last = close[close.length - 1];
+            if (Double.isNaN(previous) || Double.isNaN(last) || previous == 0) {
+                return null;
+            }
+            return (last / previous - 1) * 100;
+        }
+        return null;
+    }
+
+    /**
+     * How far the month's usage runs ahead of an even pace, between 1 and {@code max-budget-stretch}.
+     */
+    double budgetStretch() {
+        if (monthlyBudget.getRemainingBudget() <= 0) {
+            return maxBudgetStretch;
+        }
+
+        // Same month boundaries as MonthlyBudget
+        ZonedDateTime now = clock.instant().atZone(ZoneId.systemDefault());
+        YearMonth month = YearMonth.from(now);
+        ZonedDateTime monthStart = month.atDay(1).atStartOfDay(now.getZone());
+        double monthMillis = Duration.between(monthStart, monthStart.plusMonths(1)).toMillis();
+        // At least one day in, so the first calls of the month do not look like a runaway pace
+        double elapsed = Math.max(Duration.between(monthStart, now).toMillis(), Duration.ofDays(1).toMillis())
+            / monthMillis;
+
+        double used = monthlyBudget.getCurrentUsage() / (double) monthlyBudget.getMonthlyLimit();
+        return Math.max(1.0, Math.min(maxBudgetStretch, used / elapsed));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("session", session(clock.instant().atZone(defaultZone)).name());
+        stats.put("budgetStretch", enabled ? budgetStretch() : 1.0);
+        stats.put("regularWrites", regularWrites.get());
+        stats.put("extendedWrites", extendedWrites.get());
+        stats.put("closedWrites", closedWrites.get());
+        stats.put("budgetStretchedWrites", budgetStretchedWrites.get());
+        return stats;
+    }
+}
@@ -0,0 +1,59 @@
+package com.crypto.tracker.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Packs symbols into multi-symbol Twelve Data calls. Each call costs one minute permit and one unit of
+ * monthly budget, so fewer, fuller batches stretch both limits further.
+ */
+@Component
+public class BatchPlanner {
+
+    // Twelve Data accepts up to 120 symbols per /quote call
+    @Value("${symbols.quote-batch-size:120}")
+    private int quoteBatchSize;
+
+    // Time series responses are much larger, so those batches are kept smaller
+    @Value("${symbols.history-batch-size:8}")
+    private int historyBatchSize;
+
+    public List<List<String>> planQuoteBatches(Collection<String> symbols) {
+        return plan(symbols, quoteBatchSize);
+    }
+
+    public List<List<String>> planHistoryBatches(Collection<String> symbols) {
+        return plan(symbols, historyBatchSize);
+    }
+
+    /**
+     * Number of upstream calls needed for the given number of quote and history symbols.
+     */
+    public int callsFor(int quoteSymbols, int historySymbols) {
+        return batchCount(quoteSymbols, quoteBatchSize) + batchCount(historySymbols, historyBatchSize);
+    }
+
+    /**
+     * Splits the symbols, without duplicates and in their original order, into batches of at most batchSize.
+     */
+    static List<List<String>> plan(Collection<String> symbols, int batchSize) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(symbols));
+        int size = Math.max(1, batchSize);
+
+        List<List<String>> batches = new ArrayList<>(batchCount(distinct.size(), size));
+        for (int from = 0; from < distinct.size(); from += size) {
+            batches.add(List.copyOf(distinct.subList(from, Math.min(from + size, distinct.size()))));
+        }
+        return batches;
+    }
+
+    private static int batchCount(int symbols, int batchSize) {
+        int size = Math.max(1, batchSize);
+        return (symbols + size - 1) / size;
+    }
+}
@@ -0,0 +1,27 @@
+package com.crypto.tracker.service;
+
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Factory for the Lua scripts shared by the Redis-backed limiters.
+ */
+final class LuaScripts {
+
+    private LuaScripts() {
+    }
+
+    /**
+     * A script that returns an array of integers, which Redis hands back as a list of Longs.
+     */
+    @SuppressWarnings("unchecked")
+    static RedisScript<List<Long>> returningLongs(String source) {
+        DefaultRedisScript<List<Long>> script = new DefaultRedisScript<>();
+        script.setScriptText(source);
+        // A class literal cannot carry the element type
+        script.setResultType((Class<List<Long>>) (Class<?>) List.class);
+        return script;
+    }
+}
@@ -1,63 +1,113 @@
 package com.crypto.tracker.service;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+/**
+ * Lock-free sliding-window limiter: at most {@value #MAX_REQUESTS_PER_MINUTE} permits per 60 seconds.
+ *
+ * <p>The last {@value #MAX_REQUESTS_PER_MINUTE} grant times live in a primitive ring buffer. A new permit is
+ * allowed when the slot it would overwrite (the oldest of the last 20 grants) is outside the window.
+ * Claiming a permit is a single CAS on the grant sequence, so callers never block and nothing is allocated.
+ */
 @Component
-public class MinuteLimiter {
+@ConditionalOnProperty(name = "rate-limiter.mode", havingValue = "memory", matchIfMissing = true)
+public class MinuteLimiter implements RateLimiter {
 
     private static final int MAX_REQUESTS_PER_MINUTE = 20;
     private static final long WINDOW_SIZE_SECONDS = 60;
 
-    // Thread-safe queue to store timestamps of recent API calls
-    private final Queue<Long> requestTimestamps = new ConcurrentLinkedQueue<>();
-
-    public synchronized boolean allowRequest() {
-        long currentTime = Instant.now().getEpochSecond();
-        long windowStart = currentTime - WINDOW_SIZE_SECONDS;
-
-        // Remove timestamps older than 60 seconds (outside the sliding window)
-        while (!requestTimestamps.isEmpty() && requestTimestamps.peek() < windowStart) {
-            requestTimestamps.poll();
-        }
-
-        // Check if we're under the limit
-        if (requestTimestamps.size() < MAX_REQUESTS_PER_MINUTE) {
-            requestTimestamps.offer(currentTime);
-            return true;
+    // Each slot packs ((round + 1) << 34 | epochSecond); the round tells readers which grant last wrote the slot.
+    // Rounds are stored one-based so a slot that was never written (0) cannot pass for an expired grant.
+    private static final int ROUND_SHIFT = 34;
+    private static final long SECONDS_MASK = (1L << ROUND_SHIFT) - 1;
+    private static final long ROUND_MASK = (1L << (Long.SIZE - ROUND_SHIFT)) - 1;
+
+    // Grant timestamps, indexed by grant sequence modulo the limit
+    private final AtomicLongArray slots = new AtomicLongArray(MAX_REQUESTS_PER_MINUTE);
+
+    // Number of permits granted so far
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public boolean allowRequest() {
+        while (true) {
+            long currentTime = currentEpochSecond();
+            long windowStart = currentTime - WINDOW_SIZE_SECONDS;
+
+            long seq = sequence.get();
+            int index = (int) (seq % MAX_REQUESTS_PER_MINUTE);
+
+            if (seq >= MAX_REQUESTS_PER_MINUTE) {
+                long slot = slots.get(index);
+                long expectedRound = (seq / MAX_REQUESTS_PER_MINUTE) & ROUND_MASK;  // Previous round, one-based
+
+                // The grant 20 permits ago is still in the window (or is still being published) - reject
+                if ((slot >>> ROUND_SHIFT) != expectedRound || (slot & SECONDS_MASK) >= windowStart) {
+                    return false;  // Rate limit exceeded
+                }
+            }
+
+            if (sequence.compareAndSet(seq, seq + 1)) {
+                long round = (seq / MAX_REQUESTS_PER_MINUTE + 1) & ROUND_MASK;
+                slots.set(index, (round << ROUND_SHIFT) | currentTime);
+                return true;
+            }
+            // Another caller claimed this sequence number first - re-check against the new state
         }
-
-        return false;  // Rate limit exceeded
     }
 
-    public synchronized int getCurrentRequestCount() {
-        long currentTime = Instant.now().getEpochSecond();
-        long windowStart = currentTime - WINDOW_SIZE_SECONDS;
+    @Override
+    public int getCurrentRequestCount() {
+        long windowStart = currentEpochSecond() - WINDOW_SIZE_SECONDS;
 
-        // Clean up old timestamps
-        while (!requestTimestamps.isEmpty() && requestTimestamps.peek() < windowStart) {
-            requestTimestamps.poll();
+        int count = 0;
+        for (int i = 0; i < MAX_REQUESTS_PER_MINUTE; i++) {
+            long slot = slots.get(i);
+            if (slot != 0 && (slot & SECONDS_MASK) >= windowStart) {
+                count++;
+            }
         }
-
-        return requestTimestamps.size();
+        return count;
     }
 
+    @Override
     public int getRemainingRequests() {
         return MAX_REQUESTS_PER_MINUTE - getCurrentRequestCount();
     }
 
+    @Override
     public long getSecondsUntilReset() {
-        if (requestTimestamps.isEmpty()) {
+        long currentTime = currentEpochSecond();
+        long windowStart = currentTime - WINDOW_SIZE_SECONDS;
+
+        // The oldest grant still inside the window is the next one to free up a permit
+        long oldestTimestamp = Long.MAX_VALUE;
+        for (int i = 0; i < MAX_REQUESTS_PER_MINUTE; i++) {
+            long slot = slots.get(i);
+            long timestamp = slot & SECONDS_MASK;
+            if (slot != 0 && timestamp >= windowStart) {
+                oldestTimestamp = Math.min(oldestTimestamp, timestamp);
+            }
+        }
+
+        if (oldestTimestamp == Long.MAX_VALUE) {
             return 0;
         }
 
-        long currentTime = Instant.now().getEpochSecond();
-        long oldestTimestamp = requestTimestamps.peek();
         long timeUntilExpiry = (oldestTimestamp + WINDOW_SIZE_SECONDS) - currentTime;
-
         return Math.max(0, timeUntilExpiry);
     }
+
+    @Override
+    public int getMaxRequestsPerMinute() {
+        return MAX_REQUESTS_PER_MINUTE;
+    }
+
+    private static long currentEpochSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
 }
@@ -1,66 +1,191 @@
 package com.crypto.tracker.service;
 
-import org.springframework.data.redis.core.RedisTemplate;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.YearMonth;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
-import java.util.concurrent.TimeUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Monthly Twelve Data budget shared by all replicas.
+ *
+ * <p>Redis holds, per month, the calls made ({@code api:usage:YYYY-MM}) and what each replica holds on top of
+ * that: calls it reserved and has not yet written back as usage ({@code api:usage:YYYY-MM:leases}, a hash by
+ * replica). A replica reserves a small lease of calls at a time and spends it locally, so the replicas together
+ * can never reserve more than the limit. Every flush is also a heartbeat ({@code api:usage:YYYY-MM:heartbeats},
+ * a sorted set of expiry times); a replica that stops sending them, crashed or not, loses its lease after
+ * {@code budget.lease-ttl-ms}, so the budget it held returns to the others. Usage is counted in memory and
+ * flushed in one script call per interval; reads are answered from the last reconciled view.
+ */
 @Component
 public class MonthlyBudget {
 
+    private static final Logger log = LoggerFactory.getLogger(MonthlyBudget.class);
+
     private static final int MONTHLY_REQUEST_LIMIT = 500;
     private static final String REDIS_KEY_PREFIX = "api:usage:";
+    private static final String LEASES_SUFFIX = ":leases";
+    private static final String HEARTBEATS_SUFFIX = ":heartbeats";
+
+    // Shared head of both scripts. KEYS[1] = usage counter, KEYS[2] = leases hash, KEYS[3] = heartbeat set,
+    // ARGV[1] = replica id, ARGV[2] = calls this replica holds, ARGV[3] = lease TTL ms, ARGV[4] = key expiry
+    // seconds. Drops the leases of replicas whose heartbeat expired and records this replica's own.
+    private static final String HEARTBEAT = """
+        local t = redis.call('TIME')
+        local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+        local dead = redis.call('ZRANGEBYSCORE', KEYS[3], '-inf', now)
+        if #dead > 0 then
+            redis.call('HDEL', KEYS[2], unpack(dead))
+            redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', now)
+        end
+        local function hold(held)
+            if held > 0 then
+                redis.call('HSET', KEYS[2], ARGV[1], held)
+                redis.call('ZADD', KEYS[3], now + tonumber(ARGV[3]), ARGV[1])
+                redis.call('EXPIRE', KEYS[2], ARGV[4])
+                redis.call('EXPIRE', KEYS[3], ARGV[4])
+            else
+                redis.call('HDEL', KEYS[2], ARGV[1])
+                redis.call('ZREM', KEYS[3], ARGV[1])
+            end
+        end
+        local function reservedBy(used)
+            local reserved = used
+            for _, held in ipairs(redis.call('HVALS', KEYS[2])) do
+                reserved = reserved + tonumber(held)
+            end
+            return reserved
+        end
+        """;
+
+    // ARGV[5] = lease size, ARGV[6] = limit. Returns {granted, reserved, used}.
+    private static final RedisScript<List<Long>> RESERVE_SCRIPT = LuaScripts.returningLongs(HEARTBEAT + """
+        local used = tonumber(redis.call('GET', KEYS[1]) or '0')
+        hold(tonumber(ARGV[2]))
+        local reserved = reservedBy(used)
+        local granted = math.max(0, math.min(tonumber(ARGV[5]), tonumber(ARGV[6]) - reserved))
+        hold(tonumber(ARGV[2]) + granted)
+        return {granted, reserved + granted, used}
+        """);
+
+    // ARGV[5] = calls made here since the last flush; ARGV[2] no longer includes them. Returns {used, reserved}.
+    private static final RedisScript<List<Long>> FLUSH_SCRIPT = LuaScripts.returningLongs(HEARTBEAT + """
+        local pending = tonumber(ARGV[5])
+        if pending > 0 and redis.call('INCRBY', KEYS[1], pending) == pending then
+            redis.call('EXPIRE', KEYS[1], ARGV[4])
+        end
+        local used = tonumber(redis.call('GET', KEYS[1]) or '0')
+        hold(tonumber(ARGV[2]))
+        return {used, reservedBy(used)}
+        """);
+
+    // Calls reserved from Redis per round trip
+    @Value("${budget.lease-size:5}")
+    private int leaseSize;
+
+    // How long a replica's lease outlives its last heartbeat; several flush intervals
+    @Value("${budget.lease-ttl-ms:30000}")
+    private long leaseTtlMs;
 
     private final StringRedisTemplate redisTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile MonthState state = new MonthState(currentMonth());
+
+    private final AtomicLong redisRoundTrips = new AtomicLong();
 
     public MonthlyBudget(StringRedisTemplate redisTemplate) {
         this.redisTemplate = redisTemplate;
     }
 
-    private String getCurrentMonthKey() {
-        YearMonth currentMonth = YearMonth.now(ZoneId.systemDefault());
-        return REDIS_KEY_PREFIX + currentMonth.toString();
+    private static YearMonth currentMonth() {
+        return YearMonth.now(ZoneId.systemDefault());
     }
 
-    public void incrementUsage() {
-        String key = getCurrentMonthKey();
-
-        // Increment counter (creates key if it doesn't exist)
-        redisTemplate.opsForValue().increment(key, 1);
-
-        // Set expiry to end of next month (ensures cleanup)
-        YearMonth currentMonth = YearMonth.now(ZoneId.systemDefault());
-        YearMonth nextMonth = currentMonth.plusMonths(2);
-        long daysUntilExpiry = ChronoUnit.DAYS.between(currentMonth.atDay(1), nextMonth.atDay(1));
+    private static String usageKey(YearMonth month) {
+        return REDIS_KEY_PREFIX + month.toString();
+    }
 
-        redisTemplate.expire(key, daysUntilExpiry, TimeUnit.DAYS);
+    private static List<String> keys(YearMonth month) {
+        String usageKey = usageKey(month);
+        return List.of(usageKey, usageKey + LEASES_SUFFIX, usageKey + HEARTBEATS_SUFFIX);
     }
 
-    public int getCurrentUsage() {
-        String key = getCurrentMonthKey();
-        String value = redisTemplate.opsForValue().get(key);
+    /**
+     * Seconds until the end of next month (ensures cleanup), applied only when a key is created.
+     */
+    private static long expirySeconds(YearMonth month) {
+        YearMonth nextMonth = month.plusMonths(2);
+        return ChronoUnit.SECONDS.between(month.atDay(1).atStartOfDay(), nextMonth.atDay(1).atStartOfDay());
+    }
 
-        if (value == null) {
-            return 0;
+    /**
+     * Takes one call from this replica's lease, reserving a new lease from Redis when it is empty.
+     * Returns false once the month's budget is fully reserved.
+     */
+    public boolean tryReserve() {
+        MonthState current = currentState();
+        if (takeLeased(current)) {
+            return true;
         }
 
+        lock.lock();
         try {
-            return Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            return 0;
+            // Another caller may have refilled the lease while we waited
+            if (takeLeased(current)) {
+                return true;
+            }
+
+            int granted = reserveLease(current);
+            if (granted == 0) {
+                return false;
+            }
+            current.leased.addAndGet(granted - 1);
+            return true;
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Returns a reserved call that was not made (for example because the request failed before reaching the API).
+     */
+    public void release() {
+        currentState().leased.incrementAndGet();
+    }
+
+    public void incrementUsage() {
+        currentState().unflushed.incrementAndGet();
+    }
+
+    public int getCurrentUsage() {
+        MonthState current = loadedState();
+        return current.flushedUsage + current.unflushed.get();
+    }
+
     public int getRemainingBudget() {
-        return MONTHLY_REQUEST_LIMIT - getCurrentUsage();
+        return Math.max(0, MONTHLY_REQUEST_LIMIT - getCurrentUsage());
     }
 
     public boolean hasRemainingBudget() {
-        return getCurrentUsage() < MONTHLY_REQUEST_LIMIT;
+        MonthState current = loadedState();
+        return current.leased.get() > 0 || current.reserved < MONTHLY_REQUEST_LIMIT;
     }
 
     public double getUsagePercentage() {
@@ -73,7 +198,188 @@ public class MonthlyBudget {
     }
 
     public void resetUsage() {
-        String key = getCurrentMonthKey();
-        redisTemplate.delete(key);
+        lock.lock();
+        try {
+            YearMonth month = currentMonth();
+            redisTemplate.delete(keys(month));
+            state = new MonthState(month);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes locally counted usage to Redis, renews this replica's lease and re-reads the totals, all in one
+     * script call.
+     */
+    @Scheduled(fixedDelayString = "${budget.flush-interval-ms:5000}")
+    public void flush() {
+        lock.lock();
+        try {
+            flush(currentState());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands back what this replica reserved but never used. After a crash the lease expires instead.
+     */
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            MonthState current = state;
+            current.held -= current.leased.getAndSet(0);
+            flush(current);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        MonthState current = state;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("leasedHere", current.leased.get());
+        stats.put("heldHere", current.held);
+        stats.put("unflushed", current.unflushed.get());
+        stats.put("reservedTotal", current.reserved);
+        stats.put("redisRoundTrips", redisRoundTrips.get());
+        return stats;
+    }
+
+    private boolean takeLeased(MonthState current) {
+        while (true) {
+            int leased = current.leased.get();
+            if (leased <= 0) {
+                return false;
+            }
+            if (current.leased.compareAndSet(leased, leased - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The state for this month, rolling over (and flushing last month's usage) when the month changes.
+     */
+    private MonthState currentState() {
+        MonthState current = state;
+        YearMonth month = currentMonth();
+        if (current.month.equals(month)) {
+            return current;
+        }
+
+        lock.lock();
+        try {
+            if (!state.month.equals(month)) {
+                // Last month's unused lease is of no use any more
+                state.held -= state.leased.getAndSet(0);
+                flush(state);
+                state = new MonthState(month);
+            }
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The current state, read from Redis once if this replica has not reconciled yet this month.
+     */
+    private MonthState loadedState() {
+        MonthState current = currentState();
+        if (!current.loaded) {
+            flush();
+        }
+        return current;
+    }
+
+    // Callers hold lock
+    private int reserveLease(MonthState current) {
+        try {
+            List<Long> result = redisTemplate.execute(RESERVE_SCRIPT, keys(current.month),
+                instanceId,
+                String.valueOf(current.held),
+                String.valueOf(leaseTtlMs),
+                String.valueOf(expirySeconds(current.month)),
+                String.valueOf(Math.max(1, leaseSize)),
+                String.valueOf(MONTHLY_REQUEST_LIMIT)
+            );
+            redisRoundTrips.incrementAndGet();
+            if (result == null || result.size() < 3) {
+                return 0;
+            }
+
+            int granted = toInt(result.get(0));
+            current.held += granted;
+            current.reserved = toInt(result.get(1));
+            // Our own unflushed calls are not in Redis yet
+            current.flushedUsage = Math.max(current.flushedUsage, toInt(result.get(2)));
+            current.loaded = true;
+            return granted;
+        } catch (Exception e) {
+            // Without Redis we cannot prove the budget is not spent elsewhere
+            log.warn("Could not reserve monthly budget: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    // Callers hold lock
+    private void flush(MonthState target) {
+        int pending = target.unflushed.getAndSet(0);
+        try {
+            List<Long> result = redisTemplate.execute(FLUSH_SCRIPT, keys(target.month),
+                instanceId,
+                String.valueOf(target.held - pending),
+                String.valueOf(leaseTtlMs),
+                String.valueOf(expirySeconds(target.month)),
+                String.valueOf(pending)
+            );
+            redisRoundTrips.incrementAndGet();
+            if (result == null || result.size() < 2) {
+                throw new IllegalStateException("unexpected reply " + result);
+            }
+
+            // Written back as usage, so no longer held on top of it
+            target.held -= pending;
+            target.flushedUsage = toInt(result.get(0));
+            target.reserved = toInt(result.get(1));
+            target.loaded = true;
+        } catch (Exception e) {
+            // Keep the calls so the next flush records them
+            target.unflushed.addAndGet(pending);
+            log.warn("Could not flush monthly budget usage: {}", e.getMessage());
+        }
+    }
+
+    private static int toInt(Long value) {
+        return value != null ? value.intValue() : 0;
+    }
+
+    /**
+     * Local view of one month. Counters are atomics; {@code held} and the reconciled Redis numbers are written
+     * under lock.
+     */
+    private static final class MonthState {
+
+        private final YearMonth month;
+
+        // Calls reserved in Redis by this replica and not yet used
+        private final AtomicInteger leased = new AtomicInteger();
+
+        // Calls made by this replica and not yet written to Redis
+        private final AtomicInteger unflushed = new AtomicInteger();
+
+        // Calls reserved by this replica and not yet written back as usage: leased, in flight or unflushed
+        private volatile int held;
+
+        private volatile int flushedUsage;
+        private volatile int reserved;
+        private volatile boolean loaded;
+
+        private MonthState(YearMonth month) {
+            this.month = month;
+        }
     }
 }
@@ -0,0 +1,143 @@
+package com.crypto.tracker.service;
+
+import com.crypto.tracker.model.CryptoQuote;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass parser for Twelve Data {@code /quote} responses, reading tokens straight off the response stream
+ * into {@link CryptoQuote}s - no response string, tree or per-symbol conversion in between.
+ *
+ * <p>A one-symbol response is the quote itself. A multi-symbol response has one entry per symbol, any of which
+ * may be an error object; a whole-request error comes back as a top-level error object instead.
+ */
+public final class QuoteResponseParser {
+
+    private final JsonFactory jsonFactory;
+
+    public QuoteResponseParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    public Result parse(InputStream in, List<String> batch) throws IOException {
+        Map<String, CryptoQuote> quotes = new HashMap<>();
+        Map<String, QuoteError> errors = new HashMap<>();
+
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+
+            if (batch.size() == 1) {
+                Entry entry = readEntry(parser);
+                if (entry.error != null) {
+                    errors.put(batch.get(0), entry.error);
+                } else {
+                    quotes.put(batch.get(0), entry.quote);
+                }
+                return new Result(quotes, errors, null);
+            }
+
+            // Top-level scalars only appear when the whole request failed
+            String status = null;
+            int code = 0;
+            String message = null;
+
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    Entry entry = readEntry(parser);
+                    if (entry.error != null) {
+                        errors.put(field, entry.error);
+                    } else {
+                        quotes.put(field, entry.quote);
+                    }
+                    continue;
+                }
+
+                switch (field) {
+                    case "status" -> status = parser.getValueAsString();
+                    case "code" -> code = parser.getValueAsInt();
+                    case "message" -> message = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+
+            QuoteError error = "error".equals(status) ? new QuoteError(code, message) : null;
+            return new Result(quotes, errors, error);
+        }
+    }
+
+    /**
+     * Reads one quote (or error) object; the parser is on its START_OBJECT and is left on its END_OBJECT.
+     */
+    private static Entry readEntry(JsonParser parser) throws IOException {
+        CryptoQuote quote = new CryptoQuote();
+        String status = null;
+        int code = 0;
+        String message = null;
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                parser.skipChildren();  // e.g. fifty_two_week
+                continue;
+            }
+
+            switch (field) {
+                case "symbol" -> quote.setSymbol(parser.getValueAsString());
+                case "name" -> quote.setName(parser.getValueAsString());
+                case "exchange" -> quote.setExchange(parser.getValueAsString());
+                case "datetime" -> quote.setDatetime(parser.getValueAsString());
+                case "timestamp" -> quote.setTimestamp(token == JsonToken.VALUE_NULL ? null : parser.getValueAsLong());
+                case "open" -> quote.setOpen(parser.getValueAsString());
+                case "high" -> quote.setHigh(parser.getValueAsString());
+                case "low" -> quote.setLow(parser.getValueAsString());
+                case "close" -> quote.setClose(parser.getValueAsString());
+                case "volume" -> quote.setVolume(parser.getValueAsString());
+                case "previous_close" -> quote.setPreviousClose(parser.getValueAsString());
+                case "change" -> quote.setChange(parser.getValueAsString());
+                case "percent_change" -> quote.setPercentChange(parser.getValueAsString());
+                case "average_volume" -> quote.setAverageVolume(parser.getValueAsString());
+                case "status" -> status = parser.getValueAsString();
+                case "code" -> code = parser.getValueAsInt();
+                case "message" -> message = parser.getValueAsString();
+                default -> {
+                    // Fields we don't need
+                }
+            }
+        }
+
+        return "error".equals(status) ? new Entry(null, new QuoteError(code, message)) : new Entry(quote, null);
+    }
+
+    private record Entry(CryptoQuote quote, QuoteError error) {
+    }
+
+    /**
+     * @param quotes quotes by requested symbol
+     * @param errors per-symbol errors by requested symbol
+     * @param error  error for the whole request, or null
+     */
+    public record Result(Map<String, CryptoQuote> quotes, Map<String, QuoteError> errors, QuoteError error) {
+    }
+
+    /**
+     * Twelve Data error object; 400/404 codes mean the symbol is unknown.
+     */
+    public record QuoteError(int code, String message) {
+
+        public boolean isUnknownSymbol() {
+            return code == 400 || code == 404;
+        }
+    }
+}
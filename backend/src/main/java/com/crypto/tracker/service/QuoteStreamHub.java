@@ -0,0 +1,218 @@
+package com.crypto.tracker.service;
+
+import com.crypto.tracker.dto.CryptoIndexResponse;
+import com.crypto.tracker.model.CryptoQuote;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.crypto.tracker.config.RedisCacheConfig.PRICE_LIST_CACHE;
+import static com.crypto.tracker.config.RedisCacheConfig.redisKey;
+
+/**
+ * Shared broadcast hub behind {@code GET /api/indices/stream}.
+ * One poller reads the cached quotes and pushes only entries that changed to every SSE subscriber.
+ * Each subscriber keeps at most one pending update per symbol, so a slow client gets the latest
+ * price instead of an ever-growing backlog.
+ */
+@Component
+public class QuoteStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteStreamHub.class);
+
+    @Value("${stream.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    private final TwelveDataService twelveDataService;
+    private final AccessTracker accessTracker;
+    private final Executor sendExecutor;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Last entry pushed per symbol, used both for diffing and for the snapshot sent to new subscribers
+    private final Map<String, CryptoIndexResponse> latest = new ConcurrentHashMap<>();
+
+    private final AtomicLong eventsSent = new AtomicLong();
+    private final AtomicLong updatesDropped = new AtomicLong();
+
+    public QuoteStreamHub(TwelveDataService twelveDataService,
+                          AccessTracker accessTracker,
+                          @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                          Executor sendExecutor) {
+        this.twelveDataService = twelveDataService;
+        this.accessTracker = accessTracker;
+        this.sendExecutor = sendExecutor;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = newEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Start the new client off with everything we already know
+        if (!latest.isEmpty()) {
+            subscriber.enqueue(latest.values());
+        }
+        return emitter;
+    }
+
+    /**
+     * Creates the emitter for a new subscriber; tests substitute one that records what is sent.
+     */
+    SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    @Scheduled(fixedDelayString = "${stream.poll-interval-ms:5000}")
+    public void pollAndBroadcast() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        Map<String, CryptoQuote> quotes;
+        try {
+            // Served from cache; the cache decides when Twelve Data is actually called
+            quotes = twelveDataService.getCurrentPrices();
+            for (String symbol : quotes.keySet()) {
+                accessTracker.recordAccess(redisKey(PRICE_LIST_CACHE, symbol));
+            }
+        } catch (Exception e) {
+            log.warn("Quote stream poll failed: {}", e.getMessage());
+            return;
+        }
+
+        List<CryptoIndexResponse> changed = new ArrayList<>();
+        for (CryptoQuote quote : quotes.values()) {
+            CryptoIndexResponse dto = CryptoIndexResponse.from(quote);
+            CryptoIndexResponse previous = latest.put(dto.getSymbol(), dto);
+            if (!dto.equals(previous)) {
+                changed.add(dto);
+            }
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            if (changed.isEmpty()) {
+                // Keeps proxies from closing idle connections and lets us notice clients that left
+                subscriber.heartbeat();
+            } else {
+                subscriber.enqueue(changed);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("eventsSent", eventsSent.get());
+        stats.put("updatesDropped", updatesDropped.get());
+        return stats;
+    }
+
+    /**
+     * One SSE connection. Updates are merged per symbol and written by a single drain task at a time.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        // Guarded by lock; newer updates replace older ones for the same symbol
+        private final Map<String, CryptoIndexResponse> pending = new LinkedHashMap<>();
+        private boolean heartbeatPending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Collection<CryptoIndexResponse> updates) {
+            lock.lock();
+            try {
+                for (CryptoIndexResponse update : updates) {
+                    if (pending.put(update.getSymbol(), update) != null) {
+                        updatesDropped.incrementAndGet();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            scheduleDrain();
+        }
+
+        void heartbeat() {
+            lock.lock();
+            try {
+                heartbeatPending = true;
+            } finally {
+                lock.unlock();
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sendExecutor.execute(this::drain);
+                } catch (Exception e) {
+                    draining.set(false);
+                    log.warn("Could not schedule quote stream send", e);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    List<CryptoIndexResponse> batch;
+                    boolean sendHeartbeat;
+                    lock.lock();
+                    try {
+                        if (pending.isEmpty() && !heartbeatPending) {
+                            draining.set(false);
+                            return;
+                        }
+                        batch = new ArrayList<>(pending.values());
+                        pending.clear();
+                        sendHeartbeat = heartbeatPending;
+                        heartbeatPending = false;
+                    } finally {
+                        lock.unlock();
+                    }
+
+                    if (!batch.isEmpty()) {
+                        emitter.send(SseEmitter.event().name("quotes").data(batch, MediaType.APPLICATION_JSON));
+                        eventsSent.incrementAndGet();
+                    } else if (sendHeartbeat) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    }
+                }
+            } catch (Exception e) {
+                // Client went away - stop sending to it
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.crypto.tracker.service;
+
+/**
+ * Per-minute limit on Twelve Data calls. Implemented in-process by {@link MinuteLimiter}
+ * and cluster-wide by {@link RedisMinuteLimiter}; pick one with {@code rate-limiter.mode}.
+ */
+public interface RateLimiter {
+
+    /**
+     * Takes one permit if the window has room for it.
+     */
+    boolean allowRequest();
+
+    int getCurrentRequestCount();
+
+    int getRemainingRequests();
+
+    long getSecondsUntilReset();
+
+    int getMaxRequestsPerMinute();
+}
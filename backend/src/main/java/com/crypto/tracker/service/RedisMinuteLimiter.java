@@ -0,0 +1,214 @@
+package com.crypto.tracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cluster-wide sliding-window limiter shared by every replica through Redis.
+ *
+ * <p>Grants live in a sorted set scored by Redis server time, so replica clocks do not matter.
+ * A Lua script prunes the window and claims permits atomically. To save round trips a replica
+ * claims a small lease of permits at once and hands them out locally; permits still unused when
+ * the lease expires are given back to the window. The local lock only covers the lease bookkeeping,
+ * never a Redis round trip.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limiter.mode", havingValue = "redis")
+public class RedisMinuteLimiter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisMinuteLimiter.class);
+
+    private static final int MAX_REQUESTS_PER_MINUTE = 20;
+    private static final long WINDOW_SIZE_MILLIS = 60_000;
+
+    // KEYS[1] = window set, ARGV[1] = limit, ARGV[2] = window ms, ARGV[3..] = members to claim.
+    // Returns {granted, used, millisUntilReset}; the first `granted` members were added.
+    private static final RedisScript<List<Long>> ACQUIRE_SCRIPT = LuaScripts.returningLongs("""
+        local t = redis.call('TIME')
+        local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+        local limit = tonumber(ARGV[1])
+        local window = tonumber(ARGV[2])
+        redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window)
+        local used = redis.call('ZCARD', KEYS[1])
+        local granted = math.max(0, math.min(#ARGV - 2, limit - used))
+        for i = 1, granted do
+            redis.call('ZADD', KEYS[1], now, ARGV[i + 2])
+        end
+        used = used + granted
+        if used > 0 then
+            redis.call('PEXPIRE', KEYS[1], window)
+        end
+        local reset = 0
+        local oldest = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')
+        if oldest[2] then
+            reset = math.max(0, tonumber(oldest[2]) + window - now)
+        end
+        return {granted, used, reset}
+        """);
+
+    @Value("${rate-limiter.redis.key:api:ratelimit:minute}")
+    private String windowKey;
+
+    // Permits claimed per round trip; 1 disables leasing
+    @Value("${rate-limiter.redis.lease-size:2}")
+    private int leaseSize;
+
+    // How long a replica may sit on leased permits before returning them
+    @Value("${rate-limiter.redis.lease-ttl-ms:2000}")
+    private long leaseTtlMs;
+
+    // How long window numbers for /api/meta/limits may be reused without asking Redis
+    @Value("${rate-limiter.redis.status-ttl-ms:1000}")
+    private long statusTtlMs;
+
+    private final StringRedisTemplate redisTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private final Deque<String> leased = new ArrayDeque<>();
+    private long leaseExpiresAt;
+    private long memberSequence;
+
+    private volatile Window lastWindow = new Window(0, 0, 0, 0);
+
+    public RedisMinuteLimiter(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public boolean allowRequest() {
+        long now = System.currentTimeMillis();
+        List<String> expired;
+        List<String> members = new ArrayList<>(leaseSize);
+        lock.lock();
+        try {
+            if (!leased.isEmpty() && leaseExpiresAt > now) {
+                leased.poll();
+                return true;
+            }
+            expired = new ArrayList<>(leased);
+            leased.clear();
+
+            for (int i = 0; i < Math.max(1, leaseSize); i++) {
+                members.add(instanceId + ":" + memberSequence++);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        release(expired);
+        Window window = runScript(members);
+        if (window == null || window.granted() == 0) {
+            return false;  // Rate limit exceeded (or Redis unreachable)
+        }
+
+        // Keep the rest of the lease for the next callers on this replica
+        lock.lock();
+        try {
+            leased.addAll(members.subList(1, window.granted()));
+            leaseExpiresAt = now + leaseTtlMs;
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    @Override
+    public int getCurrentRequestCount() {
+        return currentWindow().used();
+    }
+
+    @Override
+    public int getRemainingRequests() {
+        Window window = currentWindow();
+        lock.lock();
+        try {
+            // Permits leased to this replica are counted as used in Redis but can still be handed out here
+            int leasedHere = leaseExpiresAt > System.currentTimeMillis() ? leased.size() : 0;
+            return Math.max(0, MAX_REQUESTS_PER_MINUTE - window.used()) + leasedHere;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getSecondsUntilReset() {
+        return (currentWindow().millisUntilReset() + 999) / 1000;
+    }
+
+    @Override
+    public int getMaxRequestsPerMinute() {
+        return MAX_REQUESTS_PER_MINUTE;
+    }
+
+    /**
+     * Window state as of the last script run, refreshed when older than the status TTL.
+     */
+    private Window currentWindow() {
+        if (System.currentTimeMillis() - lastWindow.readAt() >= statusTtlMs) {
+            // Claiming nothing just prunes and reads the window
+            runScript(List.of());
+        }
+        return lastWindow;
+    }
+
+    private Window runScript(List<String> members) {
+        Object[] args = new Object[members.size() + 2];
+        args[0] = String.valueOf(MAX_REQUESTS_PER_MINUTE);
+        args[1] = String.valueOf(WINDOW_SIZE_MILLIS);
+        for (int i = 0; i < members.size(); i++) {
+            args[i + 2] = members.get(i);
+        }
+
+        try {
+            List<Long> result = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(windowKey), args);
+            if (result == null || result.size() < 3) {
+                return null;
+            }
+            lastWindow = new Window(
+                result.get(0).intValue(),
+                result.get(1).intValue(),
+                result.get(2),
+                System.currentTimeMillis()
+            );
+            return lastWindow;
+        } catch (Exception e) {
+            // Fail closed: going over the upstream limit gets the API key throttled for everyone
+            log.warn("Redis rate limiter unavailable, rejecting request: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Gives expired, unused leased permits back so other replicas can use them.
+     */
+    private void release(List<String> expired) {
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.opsForZSet().remove(windowKey, expired.toArray());
+        } catch (Exception e) {
+            // They drop out of the window within a minute anyway
+            log.warn("Could not release leased rate limit permits: {}", e.getMessage());
+        }
+    }
+
+    private record Window(int granted, int used, long millisUntilReset, long readAt) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.crypto.tracker.service;
+
+import com.crypto.tracker.cache.TwoTierCache;
+import com.crypto.tracker.cache.TwoTierCacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.crypto.tracker.config.RedisCacheConfig.CRYPTO_HISTORY_CACHE;
+import static com.crypto.tracker.config.RedisCacheConfig.PRICE_LIST_CACHE;
+
+/**
+ * Refreshes popular cache entries shortly before they go stale, so readers keep hitting fresh data.
+ * Each tick spends at most what the {@link UpstreamScheduler} would admit at background priority right now,
+ * which keeps a minute reserve for user requests and paces the monthly budget. Expiring symbols are refreshed
+ * together in batched calls.
+ */
+@Component
+@ConditionalOnProperty(name = "refresh.ahead.enabled", havingValue = "true", matchIfMissing = true)
+public class RefreshAheadScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshAheadScheduler.class);
+
+    private static final String LOCK_PREFIX = "refresh:lock:";
+
+    @Value("${refresh.ahead.lead-seconds:30}")
+    private long leadSeconds;
+
+    private final TwelveDataService twelveDataService;
+    private final AccessTracker accessTracker;
+    private final UpstreamScheduler upstreamScheduler;
+    private final StringRedisTemplate redisTemplate;
+    private final TwoTierCacheManager cacheManager;
+    private final BatchPlanner batchPlanner;
+
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong skippedForBudget = new AtomicLong();
+
+    public RefreshAheadScheduler(TwelveDataService twelveDataService,
+                                 AccessTracker accessTracker,
+                                 UpstreamScheduler upstreamScheduler,
+                                 StringRedisTemplate redisTemplate,
+                                 TwoTierCacheManager cacheManager,
+                                 BatchPlanner batchPlanner) {
+        this.twelveDataService = twelveDataService;
+        this.accessTracker = accessTracker;
+        this.upstreamScheduler = upstreamScheduler;
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.batchPlanner = batchPlanner;
+    }
+
+    @Scheduled(fixedDelayString = "${refresh.ahead.interval-ms:10000}",
+               initialDelayString = "${refresh.ahead.interval-ms:10000}")
+    public void refreshExpiringEntries() {
+        Map<String, Double> scores = accessTracker.snapshotAndDecay();
+        if (scores.isEmpty()) {
+            return;
+        }
+
+        // Most frequently read keys first
+        List<String> candidates = new ArrayList<>(scores.keySet());
+        candidates.sort((a, b) -> Double.compare(scores.get(b), scores.get(a)));
+
+        // Collect expiring symbols per cache while the batched calls they need still fit the allowance
+        int allowance = upstreamScheduler.allowance(UpstreamScheduler.Priority.BACKGROUND);
+        List<String> quoteSymbols = new ArrayList<>();
+        List<String> historySymbols = new ArrayList<>();
+        for (String key : candidates) {
+            String[] parts = key.split("::", 2);
+            if (parts.length != 2 || !isExpiringSoon(parts[0], parts[1])) {
+                continue;
+            }
+
+            boolean quote = parts[0].equals(PRICE_LIST_CACHE);
+            if (!quote && !parts[0].equals(CRYPTO_HISTORY_CACHE)) {
+                continue;
+            }
+
+            int calls = batchPlanner.callsFor(quoteSymbols.size() + (quote ? 1 : 0),
+                                              historySymbols.size() + (quote ? 0 : 1));
+            if (calls > allowance) {
+                skippedForBudget.incrementAndGet();
+                continue;
+            }
+
+            // Only one replica refreshes a given key per lead window
+            Boolean locked = redisTemplate.opsForValue()
+                    .setIfAbsent(LOCK_PREFIX + key, "1", Duration.ofSeconds(leadSeconds));
+            if (!Boolean.TRUE.equals(locked)) {
+                continue;
+            }
+
+            (quote ? quoteSymbols : historySymbols).add(parts[1]);
+        }
+
+        if (!quoteSymbols.isEmpty()) {
+            refresh(PRICE_LIST_CACHE, quoteSymbols, () -> twelveDataService.refreshQuotes(quoteSymbols));
+        }
+        if (!historySymbols.isEmpty()) {
+            refresh(CRYPTO_HISTORY_CACHE, historySymbols,
+                    () -> twelveDataService.refreshHistoricalPrices(historySymbols));
+        }
+    }
+
+    private boolean isExpiringSoon(String cacheName, String key) {
+        if (!(cacheManager.getCache(cacheName) instanceof TwoTierCache cache)) {
+            return false;
+        }
+
+        // Missing entries of popular keys are fetched too; present ones once they near their soft TTL
+        Long untilStale = cache.getMillisUntilStale(key);
+        return untilStale == null || untilStale <= leadSeconds * 1000;
+    }
+
+    private void refresh(String cacheName, List<String> symbols, Callable<Map<String, ?>> batchRefresh) {
+        try {
+            Map<String, ?> refreshed = batchRefresh.call();
+            refreshes.addAndGet(refreshed.size());
+            failures.addAndGet(symbols.size() - refreshed.size());
+            log.info("Refreshed {} of {} {} entries ahead of expiry", refreshed.size(), symbols.size(), cacheName);
+
+        } catch (Exception e) {
+            failures.addAndGet(symbols.size());
+            log.warn("Refresh-ahead of {} {} entries failed: {}", symbols.size(), cacheName, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("refreshes", refreshes.get());
+        stats.put("failures", failures.get());
+        stats.put("skippedForBudget", skippedForBudget.get());
+        return stats;
+    }
+}
@@ -0,0 +1,69 @@
+package com.crypto.tracker.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deduplicates concurrent upstream fetches for the same key.
+ * The first caller runs the loader; everyone arriving while it is in flight gets a view of the same future.
+ */
+@Component
+public class SingleFlight {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * The first caller starts the loader, later callers get a view of its future. The key is released once the
+     * loader's future completes, also when the loader throws instead of returning one.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String key, Supplier<CompletableFuture<T>> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            // A copy, so a caller cancelling its view does not cancel everyone else's
+            return (CompletableFuture<T>) existing.copy();
+        }
+
+        executions.incrementAndGet();
+        CompletableFuture<T> loaded;
+        try {
+            loaded = loader.get();
+        } catch (Throwable e) {
+            // Errors too: a key left in the map would hang every later caller
+            loaded = CompletableFuture.failedFuture(e);
+        }
+
+        loaded.whenComplete((value, error) -> {
+            inFlight.remove(key, future);
+            if (error != null) {
+                // The loader's own exception rather than the CompletionException wrapper
+                future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                future.complete(value);
+            }
+        });
+        return (CompletableFuture<T>) future.copy();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executions", executions.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+}
@@ -0,0 +1,36 @@
+package com.crypto.tracker.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The symbols this app tracks, configured with {@code symbols.universe} (comma-separated).
+ */
+@Component
+public class SymbolUniverse {
+
+    private final List<String> symbols;
+
+    public SymbolUniverse(@Value("${symbols.universe:SPY,DIA,QQQ,IWM}") String[] symbols) {
+        this.symbols = Arrays.stream(symbols)
+                .map(String::trim)
+                .filter(symbol -> !symbol.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    public List<String> getSymbols() {
+        return symbols;
+    }
+
+    public boolean contains(String symbol) {
+        return symbols.contains(symbol);
+    }
+
+    public int size() {
+        return symbols.size();
+    }
+}
@@ -1,18 +1,44 @@
 package com.crypto.tracker.service;
 
+import com.crypto.tracker.cache.CachedValue;
+import com.crypto.tracker.cache.TwoTierCache;
+import com.crypto.tracker.cache.TwoTierCacheManager;
+import com.crypto.tracker.client.UpstreamClient;
+import com.crypto.tracker.model.BarSeries;
 import com.crypto.tracker.model.CryptoQuote;
 import com.crypto.tracker.model.TimeSeriesResponse;
+import com.crypto.tracker.series.BarAggregator;
+import com.crypto.tracker.series.HistoryInterval;
+import com.crypto.tracker.series.HistoryRange;
+import com.crypto.tracker.service.UpstreamScheduler.Priority;
+import com.crypto.tracker.store.BarStore;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import static com.crypto.tracker.config.RedisCacheConfig.CRYPTO_HISTORY_CACHE;
 import static com.crypto.tracker.config.RedisCacheConfig.PRICE_LIST_CACHE;
@@ -28,128 +54,752 @@ public class TwelveDataService {
     @Value("${twelve.data.api.base-url}")
     private String baseUrl;
 
-    private final RestTemplate restTemplate;
-    private final MinuteLimiter minuteLimiter;
+    private final UpstreamClient upstreamClient;
+    private final RateLimiter minuteLimiter;
     private final MonthlyBudget monthlyBudget;
     private final ObjectMapper objectMapper;
+    private final QuoteResponseParser quoteParser;
+    private final SingleFlight singleFlight;
+    private final SymbolUniverse symbolUniverse;
+    private final BatchPlanner batchPlanner;
+    private final TwoTierCacheManager cacheManager;
+    private final Executor batchExecutor;
+    private final BarStore barStore;
+    private final AdaptiveTtlPolicy ttlPolicy;
 
-    private static final String[] INDEX_SYMBOLS = {
-        "SPY",
-        "DIA",
-        "QQQ",
-        "IWM"
-    };
+    private final UpstreamScheduler upstreamScheduler;
+
+    public static final String HISTORY_INTERVAL = "1day";
+
+    // Bars returned by getHistoricalPrices
+    private static final int HISTORY_BARS = 30;
+
+    private static final long DAY = 86_400;
+
+    // Twelve Data's largest outputsize; with start_date set it only caps how far a sync can catch up
+    private static final int MAX_OUTPUT_SIZE = 5000;
+
+    // Newest intraday bars shared through the cache after a sync: over a day of 1min bars
+    private static final int SHARED_SYNC_BARS = 500;
+
+    // Bars requested the first time a symbol is seen; later syncs ask only for newer bars
+    @Value("${history.store.initial-bars:365}")
+    private int initialHistoryBars;
+
+    // Symbols with a background quote or history reload in flight, and symbol|interval intraday resyncs
+    private final Set<String> refreshingQuotes = ConcurrentHashMap.newKeySet();
+    private final Set<String> refreshingHistory = ConcurrentHashMap.newKeySet();
+    private final Set<String> refreshingIntraday = ConcurrentHashMap.newKeySet();
+
+    // Symbols Twelve Data rejected, and until when we stop asking for them (epoch millis)
+    private final Map<String, Long> rejectedSymbols = new ConcurrentHashMap<>();
 
     public TwelveDataService(
-            MinuteLimiter minuteLimiter,
+            RateLimiter minuteLimiter,
             MonthlyBudget monthlyBudget,
-            ObjectMapper objectMapper) {
-        this.restTemplate = new RestTemplate();
+            ObjectMapper objectMapper,
+            SingleFlight singleFlight,
+            SymbolUniverse symbolUniverse,
+            BatchPlanner batchPlanner,
+            TwoTierCacheManager cacheManager,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor batchExecutor,
+            BarStore barStore,
+            UpstreamClient upstreamClient,
+            AdaptiveTtlPolicy ttlPolicy,
+            UpstreamScheduler upstreamScheduler) {
+        this.upstreamClient = upstreamClient;
         this.minuteLimiter = minuteLimiter;
         this.monthlyBudget = monthlyBudget;
         this.objectMapper = objectMapper;
+        this.quoteParser = new QuoteResponseParser(objectMapper.getFactory());
+        this.singleFlight = singleFlight;
+        this.symbolUniverse = symbolUniverse;
+        this.batchPlanner = batchPlanner;
+        this.cacheManager = cacheManager;
+        this.batchExecutor = batchExecutor;
+        this.barStore = barStore;
+        this.ttlPolicy = ttlPolicy;
+        this.upstreamScheduler = upstreamScheduler;
     }
 
-    @Cacheable(value = PRICE_LIST_CACHE, key = "'all-quotes'")
+    /**
+     * Quotes for every symbol in the configured universe.
+     */
     public Map<String, CryptoQuote> getCurrentPrices() throws Exception {
-        log.info("Fetching current stock index prices from Twelve Data API");
+        return await(getCurrentPricesAsync());
+    }
+
+    /**
+     * Non-blocking {@link #getCurrentPrices()}.
+     */
+    public CompletableFuture<Map<String, CryptoQuote>> getCurrentPricesAsync() {
+        return getQuotesAsync(symbolUniverse.getSymbols());
+    }
 
-        // Check rate limits before making API call
-        if (!minuteLimiter.allowRequest()) {
-            long waitSeconds = minuteLimiter.getSecondsUntilReset();
-            throw new Exception("Rate limit exceeded. Try again in " + waitSeconds + " seconds.");
+    /**
+     * Quotes for the given symbols, cached per symbol. Stale quotes are returned right away and reloaded in
+     * the background; missing ones are fetched in batches first. Symbols that could not be fetched are left
+     * out, unless nothing at all is available.
+     *
+     * <p>The cache is read on the calling thread; if every quote is cached the future is already complete,
+     * otherwise it completes when the missing batches come back.
+     */
+    public CompletableFuture<Map<String, CryptoQuote>> getQuotesAsync(Collection<String> symbols) {
+        TwoTierCache cache = quoteCache();
+
+        Map<String, CryptoQuote> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (String symbol : symbols) {
+            CachedValue cached = cache.getEntry(symbol);
+            if (cached == null) {
+                // An unknown symbol would otherwise cost an upstream call on every request
+                Long rejectedUntil = rejectedSymbols.get(symbol);
+                if (rejectedUntil == null || rejectedUntil <= now) {
+                    missing.add(symbol);
+                }
+                continue;
+            }
+
+            found.put(symbol, (CryptoQuote) cached.getValue());
+            if (cache.isStale(cached)) {
+                stale.add(symbol);
+            }
         }
 
-        if (!monthlyBudget.hasRemainingBudget()) {
-            throw new Exception("Monthly API budget exhausted (" + monthlyBudget.getCurrentUsage() + "/500)");
+        if (!stale.isEmpty()) {
+            refreshQuotesInBackground(stale);
         }
 
-        // Build the API URL with all symbols
-        String symbolsParam = String.join(",", INDEX_SYMBOLS);
-        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/quote")
-                .queryParam("symbol", symbolsParam)
-                .queryParam("apikey", apiKey)
-                .toUriString();
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(inOrder(symbols, found));
+        }
 
-        try {
-            // Call the API
-            String response = restTemplate.getForObject(url, String.class);
+        return fetchQuotesAsync(missing, Priority.INTERACTIVE).handle((fetched, error) -> {
+            if (error != null) {
+                if (found.isEmpty()) {
+                    throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                }
+                log.warn("Returning {} of {} quotes: {}", found.size(), symbols.size(), causeOf(error).getMessage());
+            } else {
+                found.putAll(fetched);
+            }
+            return inOrder(symbols, found);
+        });
+    }
 
-            // Increment usage counter
-            monthlyBudget.incrementUsage();
+    /**
+     * Keeps the caller's order, leaving out symbols without a quote.
+     */
+    private static Map<String, CryptoQuote> inOrder(Collection<String> symbols, Map<String, CryptoQuote> found) {
+        Map<String, CryptoQuote> result = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            CryptoQuote quote = found.get(symbol);
+            if (quote != null) {
+                result.put(symbol, quote);
+            }
+        }
+        return result;
+    }
 
-            log.info("Successfully fetched prices. Monthly usage: {}/500, Minute remaining: {}/20",
-                    monthlyBudget.getCurrentUsage(),
-                    minuteLimiter.getRemainingRequests());
+    /**
+     * Fetches fresh quotes and overwrites their cache entries. Used by the refresh-ahead scheduler.
+     */
+    public Map<String, CryptoQuote> refreshQuotes(Collection<String> symbols) throws Exception {
+        return await(fetchQuotesAsync(symbols, Priority.BACKGROUND));
+    }
 
-            // Parse the response
-            return parseQuoteResponse(response);
+    private void refreshQuotesInBackground(List<String> stale) {
+        refreshInBackground("quotes", stale, refreshingQuotes, symbols -> fetchQuotesAsync(symbols, Priority.PREFETCH));
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to fetch prices from Twelve Data API", e);
-            throw new Exception("API call failed: " + e.getMessage(), e);
+    /**
+     * Reloads stale entries at prefetch priority, leaving out symbols whose reload is already running.
+     * If the reload fails, the stale entries keep being served until the hard TTL removes them.
+     */
+    private void refreshInBackground(String what, List<String> stale, Set<String> refreshing,
+                                     Function<List<String>, CompletableFuture<?>> reload) {
+        List<String> symbols = new ArrayList<>();
+        for (String symbol : stale) {
+            if (refreshing.add(symbol)) {
+                symbols.add(symbol);
+            }
+        }
+        if (symbols.isEmpty()) {
+            return;
         }
+
+        reload.apply(symbols).whenComplete((reloaded, error) -> {
+            refreshing.removeAll(symbols);
+            if (error != null) {
+                log.warn("Background refresh of {} for {} symbols failed: {}", what, symbols.size(),
+                        causeOf(error).getMessage());
+            }
+        });
     }
 
-    @SuppressWarnings("unchecked")
-    private Map<String, CryptoQuote> parseQuoteResponse(String response) throws Exception {
-        Map<String, CryptoQuote> result = new HashMap<>();
+    /**
+     * Fetches quotes in parallel batches and caches each symbol. Fails only if no batch succeeded.
+     */
+    private CompletableFuture<Map<String, CryptoQuote>> fetchQuotesAsync(Collection<String> symbols,
+                                                                         Priority priority) {
+        return runBatches(batchPlanner.planQuoteBatches(symbols), "quotes:", batch ->
+            fetchQuoteBatch(batch, priority).thenApply(quotes -> {
+                TwoTierCache cache = quoteCache();
+                quotes.forEach(cache::put);
+                return quotes;
+            }));
+    }
 
-        // Parse as generic map first
-        Map<String, Object> rawData = objectMapper.readValue(response, Map.class);
+    private CompletableFuture<Map<String, CryptoQuote>> fetchQuoteBatch(List<String> batch, Priority priority) {
+        log.info("Fetching current prices for {} symbols from Twelve Data API", batch.size());
 
-        // The response contains one entry per symbol
-        for (Map.Entry<String, Object> entry : rawData.entrySet()) {
-            String symbol = entry.getKey();
+        URI uri = UriComponentsBuilder.fromHttpUrl(baseUrl + "/quote")
+                .queryParam("symbol", String.join(",", batch))
+                .queryParam("apikey", apiKey)
+                .encode()
+                .build()
+                .toUri();
+
+        // Quotes are parsed straight off the response body
+        return upstreamScheduler.submit(priority, "prices for " + batch.size() + " symbols", () ->
+                upstreamClient.getAsync("quote", uri, body -> quoteParser.parse(body, batch)))
+            .thenApplyAsync(response -> {
+                log.info("Successfully fetched prices for {} symbols. Monthly usage: {}/500, Minute remaining: {}/20",
+                        batch.size(),
+                        monthlyBudget.getCurrentUsage(),
+                        minuteLimiter.getRemainingRequests());
+                try {
+                    return collectQuotes(response, batch);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, batchExecutor);
+    }
 
-            // Convert the nested map to CryptoQuote object
-            CryptoQuote quote = objectMapper.convertValue(entry.getValue(), CryptoQuote.class);
-            result.put(symbol, quote);
+    private Map<String, CryptoQuote> collectQuotes(QuoteResponseParser.Result response, List<String> batch)
+            throws Exception {
+        // A single-symbol request either is the quote or failed as a whole
+        if (batch.size() == 1) {
+            QuoteResponseParser.QuoteError error = response.errors().get(batch.get(0));
+            if (error != null) {
+                if (!error.isUnknownSymbol()) {
+                    throw new Exception("Twelve Data error: " + error.message());
+                }
+                rejectSymbol(batch.get(0), error.message());
+            }
+            return response.quotes();
         }
 
+        if (response.error() != null) {
+            throw new Exception("Twelve Data error: " + response.error().message());
+        }
+
+        response.errors().forEach((symbol, error) -> rejectSymbol(symbol, error.message()));
+        return response.quotes();
+    }
+
+    /**
+     * The last 30 daily bars for the symbol, or null if Twelve Data has none. Cached in column form, so cache hits
+     * are served without parsing or per-bar objects. A cached (even stale) series completes right away; stale
+     * ones are reloaded in the background.
+     */
+    public CompletableFuture<BarSeries> getHistoricalPricesAsync(String symbol) {
+        TwoTierCache cache = historyCache();
+        CachedValue cached = cache.getEntry(symbol);
+        if (cached != null) {
+            if (cache.isStale(cached)) {
+                refreshHistoryInBackground(List.of(symbol));
+            }
+            return CompletableFuture.completedFuture((BarSeries) cached.getValue());
+        }
+
+        return loadHistory(symbol);
+    }
+
+    /**
+     * Fetches and caches one symbol's series. The cache is written inside the flight, before its key is released,
+     * so a caller arriving just after the fetch finds the series instead of starting another one.
+     */
+    private CompletableFuture<BarSeries> loadHistory(String symbol) {
+        TwoTierCache cache = historyCache();
+        return singleFlight.executeAsync("history:" + symbol, () -> {
+            // Stored by a flight that finished after this caller missed the cache
+            CachedValue cached = cache.getEntry(symbol);
+            if (cached != null) {
+                return CompletableFuture.completedFuture((BarSeries) cached.getValue());
+            }
+            return fetchHistoryBatch(List.of(symbol), Priority.INTERACTIVE).thenApply(series -> {
+                BarSeries bars = series.get(symbol);
+                cache.put(symbol, bars);
+                return bars;
+            });
+        });
+    }
+
+    /**
+     * History for several symbols, one future per symbol in the caller's order. Cached series are read in one
+     * multi-get and complete right away; missing symbols are fetched in batched calls and complete with their
+     * batch. A symbol's future holds null if Twelve Data has no data for it.
+     */
+    public Map<String, CompletableFuture<BarSeries>> getHistoricalPricesAsync(Collection<String> symbols) {
+        TwoTierCache cache = historyCache();
+        Map<Object, CachedValue> cached = cache.getEntries(symbols);
+
+        Map<String, CompletableFuture<BarSeries>> result = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+        for (String symbol : symbols) {
+            CachedValue entry = cached.get(symbol);
+            if (entry == null) {
+                missing.add(symbol);
+                continue;
+            }
+
+            result.put(symbol, CompletableFuture.completedFuture((BarSeries) entry.getValue()));
+            if (cache.isStale(entry)) {
+                stale.add(symbol);
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            refreshHistoryInBackground(stale);
+        }
+
+        for (List<String> batch : batchPlanner.planHistoryBatches(missing)) {
+            CompletableFuture<Map<String, BarSeries>> fetched = singleFlight.executeAsync(
+                    "history:" + String.join(",", batch),
+                    () -> fetchHistoryBatch(batch, Priority.INTERACTIVE).thenApply(series -> {
+                        series.forEach(cache::put);
+                        return series;
+                    }));
+            for (String symbol : batch) {
+                result.put(symbol, fetched.thenApply(series -> series.get(symbol)));
+            }
+        }
         return result;
     }
 
-    @Cacheable(value = CRYPTO_HISTORY_CACHE, key = "#symbol")
-    public TimeSeriesResponse getHistoricalPrices(String symbol) throws Exception {
-        log.info("Fetching 30-day history for index {} from Twelve Data API", symbol);
+    private void refreshHistoryInBackground(List<String> stale) {
+        refreshInBackground("history", stale, refreshingHistory,
+            symbols -> refreshHistoryAsync(symbols, Priority.PREFETCH));
+    }
+
+    /**
+     * Fetches fresh history for the symbols in batched calls and overwrites their cache entries.
+     * Used by the refresh-ahead scheduler.
+     */
+    public Map<String, BarSeries> refreshHistoricalPrices(Collection<String> symbols) throws Exception {
+        return await(refreshHistoryAsync(symbols, Priority.BACKGROUND));
+    }
+
+    private CompletableFuture<Map<String, BarSeries>> refreshHistoryAsync(Collection<String> symbols,
+                                                                          Priority priority) {
+        return runBatches(batchPlanner.planHistoryBatches(symbols), "history:", batch ->
+            fetchHistoryBatch(batch, priority).thenApply(series -> {
+                TwoTierCache cache = historyCache();
+                series.forEach(cache::put);
+                return series;
+            }));
+    }
 
-        // Check rate limits
-        if (!minuteLimiter.allowRequest()) {
-            long waitSeconds = minuteLimiter.getSecondsUntilReset();
-            throw new Exception("Rate limit exceeded. Try again in " + waitSeconds + " seconds.");
+    /**
+     * Bars of any supported interval, optionally limited to a range back from the newest bar. Intervals that
+     * are not stored are aggregated from their base interval; daily bases sync through the cached daily path
+     * once the store holds them, intraday bases as described at {@link #syncIntraday}.
+     * Without a range the last 30 bars are returned. Completes with null if nothing is stored for the symbol.
+     */
+    public CompletableFuture<BarSeries> getHistoryAsync(String symbol, HistoryInterval interval, HistoryRange range) {
+        HistoryInterval base = interval.base();
+        CompletableFuture<?> synced;
+        if (base != HistoryInterval.ONE_DAY) {
+            synced = syncIntraday(symbol, base);
+        } else if (hasStoredBars(symbol, base.code())) {
+            synced = getHistoricalPricesAsync(symbol);
+        } else {
+            synced = syncDaily(symbol);
         }
 
-        if (!monthlyBudget.hasRemainingBudget()) {
-            throw new Exception("Monthly API budget exhausted (" + monthlyBudget.getCurrentUsage() + "/500)");
+        return synced
+            .handle((ignored, error) -> {
+                if (error != null) {
+                    // Stored bars are still worth serving; with none, the sync failure is the answer
+                    log.warn("Could not sync {} history for {}: {}", base.code(), symbol, causeOf(error).getMessage());
+                }
+                BarSeries bars;
+                try {
+                    bars = readHistory(symbol, interval, range);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+                if (bars == null && error != null) {
+                    throw error instanceof CompletionException ce ? ce : new CompletionException(error);
+                }
+                return bars;
+            });
+    }
+
+    /**
+     * Brings an intraday base up to date. Every replica's last sync is shared through the history cache under
+     * {@code SYMBOL|interval}, holding its newest bars (none if it failed) and fresh for
+     * {@link AdaptiveTtlPolicy#intradaySyncAge}; until then replicas catch up from those bars instead of calling
+     * Twelve Data. Stored bars are served while a resync runs in the background at prefetch priority, within the
+     * daily share; only an empty store waits for an interactive sync.
+     */
+    private CompletableFuture<?> syncIntraday(String symbol, HistoryInterval base) {
+        String key = symbol + "|" + base.code();
+        TwoTierCache cache = historyCache();
+        CachedValue synced = cache.getEntry(key);
+        boolean stored = hasStoredBars(symbol, base.code());
+        if (synced != null && !cache.isStale(synced)
+                && catchUp(symbol, base, (BarSeries) synced.getValue(), stored)) {
+            return CompletableFuture.completedFuture(null);
         }
 
-        // Build the API URL
-        String url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/time_series")
-                .queryParam("symbol", symbol)
-                .queryParam("interval", "1day")
-                .queryParam("outputsize", "30")  // Last 30 days
-                .queryParam("apikey", apiKey)
-                .toUriString();
+        if (!stored) {
+            return resync(symbol, base, Priority.INTERACTIVE);
+        }
+        refreshInBackground(base.code() + " bars", List.of(key), refreshingIntraday,
+            keys -> resync(symbol, base, Priority.PREFETCH));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Appends the bars another replica shared after its sync. Returns false if they cannot bring the store up to
+     * date: it is empty and needs the full history, or its newest bar is older than all of them.
+     */
+    private boolean catchUp(String symbol, HistoryInterval base, BarSeries shared, boolean stored) {
+        if (shared.size() == 0) {
+            // The last sync failed or found nothing; either way nobody asks again before it goes stale
+            return true;
+        }
+        if (!stored) {
+            return false;
+        }
+
+        long[] epochs = shared.getEpochs();
+        try {
+            Long last = barStore.lastEpoch(symbol, base.code());
+            if (last == null || last < epochs[0]) {
+                return false;
+            }
+            if (last < epochs[epochs.length - 1]) {
+                barStore.append(symbol, base.code(), shared);
+            }
+            return true;
+        } catch (IOException e) {
+            // Same as a store nothing can be appended to; the read reports the failure
+            return true;
+        }
+    }
 
+    /**
+     * Syncs an intraday base and shares the outcome: its newest bars for as long as
+     * {@link AdaptiveTtlPolicy#intradaySyncAge} keeps them current, or no bars for one bar age after a failure.
+     */
+    private CompletableFuture<Map<String, BarSeries>> resync(String symbol, HistoryInterval base, Priority priority) {
+        String key = symbol + "|" + base.code();
+        return singleFlight.executeAsync("sync:" + key,
+            () -> syncHistory(List.of(symbol), base.code(), MAX_OUTPUT_SIZE, priority)
+                .handle((fetched, error) -> {
+                    Duration barAge = Duration.ofMillis(base.maxSyncAgeMillis());
+                    if (error != null) {
+                        // Failures can be brief, so they are retried sooner than a closed market would allow
+                        historyCache().put(key, BarSeries.fromValues(List.of()), barAge);
+                        throw error instanceof CompletionException ce ? ce : new CompletionException(error);
+                    }
+                    BarSeries shared = readBack(symbol, base.code(), SHARED_SYNC_BARS, fetched.get(symbol));
+                    historyCache().put(key, shared != null ? shared : BarSeries.fromValues(List.of()),
+                        ttlPolicy.intradaySyncAge(symbol, barAge));
+                    return fetched;
+                }));
+    }
+
+    /**
+     * Fills an empty daily store, e.g. on a new replica whose peers already cached the symbol. The cached series
+     * holds only the last 30 bars, so the full initial history is fetched instead; the cache is refreshed with it.
+     */
+    private CompletableFuture<BarSeries> syncDaily(String symbol) {
+        TwoTierCache cache = historyCache();
+        return singleFlight.executeAsync("sync:" + symbol + "|" + HISTORY_INTERVAL,
+            () -> fetchHistoryBatch(List.of(symbol), Priority.INTERACTIVE).thenApply(series -> {
+                BarSeries bars = series.get(symbol);
+                if (bars != null) {
+                    cache.put(symbol, bars);
+                }
+                return bars;
+            }));
+    }
+
+    private boolean hasStoredBars(String symbol, String interval) {
         try {
-            // Call the API
-            TimeSeriesResponse response = restTemplate.getForObject(url, TimeSeriesResponse.class);
+            return barStore.lastEpoch(symbol, interval) != null;
+        } catch (IOException e) {
+            // Syncing could not fill it either; the read reports the failure
+            return true;
+        }
+    }
 
-            // Increment usage counter
-            monthlyBudget.incrementUsage();
+    private BarSeries readHistory(String symbol, HistoryInterval interval, HistoryRange range) throws IOException {
+        String baseCode = interval.base().code();
+        Long newest = barStore.lastEpoch(symbol, baseCode);
+        if (newest == null) {
+            return null;
+        }
 
-            log.info("Successfully fetched history for {}. Monthly usage: {}/500, Minute remaining: {}/20",
-                    symbol,
-                    monthlyBudget.getCurrentUsage(),
-                    minuteLimiter.getRemainingRequests());
+        long from = range != null ? range.startEpoch(newest) : Long.MIN_VALUE;
+        BarSeries bars = range != null
+                ? barStore.readRange(symbol, baseCode, from, Long.MAX_VALUE)
+                // One bar extra so the oldest aggregated bar is complete
+                : barStore.readLast(symbol, baseCode, (HISTORY_BARS + 1) * interval.basePerBar());
+
+        if (interval.isIntraday() && !interval.isBase() && bars.size() > 0) {
+            // Buckets are anchored at each day's first bar, so the slice is widened to start with its first day
+            long[] epochs = bars.getEpochs();
+            long dayStart = Math.floorDiv(epochs[0], DAY) * DAY;
+            bars = barStore.readRange(symbol, baseCode, dayStart, epochs[epochs.length - 1] + 1);
+        }
 
-            return response;
+        BarSeries aggregated = BarAggregator.aggregate(bars, interval);
+        return range != null ? since(aggregated, from, interval) : aggregated.last(HISTORY_BARS);
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to fetch historical data for {}", symbol, e);
-            throw new Exception("API call failed: " + e.getMessage(), e);
+    /**
+     * The aggregated bars from the one that holds {@code from}; earlier ones only come from widening the slice.
+     */
+    private static BarSeries since(BarSeries aggregated, long from, HistoryInterval interval) {
+        long[] epochs = aggregated.getEpochs();
+        int first = 0;
+        while (first < epochs.length && epochs[first] + interval.seconds() <= from) {
+            first++;
         }
+        return aggregated.last(epochs.length - first);
+    }
+
+    private CompletableFuture<Map<String, BarSeries>> fetchHistoryBatch(List<String> batch, Priority priority) {
+        return syncHistory(batch, HISTORY_INTERVAL, initialHistoryBars, priority).thenApply(fetched -> {
+            Map<String, BarSeries> result = new HashMap<>();
+            for (String symbol : batch) {
+                BarSeries series = readBack(symbol, HISTORY_INTERVAL, HISTORY_BARS, fetched.get(symbol));
+                if (series != null && series.size() > 0) {
+                    result.put(symbol, series);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Fetches the batch's bars newer than what the store holds for the interval and appends them.
+     * Completes with the fetched bars per symbol; symbols Twelve Data sent nothing for are left out.
+     */
+    private CompletableFuture<Map<String, BarSeries>> syncHistory(List<String> batch, String interval,
+                                                                  int initialBars, Priority priority) {
+        // Once every symbol in the batch has stored bars, only bars since the oldest of their last bars are needed
+        String syncFrom = syncStartDate(batch, interval);
+
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(baseUrl + "/time_series")
+                .queryParam("symbol", String.join(",", batch))
+                .queryParam("interval", interval)
+                .queryParam("apikey", apiKey);
+        if (syncFrom != null) {
+            log.info("Syncing {} history for {} since {} from Twelve Data API", interval, batch, syncFrom);
+            builder.queryParam("start_date", syncFrom)
+                   .queryParam("outputsize", MAX_OUTPUT_SIZE);
+        } else {
+            log.info("Fetching {} {} bars for {} from Twelve Data API", initialBars, interval, batch);
+            builder.queryParam("outputsize", initialBars);
+        }
+
+        URI uri = builder.encode().build().toUri();
+        return upstreamScheduler.submit(priority, interval + " history for " + batch,
+                () -> upstreamClient.getStringAsync("time_series", uri))
+            .thenApplyAsync(response -> {
+                log.info("Successfully fetched history for {}. Monthly usage: {}/500, Minute remaining: {}/20",
+                        batch,
+                        monthlyBudget.getCurrentUsage(),
+                        minuteLimiter.getRemainingRequests());
+
+                Map<String, TimeSeriesResponse> fetched;
+                try {
+                    fetched = parseTimeSeriesResponse(response, batch);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+
+                Map<String, BarSeries> result = new HashMap<>();
+                for (String symbol : batch) {
+                    TimeSeriesResponse series = fetched.get(symbol);
+                    if (series == null || series.getValues() == null) {
+                        continue;
+                    }
+                    // Cache TTLs follow the trading session in the symbol's exchange timezone
+                    if (series.getMeta() != null) {
+                        ttlPolicy.recordTimezone(symbol, series.getMeta().getExchangeTimezone());
+                    }
+
+                    // Each bar's strings are parsed exactly once, here
+                    BarSeries bars = BarSeries.fromValues(series.getValues());
+                    try {
+                        barStore.append(symbol, interval, bars);
+                    } catch (IOException e) {
+                        log.warn("Bar store unavailable for {}: {}", symbol, e.getMessage());
+                    }
+                    result.put(symbol, bars);
+                }
+                return result;
+            }, batchExecutor);
+    }
+
+    /**
+     * The last {@code n} stored bars of the interval after a sync. Falls back to the fetched bars if the store
+     * cannot be used.
+     */
+    private BarSeries readBack(String symbol, String interval, int n, BarSeries fetchedBars) {
+        try {
+            // An incremental sync with nothing new comes back as an error - the stored bars are still good
+            BarSeries bars = barStore.readLast(symbol, interval, n);
+            return bars.size() > 0 ? bars : fetchedBars;
+
+        } catch (IOException e) {
+            log.warn("Bar store unavailable for {}: {}", symbol, e.getMessage());
+            return fetchedBars != null ? fetchedBars.last(n) : null;
+        }
+    }
+
+    /**
+     * Date of the oldest "newest stored bar" across the batch, or null if any symbol has nothing stored yet.
+     */
+    private String syncStartDate(List<String> batch, String interval) {
+        long oldest = Long.MAX_VALUE;
+        for (String symbol : batch) {
+            try {
+                Long last = barStore.lastEpoch(symbol, interval);
+                if (last == null) {
+                    return null;
+                }
+                oldest = Math.min(oldest, last);
+            } catch (IOException e) {
+                log.warn("Bar store unavailable for {}: {}", symbol, e.getMessage());
+                return null;
+            }
+        }
+        return BarSeries.formatDatetime(oldest, BarSeries.isDateOnly(interval));
+    }
+
+    private Map<String, TimeSeriesResponse> parseTimeSeriesResponse(String response, List<String> batch)
+            throws Exception {
+        Map<String, TimeSeriesResponse> result = new HashMap<>();
+        JsonNode root = objectMapper.readTree(response);
+
+        // A single-symbol response is the series itself; errors are left for the caller to inspect
+        if (batch.size() == 1) {
+            result.put(batch.get(0), objectMapper.treeToValue(root, TimeSeriesResponse.class));
+            return result;
+        }
+
+        failOnErrorResponse(root);
+        Iterator<Map.Entry<String, JsonNode>> entries = root.fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            if (isErrorEntry(entry.getKey(), entry.getValue())) {
+                continue;
+            }
+            result.put(entry.getKey(), objectMapper.treeToValue(entry.getValue(), TimeSeriesResponse.class));
+        }
+
+        return result;
+    }
+
+    /**
+     * Starts all batches at once. Concurrent callers asking for the same batch share one call.
+     * Completes with what the successful batches produced; fails only if all failed.
+     */
+    private <T> CompletableFuture<Map<String, T>> runBatches(List<List<String>> batches, String flightPrefix,
+                                                             BatchFetch<T> fetch) {
+        List<CompletableFuture<Map<String, T>>> futures = new ArrayList<>(batches.size());
+        for (List<String> batch : batches) {
+            futures.add(singleFlight.executeAsync(flightPrefix + String.join(",", batch), () -> fetch.apply(batch)));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).handle((done, ignored) -> {
+            Map<String, T> result = new HashMap<>();
+            Throwable firstFailure = null;
+            for (CompletableFuture<Map<String, T>> future : futures) {
+                try {
+                    result.putAll(future.join());
+                } catch (CompletionException e) {
+                    if (firstFailure == null) {
+                        firstFailure = causeOf(e);
+                    }
+                }
+            }
+
+            if (result.isEmpty() && firstFailure != null) {
+                throw new CompletionException(firstFailure);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Waits for the future and rethrows its failure as the original exception, for the blocking API.
+     */
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The exception behind a CompletionException.
+     */
+    private static Throwable causeOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private void failOnErrorResponse(JsonNode root) throws Exception {
+        if ("error".equals(root.path("status").asText())) {
+            throw new Exception("Twelve Data error: " + root.path("message").asText());
+        }
+    }
+
+    private boolean isErrorEntry(String symbol, JsonNode entry) {
+        if (!"error".equals(entry.path("status").asText())) {
+            return false;
+        }
+        skipSymbol(symbol, entry.path("message").asText());
+        return true;
+    }
+
+    /**
+     * Logs a symbol Twelve Data answered with an error. One bad symbol should not fail the rest of its batch,
+     * so the caller only leaves it out of the result.
+     */
+    private static void skipSymbol(String symbol, String message) {
+        log.warn("Twelve Data returned an error for {}: {}", symbol, message);
+    }
+
+    /**
+     * Skips the symbol and stops requesting its quote for one quote soft TTL.
+     */
+    private void rejectSymbol(String symbol, String message) {
+        skipSymbol(symbol, message);
+        rejectedSymbols.put(symbol, System.currentTimeMillis() + quoteCache().getSoftTtl().toMillis());
+    }
+
+    private TwoTierCache quoteCache() {
+        return (TwoTierCache) cacheManager.getCache(PRICE_LIST_CACHE);
+    }
+
+    private TwoTierCache historyCache() {
+        return (TwoTierCache) cacheManager.getCache(CRYPTO_HISTORY_CACHE);
     }
 
     public Map<String, Object> getUsageStats() {
@@ -159,8 +809,16 @@ public class TwelveDataService {
         stats.put("monthlyRemaining", monthlyBudget.getRemainingBudget());
         stats.put("monthlyPercentage", monthlyBudget.getUsagePercentage());
         stats.put("minuteUsed", minuteLimiter.getCurrentRequestCount());
-        stats.put("minuteLimit", 20);
+        stats.put("minuteLimit", minuteLimiter.getMaxRequestsPerMinute());
         stats.put("minuteRemaining", minuteLimiter.getRemainingRequests());
         return stats;
     }
+
+    /**
+     * One upstream call for a batch of symbols.
+     */
+    @FunctionalInterface
+    private interface BatchFetch<T> {
+        CompletableFuture<Map<String, T>> apply(List<String> batch);
+    }
 }
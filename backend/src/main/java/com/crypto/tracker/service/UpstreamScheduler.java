@@ -0,0 +1,478 @@
+package com.crypto.tracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Spends the per-minute and monthly Twelve Data allowance by priority. Calls wait in one FIFO queue per
+ * {@link Priority} until they can be admitted, and fail only when their deadline passes first or the month's
+ * budget is gone.
+ *
+ * <p>Interactive calls may use every permit and any budget left. Prefetch and background calls leave
+ * {@code minute-reserve} permits of each minute for users, and only spend an even daily share of what is left of
+ * the month: prefetch up to the whole daily share, background up to {@code background-share} of it.
+ * Interactive spending shrinks the remaining budget, so the share of the following days shrinks with it.
+ */
+@Component
+public class UpstreamScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamScheduler.class);
+
+    /**
+     * Who is waiting for a call, highest priority first.
+     */
+    public enum Priority {
+        // A user request with nothing cached
+        INTERACTIVE,
+        // Reload of a stale entry a user just read
+        PREFETCH,
+        // Refresh-ahead of entries before anyone asks
+        BACKGROUND
+    }
+
+    // Why a call has not been admitted yet; reported as the reason when its deadline passes
+    private enum Block {
+        MINUTE_LIMIT("minute_limit"),
+        DAILY_PACE("daily_pace"),
+        MONTHLY_BUDGET("monthly_budget"),
+        QUEUE_FULL("queue_full");
+
+        final String tag;
+
+        Block(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final RateLimiter minuteLimiter;
+    private final MonthlyBudget monthlyBudget;
+    private final int minuteReserve;
+    private final double backgroundShare;
+    private final int maxQueued;
+    private final Map<Priority, Duration> deadlines = new EnumMap<>(Priority.class);
+
+    // Guards the queues and the daily pace; never held across a limiter or budget call, which may go to Redis
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Priority, ArrayDeque<Ticket<?>>> queues = new EnumMap<>(Priority.class);
+
+    // Only one dispatch admits at a time; a dispatch that finds one running asks it to go round again
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+
+    // Daily pacing, guarded by lock
+    private LocalDate paceDay;
+    private int dailyShare;
+    private final Map<Priority, Integer> spentToday = new EnumMap<>(Priority.class);
+
+    private final Map<Priority, AtomicLong> admitted = new EnumMap<>(Priority.class);
+    private final Map<Priority, AtomicLong> queuedTotal = new EnumMap<>(Priority.class);
+    private final Map<Block, Counter> rejections = new EnumMap<>(Block.class);
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final Counter budgetConsumed;
+
+    public UpstreamScheduler(RateLimiter minuteLimiter,
+                             MonthlyBudget monthlyBudget,
+                             MeterRegistry meterRegistry,
+                             @Value("${upstream.scheduler.minute-reserve:5}") int minuteReserve,
+                             @Value("${upstream.scheduler.background-share:0.5}") double backgroundShare,
+                             @Value("${upstream.scheduler.max-queued:500}") int maxQueued,
+                             @Value("${upstream.scheduler.interactive-deadline-ms:10000}") long interactiveDeadlineMs,
+                             @Value("${upstream.scheduler.prefetch-deadline-ms:60000}") long prefetchDeadlineMs,
+                             @Value("${upstream.scheduler.background-deadline-ms:30000}") long backgroundDeadlineMs) {
+        this.minuteLimiter = minuteLimiter;
+        this.monthlyBudget = monthlyBudget;
+        this.minuteReserve = minuteReserve;
+        this.backgroundShare = backgroundShare;
+        this.maxQueued = maxQueued;
+        deadlines.put(Priority.INTERACTIVE, Duration.ofMillis(interactiveDeadlineMs));
+        deadlines.put(Priority.PREFETCH, Duration.ofMillis(prefetchDeadlineMs));
+        deadlines.put(Priority.BACKGROUND, Duration.ofMillis(backgroundDeadlineMs));
+
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            spentToday.put(priority, 0);
+            admitted.put(priority, new AtomicLong());
+            queuedTotal.put(priority, new AtomicLong());
+            String tag = priority.name().toLowerCase();
+            waitTimers.put(priority, Timer.builder("upstream.scheduler.wait")
+                    .description("Time calls waited for a minute permit or budget")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+        }
+        for (Block block : Block.values()) {
+            rejections.put(block, Counter.builder("twelvedata.calls.rejected")
+                    .description("Upstream calls that could not be admitted before their deadline")
+                    .tag("reason", block.tag)
+                    .register(meterRegistry));
+        }
+        this.budgetConsumed = Counter.builder("twelvedata.budget.consumed")
+                .description("Successful upstream calls, each using one unit of the monthly budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@link #submit(Priority, Duration, String, Supplier)} with the configured deadline for the priority.
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, String description,
+                                           Supplier<CompletableFuture<T>> exchange) {
+        return submit(priority, deadlines.get(priority), description, exchange);
+    }
+
+    /**
+     * Makes one Twelve Data call once a minute permit and a unit of monthly budget can be spent on it, spending
+     * them on higher priorities first. Completes exceptionally if the call is not admitted within
+     * {@code maxWait}, if the month's budget is exhausted, or if the call itself fails (the budget is then
+     * given back).
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Duration maxWait, String description,
+                                           Supplier<CompletableFuture<T>> exchange) {
+        Ticket<T> ticket = new Ticket<>(priority, System.currentTimeMillis() + maxWait.toMillis(), description,
+                exchange);
+
+        boolean full;
+        lock.lock();
+        try {
+            full = queued() >= maxQueued;
+            if (!full) {
+                queues.get(priority).addLast(ticket);
+                queuedTotal.get(priority).incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full) {
+            reject(ticket, Block.QUEUE_FULL);
+        } else {
+            dispatch();
+        }
+        return ticket.result;
+    }
+
+    /**
+     * Calls that could be admitted right now at the priority, ahead of anything already queued. Lets callers
+     * size optional work (refresh-ahead batches) to what would actually run.
+     */
+    public int allowance(Priority priority) {
+        if (!monthlyBudget.hasRemainingBudget()) {
+            return 0;
+        }
+        int remainingBudget = monthlyBudget.getRemainingBudget();
+        int minute = minuteLimiter.getRemainingRequests() - (priority == Priority.INTERACTIVE ? 0 : minuteReserve);
+
+        lock.lock();
+        try {
+            rollPace(remainingBudget);
+            int budget = switch (priority) {
+                case INTERACTIVE -> remainingBudget;
+                case PREFETCH -> paceLeft(Priority.PREFETCH);
+                case BACKGROUND -> paceLeft(Priority.BACKGROUND);
+            };
+
+            int ahead = 0;
+            for (Priority other : Priority.values()) {
+                if (other.ordinal() <= priority.ordinal()) {
+                    ahead += queues.get(other).size();
+                }
+            }
+            return Math.max(0, Math.min(minute, budget) - ahead);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admits whatever queued work the limits allow now. Permits free up as the minute window slides, so this
+     * also runs on a timer while anything is queued.
+     */
+    @Scheduled(fixedDelayString = "${upstream.scheduler.tick-ms:250}")
+    public void dispatch() {
+        dispatchRequested.set(true);
+        while (dispatchRequested.get() && dispatching.compareAndSet(false, true)) {
+            try {
+                dispatchRequested.set(false);
+                admitQueued();
+            } finally {
+                dispatching.set(false);
+            }
+        }
+    }
+
+    /**
+     * One pass over the queues. Only the running dispatch removes tickets, so the head of a queue is still there
+     * once its budget and permit have been claimed outside the lock.
+     */
+    private void admitQueued() {
+        List<Ticket<?>> start = new ArrayList<>();
+        Map<Ticket<?>, Block> failed = new LinkedHashMap<>();
+        int remainingBudget = monthlyBudget.getRemainingBudget();
+
+        lock.lock();
+        try {
+            if (queued() == 0) {
+                return;
+            }
+            rollPace(remainingBudget);
+
+            long now = System.currentTimeMillis();
+            for (ArrayDeque<Ticket<?>> queue : queues.values()) {
+                Iterator<Ticket<?>> it = queue.iterator();
+                while (it.hasNext()) {
+                    Ticket<?> ticket = it.next();
+                    if (ticket.deadline <= now) {
+                        it.remove();
+                        failed.put(ticket, ticket.blockedBy);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        admit:
+        for (Priority priority : Priority.values()) {
+            while (true) {
+                Block block = monthlyBudget.hasRemainingBudget() ? null : Block.MONTHLY_BUDGET;
+                lock.lock();
+                try {
+                    if (queues.get(priority).isEmpty()) {
+                        break;
+                    }
+                    if (block == null && paceLeft(priority) <= 0) {
+                        block = Block.DAILY_PACE;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (block == null) {
+                    block = tryAdmit(priority);
+                }
+
+                lock.lock();
+                try {
+                    ArrayDeque<Ticket<?>> queue = queues.get(priority);
+                    if (block == null) {
+                        spentToday.merge(priority, 1, Integer::sum);
+                        start.add(queue.pollFirst());
+                        continue;
+                    }
+
+                    Block blockedBy = block;
+                    queue.forEach(ticket -> ticket.blockedBy = blockedBy);
+                    if (block == Block.MONTHLY_BUDGET) {
+                        // Nothing queued can run before the month ends
+                        for (ArrayDeque<Ticket<?>> all : queues.values()) {
+                            all.forEach(ticket -> failed.put(ticket, Block.MONTHLY_BUDGET));
+                            all.clear();
+                        }
+                        break admit;
+                    }
+                    if (block == Block.MINUTE_LIMIT) {
+                        // Lower priorities would need a permit too
+                        break admit;
+                    }
+                    // Held back by the daily pace: a lower priority may still fit its own share
+                    break;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        // Futures are completed outside the lock, since their callbacks run inline
+        failed.forEach(this::reject);
+        for (Ticket<?> ticket : start) {
+            run(ticket);
+        }
+    }
+
+    /**
+     * Takes a unit of budget and a minute permit for one call at the priority, or says what is missing. Called
+     * without the lock, since either may need a Redis round trip. The budget is taken first and given back if
+     * the permit turns out to be gone, so a refused call never uses up a permit.
+     */
+    private Block tryAdmit(Priority priority) {
+        int reserve = priority == Priority.INTERACTIVE ? 0 : minuteReserve;
+        if (minuteLimiter.getRemainingRequests() <= reserve) {
+            return Block.MINUTE_LIMIT;
+        }
+        if (!monthlyBudget.tryReserve()) {
+            return Block.MONTHLY_BUDGET;
+        }
+        if (!minuteLimiter.allowRequest()) {
+            monthlyBudget.release();
+            return Block.MINUTE_LIMIT;
+        }
+        return null;
+    }
+
+    /**
+     * Starts a new pacing day when the date has changed. Called with the lock held; the remaining budget is read
+     * by the caller before taking it.
+     */
+    private void rollPace(int remainingBudget) {
+        LocalDate today = LocalDate.now(ZoneId.systemDefault());
+        if (!today.equals(paceDay)) {
+            // Spread the remaining monthly budget evenly over the days left in the month
+            int daysLeft = YearMonth.from(today).lengthOfMonth() - today.getDayOfMonth() + 1;
+            dailyShare = remainingBudget / daysLeft;
+            paceDay = today;
+            spentToday.replaceAll((p, spent) -> 0);
+        }
+    }
+
+    /**
+     * What the priority may still spend today under the daily pace. Called with the lock held.
+     */
+    private int paceLeft(Priority priority) {
+        int background = spentToday.get(Priority.BACKGROUND);
+        return switch (priority) {
+            case INTERACTIVE -> Integer.MAX_VALUE;
+            case PREFETCH -> dailyShare - spentToday.get(Priority.PREFETCH) - background;
+            case BACKGROUND -> (int) Math.floor(dailyShare * backgroundShare) - background;
+        };
+    }
+
+    private <T> void run(Ticket<T> ticket) {
+        admitted.get(ticket.priority).incrementAndGet();
+        waitTimers.get(ticket.priority).record(System.currentTimeMillis() - ticket.enqueuedAt, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<T> call;
+        try {
+            call = ticket.exchange.get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+
+        call.whenComplete((response, error) -> {
+            if (error != null) {
+                // Failed calls are not counted as usage - give the reserved budget back
+                monthlyBudget.release();
+                unspend(ticket.priority);
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error;
+                log.error("Failed to fetch {} from Twelve Data API", ticket.description, cause);
+                ticket.result.completeExceptionally(new Exception("API call failed: " + cause.getMessage(), cause));
+                return;
+            }
+
+            monthlyBudget.incrementUsage();
+            budgetConsumed.increment();
+            ticket.result.complete(response);
+        });
+    }
+
+    private void unspend(Priority priority) {
+        lock.lock();
+        try {
+            spentToday.computeIfPresent(priority, (p, spent) -> Math.max(0, spent - 1));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reject(Ticket<?> ticket, Block block) {
+        rejections.get(block).increment();
+        String message = switch (block) {
+            case MINUTE_LIMIT -> "Rate limit exceeded. Try again in " + minuteLimiter.getSecondsUntilReset()
+                    + " seconds.";
+            case DAILY_PACE -> "Deferred: today's share of the monthly API budget is spent";
+            case MONTHLY_BUDGET -> "Monthly API budget exhausted (" + monthlyBudget.getCurrentUsage() + "/"
+                    + monthlyBudget.getMonthlyLimit() + ")";
+            case QUEUE_FULL -> "Too many upstream calls waiting (" + maxQueued + ")";
+        };
+        log.warn("Not fetching {}: {}", ticket.description, message);
+        ticket.result.completeExceptionally(new Exception(message));
+    }
+
+    private int queued() {
+        int total = 0;
+        for (ArrayDeque<Ticket<?>> queue : queues.values()) {
+            total += queue.size();
+        }
+        return total;
+    }
+
+    /**
+     * Calls of the priority waiting to be admitted.
+     */
+    public int getQueued(Priority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int remainingBudget = monthlyBudget.getRemainingBudget();
+        lock.lock();
+        try {
+            rollPace(remainingBudget);
+            stats.put("dailyShare", dailyShare);
+            for (Priority priority : Priority.values()) {
+                Map<String, Object> perPriority = new LinkedHashMap<>();
+                perPriority.put("queued", queues.get(priority).size());
+                perPriority.put("queuedTotal", queuedTotal.get(priority).get());
+                perPriority.put("admitted", admitted.get(priority).get());
+                perPriority.put("spentToday", spentToday.get(priority));
+                stats.put(priority.name().toLowerCase(), perPriority);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Map<String, Object> rejected = new LinkedHashMap<>();
+        rejections.forEach((block, counter) -> rejected.put(block.tag, (long) counter.count()));
+        stats.put("rejected", rejected);
+        return stats;
+    }
+
+    private static final class Ticket<T> {
+
+        final Priority priority;
+        final long enqueuedAt = System.currentTimeMillis();
+        final long deadline;
+        final String description;
+        final Supplier<CompletableFuture<T>> exchange;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        // Last reason it was held back; guarded by the scheduler lock
+        Block blockedBy = Block.MINUTE_LIMIT;
+
+        Ticket(Priority priority, long deadline, String description, Supplier<CompletableFuture<T>> exchange) {
+            this.priority = priority;
+            this.deadline = deadline;
+            this.description = description;
+            this.exchange = exchange;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.crypto.tracker.store;
+
+import com.crypto.tracker.model.BarSeries;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local, persistent store of OHLCV bars: one memory-mapped {@link MappedBarFile} per symbol and interval.
+ * History only grows at the end, so upstream syncs need to ask for nothing older than the last stored bar.
+ */
+@Component
+public class BarStore {
+
+    private static final Logger log = LoggerFactory.getLogger(BarStore.class);
+
+    private static final String FILE_SUFFIX = ".bars";
+
+    private final Path directory;
+    private final int initialCapacity;
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    public BarStore(@Value("${history.store.dir:data/bars}") String directory,
+                    @Value("${history.store.initial-capacity:512}") int initialCapacity) {
+        this.directory = Paths.get(directory);
+        this.initialCapacity = initialCapacity;
+    }
+
+    /**
+     * Epoch of the newest stored bar, or null if nothing is stored for the symbol and interval.
+     */
+    public Long lastEpoch(String symbol, String interval) throws IOException {
+        Series s = open(symbol, interval);
+        s.lock.lock();
+        try {
+            return s.file.size() > 0 ? s.file.lastEpoch() : null;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds bars newer than the stored ones (replacing the newest stored bar if it comes again).
+     * Returns how many bars were written.
+     */
+    public int append(String symbol, String interval, BarSeries bars) throws IOException {
+        Series s = open(symbol, interval);
+        s.lock.lock();
+        try {
+            return s.file.append(bars);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /**
+     * The newest {@code maxBars} bars, oldest first.
+     */
+    public BarSeries readLast(String symbol, String interval, int maxBars) throws IOException {
+        Series s = open(symbol, interval);
+        s.lock.lock();
+        try {
+            int size = s.file.size();
+            return s.file.read(Math.max(0, size - maxBars), size);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /**
+     * Bars with fromEpoch <= time < toEpoch, oldest first.
+     */
+    public BarSeries readRange(String symbol, String interval, long fromEpoch, long toEpoch) throws IOException {
+        Series s = open(symbol, interval);
+        s.lock.lock();
+        try {
+            return s.file.read(s.file.indexOf(fromEpoch), s.file.indexOf(toEpoch));
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long bars = 0;
+        for (Series s : series.values()) {
+            bars += s.file.size();
+        }
+        stats.put("series", series.size());
+        stats.put("bars", bars);
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Series s : series.values()) {
+            s.lock.lock();
+            try {
+                s.file.close();
+            } catch (IOException e) {
+                log.warn("Could not close bar file for {}", s.key, e);
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        series.clear();
+    }
+
+    private Series open(String symbol, String interval) throws IOException {
+        String key = symbol + "|" + interval;
+        Series s = series.get(key);
+        if (s != null) {
+            return s;
+        }
+
+        Files.createDirectories(directory);
+        // Symbols like BTC/USD are not valid file names as they are
+        String fileName = URLEncoder.encode(symbol, StandardCharsets.UTF_8) + "_" + interval + FILE_SUFFIX;
+        try {
+            return series.computeIfAbsent(key, k -> {
+                try {
+                    return new Series(k, MappedBarFile.open(directory.resolve(fileName), initialCapacity));
+                } catch (IOException e) {
+                    throw new StoreOpenException(e);
+                }
+            });
+        } catch (StoreOpenException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class Series {
+
+        private final String key;
+        private final MappedBarFile file;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Series(String key, MappedBarFile file) {
+            this.key = key;
+            this.file = file;
+        }
+    }
+
+    /**
+     * Carries an IOException out of computeIfAbsent.
+     */
+    private static final class StoreOpenException extends RuntimeException {
+
+        private StoreOpenException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
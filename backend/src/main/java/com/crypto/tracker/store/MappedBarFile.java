@@ -0,0 +1,236 @@
+package com.crypto.tracker.store;
+
+import com.crypto.tracker.model.BarSeries;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One memory-mapped, append-only file of bars, laid out column by column:
+ * a 64-byte header followed by {@code capacity} slots each of epochs, open, high, low, close and volume.
+ *
+ * <p>The bar count in the header is written after the bar itself, so a crash mid-append leaves the file
+ * at its previous state. When full, the file is copied into one of twice the capacity and swapped in.
+ * Not thread-safe; {@link BarStore} serializes access per file.
+ */
+final class MappedBarFile implements Closeable {
+
+    private static final int MAGIC = 0x42415253;  // "BARS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int COUNT_OFFSET = 12;
+
+    // Column order in the file
+    private static final int EPOCH = 0;
+    private static final int OPEN = 1;
+    private static final int HIGH = 2;
+    private static final int LOW = 3;
+    private static final int CLOSE = 4;
+    private static final int VOLUME = 5;
+    private static final int COLUMNS = 6;
+
+    private final Path path;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int count;
+
+    private MappedBarFile(Path path) {
+        this.path = path;
+    }
+
+    static MappedBarFile open(Path path, int initialCapacity) throws IOException {
+        MappedBarFile file = new MappedBarFile(path);
+        if (Files.exists(path) && Files.size(path) >= HEADER_BYTES) {
+            file.map();
+            if (file.buffer.getInt(MAGIC_OFFSET) != MAGIC || file.buffer.getInt(VERSION_OFFSET) != VERSION) {
+                file.close();
+                throw new IOException("Not a bar file (or unsupported version): " + path);
+            }
+        } else {
+            createEmpty(path, initialCapacity);
+            file.map();
+        }
+        return file;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Epoch of the newest bar, or {@link Long#MIN_VALUE} if the file is empty.
+     */
+    long lastEpoch() {
+        return count > 0 ? getLong(EPOCH, count - 1) : Long.MIN_VALUE;
+    }
+
+    /**
+     * Appends the bars newer than the newest stored one. A bar with the same time as the newest stored bar
+     * replaces it, since the current day's (or hour's) bar keeps changing until it closes.
+     * Returns the number of bars written.
+     */
+    int append(BarSeries bars) throws IOException {
+        long[] epochs = bars.getEpochs();
+        int written = 0;
+
+        for (int i = 0; i < bars.size(); i++) {
+            long last = lastEpoch();
+            int index;
+            if (count > 0 && epochs[i] == last) {
+                index = count - 1;
+            } else if (epochs[i] > last) {
+                if (count == capacity) {
+                    grow();
+                }
+                index = count;
+            } else {
+                continue;  // Older than what we have - history never changes
+            }
+
+            putLong(EPOCH, index, epochs[i]);
+            putDouble(OPEN, index, bars.getOpen()[i]);
+            putDouble(HIGH, index, bars.getHigh()[i]);
+            putDouble(LOW, index, bars.getLow()[i]);
+            putDouble(CLOSE, index, bars.getClose()[i]);
+            putLong(VOLUME, index, bars.getVolume()[i]);
+
+            if (index == count) {
+                count++;
+                buffer.putInt(COUNT_OFFSET, count);
+            }
+            written++;
+        }
+
+        if (written > 0) {
+            buffer.force();
+        }
+        return written;
+    }
+
+    /**
+     * Copies out bars [from, to) in column form.
+     */
+    BarSeries read(int from, int to) {
+        int n = Math.max(0, to - from);
+        long[] epochs = new long[n];
+        double[] open = new double[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        long[] volume = new long[n];
+
+        for (int i = 0; i < n; i++) {
+            epochs[i] = getLong(EPOCH, from + i);
+            open[i] = getDouble(OPEN, from + i);
+            high[i] = getDouble(HIGH, from + i);
+            low[i] = getDouble(LOW, from + i);
+            close[i] = getDouble(CLOSE, from + i);
+            volume[i] = getLong(VOLUME, from + i);
+        }
+        return new BarSeries(epochs, open, high, low, close, volume);
+    }
+
+    /**
+     * Index of the first bar at or after the epoch (binary search; epochs are ascending).
+     */
+    int indexOf(long epoch) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getLong(EPOCH, mid) < epoch) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static void createEmpty(Path path, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes(capacity));
+            header.putInt(MAGIC_OFFSET, MAGIC);
+            header.putInt(VERSION_OFFSET, VERSION);
+            header.putInt(CAPACITY_OFFSET, capacity);
+            header.putInt(COUNT_OFFSET, 0);
+            header.force();
+        }
+    }
+
+    private void map() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        capacity = buffer.getInt(CAPACITY_OFFSET);
+        count = buffer.getInt(COUNT_OFFSET);
+    }
+
+    /**
+     * Doubles the capacity. The columns move, so the bars are copied into a new file that replaces this one.
+     */
+    private void grow() throws IOException {
+        int newCapacity = capacity * 2;
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        createEmpty(tmp, newCapacity);
+
+        try (FileChannel target = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer copy = target.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes(newCapacity));
+            for (int column = 0; column < COLUMNS; column++) {
+                for (int i = 0; i < count; i++) {
+                    copy.putLong(offset(column, i, newCapacity), getLong(column, i));
+                }
+            }
+            copy.putInt(COUNT_OFFSET, count);
+            copy.force();
+        }
+
+        close();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map();
+    }
+
+    private static long fileBytes(int capacity) {
+        return HEADER_BYTES + (long) COLUMNS * capacity * Long.BYTES;
+    }
+
+    private static int offset(int column, int index, int capacity) {
+        return HEADER_BYTES + (column * capacity + index) * Long.BYTES;
+    }
+
+    private long getLong(int column, int index) {
+        return buffer.getLong(offset(column, index, capacity));
+    }
+
+    private double getDouble(int column, int index) {
+        return Double.longBitsToDouble(getLong(column, index));
+    }
+
+    private void putLong(int column, int index, long value) {
+        buffer.putLong(offset(column, index, capacity), value);
+    }
+
+    private void putDouble(int column, int index, double value) {
+        putLong(column, index, Double.doubleToRawLongBits(value));
+    }
+}
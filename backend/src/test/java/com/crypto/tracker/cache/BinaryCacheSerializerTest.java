@@ -0,0 +1,166 @@
+package com.crypto.tracker.cache;
+
+import com.crypto.tracker.model.BarSeries;
+import com.crypto.tracker.model.CryptoQuote;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the binary Redis value format.
+ */
+class BinaryCacheSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+
+    private static CryptoQuote quote() {
+        CryptoQuote quote = new CryptoQuote();
+        quote.setSymbol("SPY");
+        quote.setName("SPDR S&P 500 ETF Trust");
+        quote.setExchange("NYSE");
+        quote.setDatetime("2024-01-02");
+        quote.setTimestamp(1704205800L);
+        quote.setClose("472.65000");
+        quote.setPercentChange("-0.56");
+        return quote;
+    }
+
+    private static BarSeries days(int n) {
+        long[] epochs = new long[n];
+        double[] prices = new double[n];
+        long[] volume = new long[n];
+        for (int i = 0; i < n; i++) {
+            epochs[i] = BarSeries.parseDatetime("2024-01-01") + i * 86_400L;
+            prices[i] = 100 + i % 7;
+            volume[i] = 1_000_000 + i;
+        }
+        prices[1] = Double.NaN;
+        volume[1] = -1;
+        return new BarSeries(epochs, prices.clone(), prices.clone(), prices.clone(), prices.clone(), volume);
+    }
+
+    @Test
+    void testQuoteRoundTripsInsideEnvelope() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer(json, 0);
+
+        byte[] bytes = serializer.serialize(new CachedValue(quote(), 1234L));
+        CachedValue back = (CachedValue) serializer.deserialize(bytes);
+
+        assertEquals(1234L, back.getStoredAt());
+        CryptoQuote quote = (CryptoQuote) back.getValue();
+        assertEquals("SPY", quote.getSymbol());
+        assertEquals("SPDR S&P 500 ETF Trust", quote.getName());
+        assertEquals(1704205800L, quote.getTimestamp());
+        assertEquals("472.65000", quote.getClose());
+        assertEquals("-0.56", quote.getPercentChange());
+        assertNull(quote.getOpen());
+        assertTrue(bytes.length < json.serialize(new CachedValue(quote(), 1234L)).length);
+    }
+
+    @Test
+    void testEnvelopeKeepsItsOwnSoftTtl() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer(json, 0);
+
+        CachedValue back = (CachedValue) serializer.deserialize(
+            serializer.serialize(new CachedValue(quote(), 1234L, 900_000L)));
+
+        assertEquals(1234L, back.getStoredAt());
+        assertEquals(900_000L, back.getSoftTtlMillis());
+        assertEquals("SPY", ((CryptoQuote) back.getValue()).getSymbol());
+        assertEquals(0L, ((CachedValue) serializer.deserialize(
+            serializer.serialize(new CachedValue(quote(), 1234L)))).getSoftTtlMillis());
+    }
+
+    @Test
+    void testSeriesRoundTripsWithAndWithoutCompression() {
+        BarSeries bars = days(365);
+        BinaryCacheSerializer plain = new BinaryCacheSerializer(json, 0);
+        BinaryCacheSerializer compressed = new BinaryCacheSerializer(json, 256);
+
+        byte[] plainBytes = plain.serialize(new CachedValue(bars, 1L));
+        byte[] compressedBytes = compressed.serialize(new CachedValue(bars, 1L));
+        assertEquals(0, plainBytes[2]);
+        assertEquals(BinaryCacheSerializer.FLAG_LZ4, compressedBytes[2]);
+        assertTrue(compressedBytes.length < plainBytes.length);
+
+        // Either serializer reads both forms
+        for (byte[] bytes : List.of(plainBytes, compressedBytes)) {
+            BarSeries back = (BarSeries) ((CachedValue) plain.deserialize(bytes)).getValue();
+            assertArrayEquals(bars.getEpochs(), back.getEpochs());
+            assertArrayEquals(bars.getOpen(), back.getOpen());  // NaN included
+            assertArrayEquals(bars.getClose(), back.getClose());
+            assertArrayEquals(bars.getVolume(), back.getVolume());
+        }
+    }
+
+    @Test
+    void testRejectsCorruptCompressedEntries() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer(json, 256);
+        byte[] bytes = serializer.serialize(new CachedValue(days(365), 1L));
+
+        byte[] huge = bytes.clone();
+        ByteBuffer.wrap(huge, 3, 4).putInt(Integer.MAX_VALUE);
+        assertThrows(SerializationException.class, () -> serializer.deserialize(huge));
+
+        byte[] longer = bytes.clone();
+        ByteBuffer.wrap(longer, 3, 4).putInt(ByteBuffer.wrap(bytes, 3, 4).getInt() + 1);
+        assertThrows(SerializationException.class, () -> serializer.deserialize(longer));
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+        assertThrows(SerializationException.class, () -> serializer.deserialize(truncated));
+    }
+
+    @Test
+    void testReadsEntriesWrittenAsJson() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer(json, 0);
+
+        CachedValue back = (CachedValue) serializer.deserialize(json.serialize(new CachedValue(quote(), 99L)));
+
+        assertEquals(99L, back.getStoredAt());
+        assertEquals("SPY", ((CryptoQuote) back.getValue()).getSymbol());
+    }
+
+    @Test
+    void testOtherTypesAreEmbeddedAsJson() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer(json, 0);
+
+        CachedValue back = (CachedValue) serializer.deserialize(serializer.serialize(new CachedValue("text", 5L)));
+
+        assertEquals("text", back.getValue());
+    }
+
+    @Test
+    void testRejectsUnknownVersion() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer(json, 0);
+        byte[] bytes = serializer.serialize(new CachedValue(quote(), 1L));
+        bytes[1] = 0;
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testNewerVersionIsReadAsAMiss() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer(json, 0);
+        byte[] bytes = serializer.serialize(new CachedValue(quote(), 1L));
+        bytes[1] = BinaryCacheSerializer.VERSION + 1;
+
+        assertNull(serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testReadsVersionOneEntries() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer(json, 0);
+        byte[] bytes = serializer.serialize(new CachedValue(quote(), 1234L));
+        bytes[1] = 1;
+
+        CachedValue back = (CachedValue) serializer.deserialize(bytes);
+        assertEquals(1234L, back.getStoredAt());
+        assertEquals("SPY", ((CryptoQuote) back.getValue()).getSymbol());
+    }
+}
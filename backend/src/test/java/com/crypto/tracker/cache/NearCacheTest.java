@@ -0,0 +1,56 @@
+package com.crypto.tracker.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NearCache expiry and size bounds.
+ */
+class NearCacheTest {
+
+    @Test
+    void testReturnsStoredValue() {
+        NearCache cache = new NearCache(10, 60_000);
+        cache.put("SPY", "quote");
+
+        assertEquals("quote", cache.get("SPY").value());
+    }
+
+    @Test
+    void testExpiredEntryIsNotReturned() throws InterruptedException {
+        NearCache cache = new NearCache(10, 1);
+        cache.put("SPY", "quote");
+
+        Thread.sleep(5);
+
+        assertNull(cache.get("SPY"), "Entry should expire after its TTL");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testEntryExpiresNoLaterThanRequested() {
+        NearCache cache = new NearCache(10, 60_000);
+        long notAfter = System.currentTimeMillis() + 1_000;
+        cache.put("SPY", "quote", notAfter);
+        cache.put("QQQ", "quote", Long.MAX_VALUE);
+
+        assertEquals(notAfter, cache.get("SPY").expiresAt());
+        assertTrue(cache.get("QQQ").expiresAt() < notAfter + 60_000);
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedWhenFull() {
+        NearCache cache = new NearCache(2, 60_000);
+        cache.put("SPY", 1);
+        cache.put("DIA", 2);
+
+        // Touch SPY so DIA becomes the eldest entry
+        cache.get("SPY");
+        cache.put("QQQ", 3);
+
+        assertNotNull(cache.get("SPY"));
+        assertNull(cache.get("DIA"), "Least recently used entry should be evicted");
+        assertNotNull(cache.get("QQQ"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.crypto.tracker.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResponseCache versioning and ETags.
+ */
+class ResponseCacheTest {
+
+    private final ResponseCache cache = new ResponseCache(new ObjectMapper(), 10, 60);
+    private final AtomicInteger builds = new AtomicInteger();
+
+    private Supplier<Object> body(Object value) {
+        return () -> {
+            builds.incrementAndGet();
+            return value;
+        };
+    }
+
+    @Test
+    void testSameVersionIsServedWithoutRebuilding() throws Exception {
+        ResponseCache.CachedResponse first = cache.get("indices", 1L, body(List.of("SPY")));
+        ResponseCache.CachedResponse second = cache.get("indices", 1L, body(List.of("DIA")));
+
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+        assertEquals("[\"SPY\"]", new String(second.body()));
+    }
+
+    @Test
+    void testNewVersionRebuilds() throws Exception {
+        cache.get("indices", 1L, body(List.of("SPY")));
+        ResponseCache.CachedResponse second = cache.get("indices", 2L, body(List.of("DIA")));
+
+        assertEquals(2, builds.get());
+        assertEquals("[\"DIA\"]", new String(second.body()));
+    }
+
+    @Test
+    void testUncachedDataIsNotKept() throws Exception {
+        cache.get("history:SPY", null, body(List.of(1)));
+        cache.get("history:SPY", null, body(List.of(1)));
+
+        assertEquals(2, builds.get());
+        assertEquals(0, cache.getStats().get("entries"));
+    }
+
+    @Test
+    void testEtagIsAQuotedHashOfTheContent() throws Exception {
+        String a = cache.get("a", 1L, body(List.of("SPY"))).etag();
+        String b = cache.get("b", 7L, body(List.of("SPY"))).etag();
+        String c = cache.get("c", 1L, body(List.of("DIA"))).etag();
+
+        assertEquals(a, b, "Same bytes must give the same ETag, whatever the key or version");
+        assertNotEquals(a, c);
+        assertTrue(a.matches("\"[0-9a-f]{32}\""), a);
+    }
+}
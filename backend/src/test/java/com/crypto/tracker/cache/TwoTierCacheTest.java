@@ -0,0 +1,144 @@
+package com.crypto.tracker.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for TwoTierCache tiering and stale-while-revalidate behavior.
+ */
+class TwoTierCacheTest {
+
+    private ConcurrentMapCache remote;
+    private CacheInvalidationPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("priceList", false);
+        publisher = new CacheInvalidationPublisher(mock(StringRedisTemplate.class));
+    }
+
+    private TwoTierCache newCache(Duration softTtl) {
+        // Run background refreshes inline so the test can observe them
+        return new TwoTierCache("priceList", remote, new NearCache(10, 60_000), publisher, softTtl, Runnable::run);
+    }
+
+    @Test
+    void testLoadsOnMissAndServesFromCacheAfterwards() {
+        TwoTierCache cache = newCache(Duration.ofMinutes(2));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get("all-quotes", () -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", cache.get("all-quotes", () -> "v" + loads.incrementAndGet()));
+
+        assertEquals(1, loads.get(), "Second read should be a cache hit");
+        assertInstanceOf(CachedValue.class, remote.get("all-quotes").get(), "Redis tier stores the envelope");
+    }
+
+    @Test
+    void testStaleValueIsServedAndRefreshedInBackground() {
+        TwoTierCache cache = newCache(Duration.ZERO);
+        cache.put("all-quotes", "old");
+
+        assertEquals("old", cache.get("all-quotes", () -> "new"), "Stale value should be returned immediately");
+        assertEquals("new", ((CachedValue) remote.get("all-quotes").get()).getValue(),
+            "Background refresh should replace the stale value");
+    }
+
+    @Test
+    void testStaleValueIsServedWhenRefreshFails() {
+        TwoTierCache cache = newCache(Duration.ZERO);
+        cache.put("all-quotes", "last-good");
+
+        Object value = cache.get("all-quotes", () -> {
+            throw new IllegalStateException("Rate limit exceeded");
+        });
+
+        assertEquals("last-good", value);
+        assertEquals(1L, cache.getStats().get("backgroundRefreshFailures"));
+    }
+
+    @Test
+    void testPlainGetTreatsStaleValueAsMiss() {
+        TwoTierCache cache = newCache(Duration.ZERO);
+        cache.put("all-quotes", "old");
+
+        assertNull(cache.get("all-quotes"));
+        assertNotNull(cache.getAgeMillis("all-quotes"));
+    }
+
+    @Test
+    void testPolicyGivesEachEntryItsOwnSoftTtl() {
+        TwoTierCache cache = new TwoTierCache("priceList", remote, new NearCache(10, 60_000), publisher,
+            Duration.ZERO, null, (name, key, value, softTtl) -> key.equals("SPY") ? Duration.ofHours(1) : softTtl,
+            Runnable::run, null);
+        cache.put("SPY", "quiet");
+        cache.put("QQQ", "busy");
+
+        assertEquals("quiet", cache.get("SPY", () -> "reloaded"));
+        assertEquals("quiet", ((CachedValue) remote.get("SPY").get()).getValue(), "SPY is still fresh");
+        assertEquals(3_600_000L, ((CachedValue) remote.get("SPY").get()).getSoftTtlMillis());
+        assertTrue(cache.getMillisUntilStale("SPY") > 3_500_000L);
+
+        assertNull(cache.get("QQQ"), "QQQ keeps the cache's own soft TTL and is stale");
+        assertEquals(0L, ((CachedValue) remote.get("QQQ").get()).getSoftTtlMillis());
+    }
+
+    @Test
+    void testCallerCanGiveAnEntryItsOwnSoftTtl() {
+        TwoTierCache cache = newCache(Duration.ofMinutes(2));
+        cache.put("SPY|1h", "synced", Duration.ofHours(1));
+        cache.put("QQQ|1h", "synced", Duration.ofMinutes(2));
+
+        assertEquals(3_600_000L, ((CachedValue) remote.get("SPY|1h").get()).getSoftTtlMillis());
+        assertEquals(0L, ((CachedValue) remote.get("QQQ|1h").get()).getSoftTtlMillis(), "The cache's own TTL");
+    }
+
+    @Test
+    void testNearCopyExpiresWithTheRedisEntry() {
+        NearCache near = new NearCache(10, 60_000);
+        TwoTierCache cache = new TwoTierCache("priceList", remote, near, publisher, Duration.ofSeconds(30),
+            Duration.ofSeconds(60), TtlPolicy.FIXED, Runnable::run, null);
+        long storedAt = System.currentTimeMillis() - 59_000;
+        remote.put("SPY", new CachedValue("spy", storedAt));
+        remote.put("QQQ", new CachedValue("qqq", storedAt, 3_600_000));
+
+        cache.getEntry("SPY");
+        cache.getEntries(List.of("QQQ"));
+
+        assertEquals(storedAt + 60_000, near.get("SPY").expiresAt(), "Redis drops SPY in a second, so does L1");
+        assertTrue(near.get("QQQ").expiresAt() > System.currentTimeMillis() + 59_000,
+            "QQQ lives in Redis for its hour-long soft TTL, so L1 keeps the full near TTL");
+    }
+
+    @Test
+    void testGetEntriesReadsNearAndRemoteTiers() {
+        TwoTierCache cache = newCache(Duration.ofMinutes(2));
+        cache.put("SPY", "spy");
+
+        // Written by another replica: only in Redis
+        remote.put("QQQ", new CachedValue("qqq", System.currentTimeMillis()));
+
+        Map<Object, CachedValue> entries = cache.getEntries(List.of("SPY", "QQQ", "DIA"));
+
+        assertEquals("spy", entries.get("SPY").getValue());
+        assertEquals("qqq", entries.get("QQQ").getValue());
+        assertFalse(entries.containsKey("DIA"), "Uncached keys are left out");
+        assertEquals(1L, cache.getStats().get("nearHits"));
+        assertEquals(1L, cache.getStats().get("remoteHits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+
+        // The Redis value was promoted to the near cache
+        cache.getEntries(List.of("QQQ"));
+        assertEquals(2L, cache.getStats().get("nearHits"));
+    }
+}
@@ -0,0 +1,209 @@
+package com.crypto.tracker.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests UpstreamClient against a local stub server with fast, gzipped, slow and failing endpoints.
+ */
+class UpstreamClientTest {
+
+    private HttpServer server;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+
+        server.createContext("/quote", exchange -> {
+            boolean gzip = exchange.getRequestHeaders().getFirst("Accept-Encoding").contains("gzip");
+            byte[] body = "{\"symbol\":\"SPY\"}".getBytes(StandardCharsets.UTF_8);
+            if (gzip) {
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                body = gzip(body);
+            }
+            respond(exchange, 200, body);
+        });
+        server.createContext("/time_series", exchange -> {
+            sleep(1_000);
+            respond(exchange, 200, "{}".getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/failing", exchange ->
+            respond(exchange, 503, "upstream down".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/held", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{}".getBytes(StandardCharsets.UTF_8));
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private static UpstreamClient client(int maxConnections, long acquireTimeoutMs) {
+        // 200 ms for time_series, so the slow endpoint times out
+        return new UpstreamClient(1_000, maxConnections, acquireTimeoutMs, 2_000, 2_000, 200);
+    }
+
+    @Test
+    void testGzippedResponseIsDecoded() throws Exception {
+        UpstreamClient client = client(4, 100);
+
+        assertEquals("{\"symbol\":\"SPY\"}", await(client.getStringAsync("quote", uri("/quote?symbol=SPY"))));
+        assertEquals(1L, endpoint(client, "quote").get("successes"));
+    }
+
+    @Test
+    void testSlowEndpointTimesOut() {
+        UpstreamClient client = client(4, 100);
+
+        assertInstanceOf(HttpTimeoutException.class,
+            failure(client.getStringAsync("time_series", uri("/time_series"))));
+        assertEquals(1L, endpoint(client, "time_series").get("timeouts"));
+        assertEquals(0, pool(client).get("inFlight"), "The slot must be released after a timeout");
+    }
+
+    @Test
+    void testErrorStatusFailsTheCall() {
+        UpstreamClient client = client(4, 100);
+
+        UpstreamClient.UpstreamStatusException e = assertInstanceOf(UpstreamClient.UpstreamStatusException.class,
+            failure(client.getStringAsync("failing", uri("/failing"))));
+        assertEquals(503, e.getStatusCode());
+        assertTrue(e.getMessage().contains("upstream down"));
+        assertEquals(1L, endpoint(client, "failing").get("failures"));
+    }
+
+    @Test
+    void testCallsAreTimedByEndpointAndStatus() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UpstreamClient client = new UpstreamClient(1_000, 4, 100, 2_000, 2_000, 200, registry);
+
+        await(client.getStringAsync("quote", uri("/quote")));
+        failure(client.getStringAsync("failing", uri("/failing")));
+        failure(client.getStringAsync("time_series", uri("/time_series")));
+
+        assertEquals(1, registry.get("upstream.requests").tags("endpoint", "quote", "status", "200").timer().count());
+        assertEquals(1, registry.get("upstream.requests").tags("endpoint", "failing", "status", "503").timer().count());
+        assertEquals(1,
+            registry.get("upstream.requests").tags("endpoint", "time_series", "status", "timeout").timer().count());
+    }
+
+    @Test
+    void testCallerWaitsForAReleasedSlot() throws Exception {
+        UpstreamClient client = client(1, 5_000);
+
+        CompletableFuture<String> held = client.getStringAsync("held", uri("/held"));
+        while (pool(client).get("inFlight").equals(0)) {
+            Thread.sleep(5);
+        }
+
+        // Queued without a thread; gets the slot handed over when the held call finishes
+        CompletableFuture<String> queued = client.getStringAsync("quote", uri("/quote"));
+        Thread.sleep(100);
+        assertFalse(queued.isDone());
+        assertEquals(1L, pool(client).get("waitedForSlot"));
+
+        release.countDown();
+        assertEquals("{}", await(held));
+        assertEquals("{\"symbol\":\"SPY\"}", await(queued));
+        assertEquals(0, pool(client).get("inFlight"));
+    }
+
+    @Test
+    void testCallersBeyondThePoolAreRejected() throws Exception {
+        UpstreamClient client = client(1, 100);
+
+        CompletableFuture<String> held = client.getStringAsync("held", uri("/held"));
+        while (pool(client).get("inFlight").equals(0)) {
+            Thread.sleep(5);
+        }
+
+        assertTrue(failure(client.getStringAsync("quote", uri("/quote"))).getMessage().contains("busy"));
+        assertEquals(1L, pool(client).get("rejectedNoSlot"));
+
+        release.countDown();
+        assertEquals("{}", await(held));
+        assertEquals(0, pool(client).get("inFlight"), "A timed-out waiter must not keep the slot");
+        assertEquals("{\"symbol\":\"SPY\"}", await(client.getStringAsync("quote", uri("/quote"))));
+    }
+
+    private static <T> T await(CompletableFuture<T> call) throws Exception {
+        return call.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The exception the call failed with.
+     */
+    private static Throwable failure(CompletableFuture<?> call) {
+        return assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS)).getCause();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> endpoint(UpstreamClient client, String endpoint) {
+        return (Map<String, Object>) ((Map<String, Object>) client.getStats().get("endpoints")).get(endpoint);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> pool(UpstreamClient client) {
+        return (Map<String, Object>) client.getStats().get("pool");
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        } catch (IOException e) {
+            // Client gave up (timeout test)
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
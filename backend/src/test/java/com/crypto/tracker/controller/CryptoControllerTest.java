@@ -0,0 +1,142 @@
+package com.crypto.tracker.controller;
+
+import com.crypto.tracker.cache.ResponseCache;
+import com.crypto.tracker.cache.TwoTierCacheManager;
+import com.crypto.tracker.indicator.IndicatorEngine;
+import com.crypto.tracker.model.BarSeries;
+import com.crypto.tracker.model.CryptoQuote;
+import com.crypto.tracker.series.HistoryInterval;
+import com.crypto.tracker.service.AccessTracker;
+import com.crypto.tracker.service.QuoteStreamHub;
+import com.crypto.tracker.service.SymbolUniverse;
+import com.crypto.tracker.service.TwelveDataService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Unit tests for CryptoController conditional GETs: the ETag set on the async index and history responses,
+ * and the 304 answer to a matching If-None-Match. Also covers bulk history validation and which reads are
+ * recorded for refresh-ahead.
+ */
+class CryptoControllerTest {
+
+    private TwelveDataService twelveDataService;
+    private AccessTracker accessTracker;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        twelveDataService = mock(TwelveDataService.class);
+        SymbolUniverse symbolUniverse = mock(SymbolUniverse.class);
+        when(symbolUniverse.getSymbols()).thenReturn(List.of("SPY"));
+
+        accessTracker = new AccessTracker();
+        ObjectMapper objectMapper = new ObjectMapper();
+        CryptoController controller = new CryptoController(twelveDataService, accessTracker,
+            mock(TwoTierCacheManager.class), mock(QuoteStreamHub.class), symbolUniverse,
+            new ResponseCache(objectMapper, 10, 60), objectMapper, mock(IndicatorEngine.class));
+        ReflectionTestUtils.setField(controller, "maxBulkSymbols", 2);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        CryptoQuote quote = new CryptoQuote();
+        quote.setSymbol("SPY");
+        quote.setClose("500.0");
+        quote.setTimestamp(1_700_000_000L);
+        when(twelveDataService.getCurrentPricesAsync())
+            .thenReturn(CompletableFuture.completedFuture(Map.of("SPY", quote)));
+
+        long start = BarSeries.parseDatetime("2024-01-01");
+        BarSeries bars = new BarSeries(
+            new long[]{start, start + 86_400},
+            new double[]{1.0, 2.0},
+            new double[]{1.5, 2.5},
+            new double[]{0.5, 1.5},
+            new double[]{1.25, 2.25},
+            new long[]{100, 200});
+        when(twelveDataService.getHistoricalPricesAsync("SPY"))
+            .thenReturn(CompletableFuture.completedFuture(bars));
+        when(twelveDataService.getHistoryAsync(eq("SPY"), any(HistoryInterval.class), any()))
+            .thenReturn(CompletableFuture.completedFuture(bars));
+    }
+
+    /**
+     * Runs the request through the async dispatch the servlet container would do.
+     */
+    private MvcResult perform(RequestBuilder request) throws Exception {
+        MvcResult started = mockMvc.perform(request)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andReturn();
+    }
+
+    private void assertConditionalGet(String path) throws Exception {
+        MvcResult first = perform(get(path));
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(200, first.getResponse().getStatus());
+        assertNotNull(etag);
+        assertTrue(first.getResponse().getContentAsByteArray().length > 0);
+
+        MvcResult matching = perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag));
+        assertEquals(304, matching.getResponse().getStatus());
+        assertEquals(etag, matching.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(0, matching.getResponse().getContentAsByteArray().length);
+
+        MvcResult other = perform(get(path).header(HttpHeaders.IF_NONE_MATCH, "\"0123456789abcdef\""));
+        assertEquals(200, other.getResponse().getStatus());
+        assertArrayEquals(first.getResponse().getContentAsByteArray(), other.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void testIndicesAnswerAMatchingEtagWithNotModified() throws Exception {
+        assertConditionalGet("/api/indices");
+    }
+
+    @Test
+    void testHistoryAnswersAMatchingEtagWithNotModified() throws Exception {
+        assertConditionalGet("/api/indices/SPY/history");
+    }
+
+    @Test
+    void testBulkHistoryRejectsTooManySymbolsWithoutStreaming() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/indices/history").param("symbols", "SPY,QQQ,DIA"))
+            .andExpect(request().asyncNotStarted())
+            .andReturn();
+
+        assertEquals(400, result.getResponse().getStatus());
+        assertEquals("application/json", result.getResponse().getContentType());
+        assertEquals("{\"error\":\"Between 1 and 2 symbols are allowed\"}", result.getResponse().getContentAsString());
+        verifyNoInteractions(twelveDataService);
+    }
+
+    @Test
+    void testOnlyReadsOfTheCachedDailySeriesAreRecorded() throws Exception {
+        perform(get("/api/indices/SPY/history").param("interval", "1h"));
+        perform(get("/api/indices/SPY/history").param("range", "6m"));
+        perform(get("/api/indices/SPY/indicators"));
+        assertTrue(accessTracker.snapshotAndDecay().isEmpty());
+
+        perform(get("/api/indices/SPY/history"));
+        assertEquals(Map.of("historyBars::SPY", 1.0), accessTracker.snapshotAndDecay());
+    }
+}
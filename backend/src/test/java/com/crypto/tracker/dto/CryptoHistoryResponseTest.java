@@ -0,0 +1,104 @@
+package com.crypto.tracker.dto;
+
+import com.crypto.tracker.model.BarSeries;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for writing history responses straight from BarSeries columns.
+ */
+class CryptoHistoryResponseTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static BarSeries threeDays() {
+        long day = 86_400;
+        long start = BarSeries.parseDatetime("2024-01-01");
+        return new BarSeries(
+            new long[]{start, start + day, start + 2 * day},
+            new double[]{1.0, 2.0, 3.0},
+            new double[]{1.5, 2.5, Double.NaN},
+            new double[]{0.5, 1.5, 2.5},
+            new double[]{1.25, 2.25, 3.25},
+            new long[]{100, -1, 1234567890123L});
+    }
+
+    @Test
+    void testWritesNewestFirstInTheDtoShape() throws Exception {
+        CryptoHistoryResponse response = new CryptoHistoryResponse("SPY", "SPY", threeDays(), true);
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(response));
+
+        assertEquals("SPY", json.get("symbol").asText());
+        assertEquals("SPY", json.get("name").asText());
+
+        JsonNode history = json.get("history");
+        assertEquals(3, history.size());
+
+        JsonNode newest = history.get(0);
+        assertEquals("2024-01-03", newest.get("date").asText());
+        assertEquals(3.25, newest.get("open").asDouble());  // Close doubles as open
+        assertTrue(newest.get("high").isNull());
+        assertEquals(2.5, newest.get("low").asDouble());
+        assertEquals(3.25, newest.get("close").asDouble());
+        assertEquals("1234567890123", newest.get("volume").asText());
+
+        assertTrue(history.get(1).get("volume").isNull());
+        assertEquals("100", history.get(2).get("volume").asText());
+        assertEquals("2024-01-01", history.get(2).get("date").asText());
+    }
+
+    @Test
+    void testStatisticsOverClosingPrices() throws Exception {
+        BarSeries bars = threeDays();
+        bars.getClose()[1] = Double.NaN;
+
+        JsonNode json = objectMapper.readTree(
+            objectMapper.writeValueAsString(new CryptoHistoryResponse("SPY", "SPY", bars, true)));
+
+        assertEquals(1.25, json.get("minPrice").asDouble());
+        assertEquals(3.25, json.get("maxPrice").asDouble());
+        assertEquals(2.25, json.get("avgPrice").asDouble());
+    }
+
+    @Test
+    void testEmptySeriesHasNoMinOrMax() throws Exception {
+        BarSeries empty = new BarSeries(new long[0], new double[0], new double[0],
+                                        new double[0], new double[0], new long[0]);
+        JsonNode json = objectMapper.readTree(
+            objectMapper.writeValueAsString(new CryptoHistoryResponse("SPY", "SPY", empty, true)));
+
+        assertEquals(0, json.get("history").size());
+        assertTrue(json.get("minPrice").isNull());
+        assertTrue(json.get("maxPrice").isNull());
+        assertEquals(0.0, json.get("avgPrice").asDouble());
+    }
+
+    @Test
+    void testIntradayDatesIncludeTheTime() {
+        char[] text = new char[20];
+        long epoch = BarSeries.parseDatetime("2024-03-09 07:05:30");
+
+        int length = CryptoHistoryResponse.Serializer.formatDate(epoch, false, text);
+        assertEquals("2024-03-09 07:05:30", new String(text, 0, length));
+        assertEquals(BarSeries.formatDatetime(epoch, false), new String(text, 0, length));
+    }
+
+    @Test
+    void testSeriesRoundTripsThroughTheRedisSerializer() {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+        BarSeries bars = threeDays();
+
+        BarSeries back = (BarSeries) serializer.deserialize(serializer.serialize(bars));
+
+        assertArrayEquals(bars.getEpochs(), back.getEpochs());
+        assertArrayEquals(bars.getOpen(), back.getOpen());
+        assertArrayEquals(bars.getHigh(), back.getHigh());  // NaN included
+        assertArrayEquals(bars.getLow(), back.getLow());
+        assertArrayEquals(bars.getClose(), back.getClose());
+        assertArrayEquals(bars.getVolume(), back.getVolume());
+    }
+}
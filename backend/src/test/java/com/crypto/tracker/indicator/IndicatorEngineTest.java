@@ -0,0 +1,191 @@
+package com.crypto.tracker.indicator;
+
+import com.crypto.tracker.model.BarSeries;
+import com.crypto.tracker.store.BarStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the incremental indicators against direct computation, and the engine's memoisation and warm-up.
+ */
+class IndicatorEngineTest {
+
+    @TempDir
+    Path dir;
+
+    private BarStore store;
+
+    private static final long DAY = 86_400;
+    private static final long START = BarSeries.parseDatetime("2024-01-01");
+
+    @BeforeEach
+    void setUp() {
+        store = new BarStore(dir.toString(), 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    /**
+     * Random-walk daily bars [from, to), the same for a given seed.
+     */
+    private static BarSeries bars(int from, int to) {
+        Random random = new Random(42);
+        double price = 100;
+        int n = to - from;
+        long[] epochs = new long[n];
+        double[] open = new double[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        long[] volume = new long[n];
+        for (int day = 0; day < to; day++) {
+            price += random.nextGaussian();
+            double spread = random.nextDouble();
+            long shares = 1_000 + random.nextInt(1_000);
+            if (day >= from) {
+                int i = day - from;
+                epochs[i] = START + day * DAY;
+                open[i] = price;
+                high[i] = price + spread;
+                low[i] = price - spread;
+                close[i] = price;
+                volume[i] = shares;
+            }
+        }
+        return new BarSeries(epochs, open, high, low, close, volume);
+    }
+
+    @Test
+    void testSmaAndBollingerMatchDirectComputation() {
+        BarSeries series = bars(0, 60);
+        IndicatorEngine engine = new IndicatorEngine(store, 100, 3600, 0);
+
+        double[] sma = engine.compute("SPY", "1day", series, IndicatorSpec.parse("sma:10")).get("sma");
+        Map<String, double[]> bands = engine.compute("SPY", "1day", series, IndicatorSpec.parse("bbands:10:2"));
+
+        double[] close = series.getClose();
+        assertTrue(Double.isNaN(sma[8]), "No value before the window is full");
+        for (int i = 9; i < close.length; i++) {
+            double mean = 0;
+            for (int j = i - 9; j <= i; j++) {
+                mean += close[j] / 10;
+            }
+            double variance = 0;
+            for (int j = i - 9; j <= i; j++) {
+                variance += (close[j] - mean) * (close[j] - mean) / 10;
+            }
+
+            assertEquals(mean, sma[i], 1e-9);
+            assertEquals(mean, bands.get("middle")[i], 1e-9);
+            assertEquals(mean + 2 * Math.sqrt(variance), bands.get("upper")[i], 1e-9);
+            assertEquals(mean - 2 * Math.sqrt(variance), bands.get("lower")[i], 1e-9);
+        }
+    }
+
+    @Test
+    void testEmaRsiAndVwapMatchDirectComputation() {
+        BarSeries series = bars(0, 60);
+        IndicatorEngine engine = new IndicatorEngine(store, 100, 3600, 0);
+        double[] close = series.getClose();
+
+        double[] ema = engine.compute("SPY", "1day", series, IndicatorSpec.parse("ema:5")).get("ema");
+        double expectedEma = (close[0] + close[1] + close[2] + close[3] + close[4]) / 5;
+        assertEquals(expectedEma, ema[4], 1e-9);
+        for (int i = 5; i < close.length; i++) {
+            expectedEma = close[i] / 3 + expectedEma * 2 / 3;
+            assertEquals(expectedEma, ema[i], 1e-9);
+        }
+
+        double[] rsi = engine.compute("SPY", "1day", series, IndicatorSpec.parse("rsi:14")).get("rsi");
+        double gain = 0;
+        double loss = 0;
+        for (int i = 1; i <= 14; i++) {
+            gain += Math.max(close[i] - close[i - 1], 0) / 14;
+            loss += Math.max(close[i - 1] - close[i], 0) / 14;
+        }
+        assertTrue(Double.isNaN(rsi[13]));
+        assertEquals(100 - 100 / (1 + gain / loss), rsi[14], 1e-9);
+        for (int i = 15; i < close.length; i++) {
+            gain = (gain * 13 + Math.max(close[i] - close[i - 1], 0)) / 14;
+            loss = (loss * 13 + Math.max(close[i - 1] - close[i], 0)) / 14;
+            assertEquals(100 - 100 / (1 + gain / loss), rsi[i], 1e-9);
+        }
+
+        double[] vwap = engine.compute("SPY", "1day", series, IndicatorSpec.parse("vwap:5")).get("vwap");
+        for (int i = 4; i < close.length; i++) {
+            double priceVolume = 0;
+            double volume = 0;
+            for (int j = i - 4; j <= i; j++) {
+                double typical = (series.getHigh()[j] + series.getLow()[j] + close[j]) / 3;
+                priceVolume += typical * series.getVolume()[j];
+                volume += series.getVolume()[j];
+            }
+            assertEquals(priceVolume / volume, vwap[i], 1e-9);
+        }
+    }
+
+    @Test
+    void testIncrementalUpdatesAndRevisedBarMatchAFreshComputation() {
+        IndicatorSpec spec = IndicatorSpec.parse("bbands:20:2");
+        IndicatorEngine incremental = new IndicatorEngine(store, 100, 3600, 0);
+
+        // Served day by day, with the newest bar revised before the next one arrives
+        for (int day = 30; day <= 60; day++) {
+            BarSeries window = bars(day - 30, day);
+            double[] revisedClose = window.getClose().clone();
+            revisedClose[revisedClose.length - 1] -= 5;
+            incremental.compute("SPY", "1day", new BarSeries(window.getEpochs(), window.getOpen(),
+                window.getHigh(), window.getLow(), revisedClose, window.getVolume()), spec);
+            incremental.compute("SPY", "1day", window, spec);
+        }
+
+        BarSeries last = bars(30, 60);
+        IndicatorEngine fresh = new IndicatorEngine(store, 100, 3600, 0);
+        Map<String, double[]> expected = fresh.compute("SPY", "1day", bars(0, 60), spec);
+        Map<String, double[]> actual = incremental.compute("SPY", "1day", last, spec);
+
+        for (String output : expected.keySet()) {
+            double[] full = expected.get(output);
+            for (int i = 0; i < last.size(); i++) {
+                assertEquals(full[30 + i], actual.get(output)[i], 1e-9, output + " at bar " + i);
+            }
+        }
+        assertEquals(1L, incremental.getStats().get("memoBuilds"));
+    }
+
+    @Test
+    void testNewMemoIsWarmedUpFromTheBarStore() throws Exception {
+        store.append("SPY", "1day", bars(0, 100));
+
+        IndicatorEngine engine = new IndicatorEngine(store, 100, 3600, 250);
+        double[] sma = engine.compute("SPY", "1day", bars(70, 100), IndicatorSpec.parse("sma:50")).get("sma");
+
+        assertEquals(30, sma.length);
+        for (double value : sma) {
+            assertFalse(Double.isNaN(value), "A 50-bar SMA has values from the first of 30 served bars");
+        }
+    }
+
+    @Test
+    void testSpecParsing() {
+        assertEquals(new IndicatorSpec("rsi", 14, 0.0), IndicatorSpec.parse("RSI"));
+        assertEquals("bbands:20:2.5", IndicatorSpec.parse("bbands:20:2.5").toString());
+        assertEquals(2, IndicatorSpec.parseList("sma:20,sma,ema").size(), "Duplicates are dropped");
+
+        assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("macd"));
+        assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("sma:0"));
+        assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("sma:abc"));
+        assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("sma:20:2"));
+    }
+}
@@ -0,0 +1,29 @@
+package com.crypto.tracker.model;
+
+/**
+ * Bar series shared by the bar store and history service tests.
+ */
+public final class BarFixtures {
+
+    public static final long DAY = 86_400;
+    public static final long START = BarSeries.parseDatetime("2024-01-01");
+
+    private BarFixtures() {
+    }
+
+    /**
+     * Daily bars [from, to) counted from {@link #START}, with close = day index, oldest first.
+     */
+    public static BarSeries days(int from, int to) {
+        int n = to - from;
+        long[] epochs = new long[n];
+        double[] prices = new double[n];
+        long[] volume = new long[n];
+        for (int i = 0; i < n; i++) {
+            epochs[i] = START + (from + i) * DAY;
+            prices[i] = from + i;
+            volume[i] = 1000L + from + i;
+        }
+        return new BarSeries(epochs, prices.clone(), prices.clone(), prices.clone(), prices.clone(), volume);
+    }
+}
@@ -0,0 +1,87 @@
+package com.crypto.tracker.series;
+
+import com.crypto.tracker.model.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for rolling base bars up into coarser intervals.
+ */
+class BarAggregatorTest {
+
+    private static BarSeries bars(long start, long step, double... closes) {
+        int n = closes.length;
+        long[] epochs = new long[n];
+        double[] open = new double[n];
+        double[] high = new double[n];
+        double[] low = new double[n];
+        long[] volume = new long[n];
+        for (int i = 0; i < n; i++) {
+            epochs[i] = start + i * step;
+            open[i] = closes[i] - 0.5;
+            high[i] = closes[i] + 1;
+            low[i] = closes[i] - 1;
+            volume[i] = 10;
+        }
+        return new BarSeries(epochs, open, high, low, closes.clone(), volume);
+    }
+
+    @Test
+    void testIntradayBucketsStartAtSessionOpen() {
+        // 09:30 to 10:25 in five-minute bars
+        long open = BarSeries.parseDatetime("2024-03-04 09:30:00");
+        BarSeries fiveMinute = bars(open, 300, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+
+        BarSeries fifteen = BarAggregator.aggregate(fiveMinute, HistoryInterval.FIFTEEN_MINUTES);
+
+        assertEquals(4, fifteen.size());
+        assertEquals(open, fifteen.getEpochs()[0]);
+        assertEquals(BarSeries.parseDatetime("2024-03-04 09:45:00"), fifteen.getEpochs()[1]);
+        assertEquals(0.5, fifteen.getOpen()[0]);
+        assertEquals(4.0, fifteen.getHigh()[0]);
+        assertEquals(0.0, fifteen.getLow()[0]);
+        assertEquals(3.0, fifteen.getClose()[0]);
+        assertEquals(30, fifteen.getVolume()[0]);
+    }
+
+    @Test
+    void testWeeksStartOnMondayAndMonthsOnTheFirst() {
+        // Wednesday 2024-01-31 through Tuesday 2024-02-13, one bar a day
+        BarSeries daily = bars(BarSeries.parseDatetime("2024-01-31"), 86_400,
+                1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14);
+
+        BarSeries weekly = BarAggregator.aggregate(daily, HistoryInterval.ONE_WEEK);
+        assertEquals(3, weekly.size());
+        assertEquals(BarSeries.parseDatetime("2024-01-29"), weekly.getEpochs()[0]);
+        assertEquals(BarSeries.parseDatetime("2024-02-05"), weekly.getEpochs()[1]);
+        assertEquals(5.0, weekly.getClose()[0]);
+
+        BarSeries monthly = BarAggregator.aggregate(daily, HistoryInterval.ONE_MONTH);
+        assertEquals(2, monthly.size());
+        assertEquals(BarSeries.parseDatetime("2024-01-01"), monthly.getEpochs()[0]);
+        assertEquals(1.0, monthly.getClose()[0]);
+        assertEquals(BarSeries.parseDatetime("2024-02-01"), monthly.getEpochs()[1]);
+        assertEquals(130, monthly.getVolume()[1]);
+    }
+
+    @Test
+    void testMissingPricesDoNotBlankTheBucket() {
+        BarSeries hourly = bars(BarSeries.parseDatetime("2024-03-04 09:30:00"), 3600, 5, Double.NaN);
+        hourly.getHigh()[1] = Double.NaN;
+        hourly.getLow()[1] = Double.NaN;
+
+        BarSeries twoHour = BarAggregator.aggregate(hourly, HistoryInterval.TWO_HOURS);
+
+        assertEquals(1, twoHour.size());
+        assertEquals(6.0, twoHour.getHigh()[0]);
+        assertEquals(4.0, twoHour.getLow()[0]);
+        assertEquals(5.0, twoHour.getClose()[0]);
+    }
+
+    @Test
+    void testBaseIntervalIsReturnedUnchanged() {
+        BarSeries daily = bars(BarSeries.parseDatetime("2024-01-01"), 86_400, 1, 2, 3);
+        assertSame(daily, BarAggregator.aggregate(daily, HistoryInterval.ONE_DAY));
+    }
+}
@@ -0,0 +1,64 @@
+package com.crypto.tracker.series;
+
+import com.crypto.tracker.model.BarSeries;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Largest-Triangle-Three-Buckets downsampling.
+ */
+class LttbTest {
+
+    private static BarSeries closes(double... closes) {
+        int n = closes.length;
+        long[] epochs = new long[n];
+        long[] volume = new long[n];
+        for (int i = 0; i < n; i++) {
+            epochs[i] = BarSeries.parseDatetime("2024-01-01") + i * 86_400L;
+            volume[i] = i;
+        }
+        return new BarSeries(epochs, closes.clone(), closes.clone(), closes.clone(), closes.clone(), volume);
+    }
+
+    @Test
+    void testKeepsEndsAndPeaks() {
+        double[] prices = new double[100];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 100;
+        }
+        prices[37] = 150;  // a spike a naive stride would skip
+        prices[71] = 60;
+
+        BarSeries sampled = Lttb.downsample(closes(prices), 10);
+
+        assertEquals(10, sampled.size());
+        assertEquals(BarSeries.parseDatetime("2024-01-01"), sampled.getEpochs()[0]);
+        assertEquals(99, sampled.getVolume()[9]);
+        boolean peak = false;
+        boolean trough = false;
+        for (double close : sampled.getClose()) {
+            peak |= close == 150;
+            trough |= close == 60;
+        }
+        assertTrue(peak, "Spike should survive downsampling");
+        assertTrue(trough, "Dip should survive downsampling");
+
+        // Whole bars are kept, in order
+        for (int i = 1; i < sampled.size(); i++) {
+            assertTrue(sampled.getEpochs()[i] > sampled.getEpochs()[i - 1]);
+            assertEquals(sampled.getClose()[i], sampled.getOpen()[i]);
+        }
+    }
+
+    @Test
+    void testShortSeriesIsReturnedUnchanged() {
+        BarSeries bars = closes(1, 2, 3, 4);
+        assertSame(bars, Lttb.downsample(bars, 4));
+    }
+
+    @Test
+    void testRejectsTooFewPoints() {
+        assertThrows(IllegalArgumentException.class, () -> Lttb.downsample(closes(1, 2, 3, 4), 2));
+    }
+}
@@ -0,0 +1,66 @@
+package com.crypto.tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AccessTracker scoring and decay.
+ */
+class AccessTrackerTest {
+
+    private static void read(AccessTracker tracker, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.recordAccess(key);
+        }
+    }
+
+    @Test
+    void testSnapshotCountsReadsSinceTheLastOne() {
+        AccessTracker tracker = new AccessTracker();
+        read(tracker, "priceList::SPY", 3);
+        read(tracker, "priceList::QQQ", 1);
+
+        Map<String, Double> scores = tracker.snapshotAndDecay();
+
+        assertEquals(3.0, scores.get("priceList::SPY"));
+        assertEquals(1.0, scores.get("priceList::QQQ"));
+    }
+
+    @Test
+    void testScoresHalveEachSnapshotAndNewReadsAddUp() {
+        AccessTracker tracker = new AccessTracker();
+        read(tracker, "priceList::SPY", 8);
+        tracker.snapshotAndDecay();
+
+        assertEquals(4.0, tracker.snapshotAndDecay().get("priceList::SPY"));
+
+        read(tracker, "priceList::SPY", 2);
+        assertEquals(4.0, tracker.snapshotAndDecay().get("priceList::SPY"), "Halved to 2, plus 2 new reads");
+    }
+
+    @Test
+    void testKeysNobodyReadsAnyMoreAreForgotten() {
+        AccessTracker tracker = new AccessTracker();
+        read(tracker, "historyBars::SPY", 1);
+        tracker.snapshotAndDecay();
+
+        // 1 / 2^6 is still above the floor, 1 / 2^7 is not
+        for (int i = 0; i < 6; i++) {
+            tracker.snapshotAndDecay();
+        }
+        assertTrue(tracker.snapshotAndDecay().isEmpty());
+    }
+
+    @Test
+    void testSnapshotIsACopy() {
+        AccessTracker tracker = new AccessTracker();
+        read(tracker, "priceList::SPY", 1);
+
+        tracker.snapshotAndDecay().clear();
+
+        assertEquals(0.5, tracker.snapshotAndDecay().get("priceList::SPY"));
+    }
+}
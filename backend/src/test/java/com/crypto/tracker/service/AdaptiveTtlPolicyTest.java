@@ -0,0 +1,138 @@
+package com.crypto.tracker.service;
+
+import com.crypto.tracker.model.CryptoQuote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for AdaptiveTtlPolicy sessions, volatility and budget pacing. Times are UTC instants; New York is
+ * UTC-4 in October and UTC-5 in November.
+ */
+class AdaptiveTtlPolicyTest {
+
+    private static final Duration BASE = Duration.ofSeconds(120);
+
+    private MonthlyBudget monthlyBudget;
+
+    @BeforeEach
+    void setUp() {
+        monthlyBudget = mock(MonthlyBudget.class);
+        when(monthlyBudget.getMonthlyLimit()).thenReturn(500);
+        when(monthlyBudget.getCurrentUsage()).thenReturn(100);
+        when(monthlyBudget.getRemainingBudget()).thenReturn(400);
+    }
+
+    private AdaptiveTtlPolicy policy(String instant) {
+        Clock clock = Clock.fixed(Instant.parse(instant), ZoneOffset.UTC);
+        return new AdaptiveTtlPolicy(monthlyBudget, clock, true, "America/New_York", new String[] {"2026-11-26"},
+            30, 345_600, 3, 1.5, 0.25, 4);
+    }
+
+    private static CryptoQuote quote(String percentChange) {
+        CryptoQuote quote = new CryptoQuote();
+        quote.setSymbol("SPY");
+        quote.setPercentChange(percentChange);
+        return quote;
+    }
+
+    private static Duration ttl(AdaptiveTtlPolicy policy, Object value) {
+        return policy.softTtl("priceList", "SPY", value, BASE);
+    }
+
+    @Test
+    void testRegularSessionFollowsVolatility() {
+        // Wednesday 11:00 in New York
+        AdaptiveTtlPolicy policy = policy("2026-10-14T15:00:00Z");
+
+        assertEquals(Duration.ofSeconds(120), ttl(policy, quote("0.80")));
+        assertEquals(Duration.ofSeconds(240), ttl(policy, quote("0.10")), "Quiet symbols are refreshed less often");
+        assertEquals(Duration.ofSeconds(60), ttl(policy, quote("-2.40")), "Big moves are refreshed more often");
+        assertEquals(Duration.ofSeconds(120), ttl(policy, "no price in here"));
+    }
+
+    @Test
+    void testExtendedHoursLengthenTheTtl() {
+        // Wednesday 08:00 in New York, before the open
+        assertEquals(Duration.ofSeconds(360), ttl(policy("2026-10-14T12:00:00Z"), quote("0.80")));
+    }
+
+    @Test
+    void testClosedMarketLastsUntilTheNextSession() {
+        // Saturday noon and Friday 21:00 in New York: fresh until Monday 04:00
+        assertEquals(Duration.ofHours(40), ttl(policy("2026-10-17T16:00:00Z"), quote("0.80")));
+        assertEquals(Duration.ofHours(55), ttl(policy("2026-10-17T01:00:00Z"), quote("-3.00")));
+
+        // Thanksgiving noon: fresh until Friday 04:00
+        assertEquals(Duration.ofHours(16), ttl(policy("2026-11-26T17:00:00Z"), quote("0.80")));
+    }
+
+    @Test
+    void testExchangeTimezoneFromMetadataIsUsed() {
+        // 09:00 in New York is pre-market, 14:00 in London is the regular session
+        AdaptiveTtlPolicy policy = policy("2026-10-14T13:00:00Z");
+        policy.recordTimezone("SPY", "Europe/London");
+        policy.recordTimezone("QQQ", "Not/AZone");
+
+        assertEquals(Duration.ofSeconds(120), ttl(policy, quote("0.80")));
+        assertEquals(Duration.ofSeconds(360), policy.softTtl("priceList", "QQQ", quote("0.80"), BASE));
+    }
+
+    @Test
+    void testBudgetAheadOfPaceStretchesTheTtl() {
+        // Halfway through October with 98% of the budget used
+        AdaptiveTtlPolicy policy = policy("2026-10-16T12:00:00Z");
+        when(monthlyBudget.getCurrentUsage()).thenReturn(490);
+        when(monthlyBudget.getRemainingBudget()).thenReturn(10);
+
+        assertEquals(2.0, policy.budgetStretch(), 0.15);
+        assertTrue(ttl(policy, quote("0.80")).toSeconds() > 220);
+
+        when(monthlyBudget.getRemainingBudget()).thenReturn(0);
+        assertEquals(4.0, policy.budgetStretch());
+    }
+
+    @Test
+    void testClosedMarketTtlIsNotStretchedPastTheNextSession() {
+        // Saturday noon in New York with the whole budget spent: still fresh only until Monday 04:00
+        AdaptiveTtlPolicy policy = policy("2026-10-17T16:00:00Z");
+        when(monthlyBudget.getCurrentUsage()).thenReturn(500);
+        when(monthlyBudget.getRemainingBudget()).thenReturn(0);
+
+        assertEquals(Duration.ofHours(40), ttl(policy, quote("0.80")));
+        assertEquals(0L, policy.getStats().get("budgetStretchedWrites"));
+    }
+
+    @Test
+    void testIntradaySyncsWaitForTheNextRegularOpenOnceClosed() {
+        Duration barAge = Duration.ofMinutes(5);
+
+        // Wednesday 11:00 in New York: one bar age
+        assertEquals(barAge, policy("2026-10-14T15:00:00Z").intradaySyncAge("SPY", barAge));
+        // Friday 16:05 and 19:00 after the close, Monday 08:00 pre-market: until Monday 09:30
+        assertEquals(Duration.ofMinutes(65 * 60 + 25),
+            policy("2026-10-16T20:05:00Z").intradaySyncAge("SPY", barAge));
+        assertEquals(Duration.ofMinutes(62 * 60 + 30),
+            policy("2026-10-16T23:00:00Z").intradaySyncAge("SPY", barAge));
+        assertEquals(Duration.ofMinutes(90), policy("2026-10-19T12:00:00Z").intradaySyncAge("SPY", barAge));
+        // Monday 09:28: never sooner than one bar age
+        assertEquals(barAge, policy("2026-10-19T13:28:00Z").intradaySyncAge("SPY", barAge));
+    }
+
+    @Test
+    void testDisabledPolicyKeepsTheConfiguredTtl() {
+        AdaptiveTtlPolicy policy = new AdaptiveTtlPolicy(monthlyBudget,
+            Clock.fixed(Instant.parse("2026-10-17T16:00:00Z"), ZoneOffset.UTC), false, "America/New_York",
+            new String[0], 30, 345_600, 3, 1.5, 0.25, 4);
+
+        assertEquals(BASE, ttl(policy, quote("0.10")));
+    }
+}
@@ -0,0 +1,45 @@
+package com.crypto.tracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BatchPlanner.
+ */
+class BatchPlannerTest {
+
+    @Test
+    void testSplitsIntoBatchesOfAtMostBatchSize() {
+        List<List<String>> batches = BatchPlanner.plan(List.of("A", "B", "C", "D", "E"), 2);
+
+        assertEquals(List.of(List.of("A", "B"), List.of("C", "D"), List.of("E")), batches);
+    }
+
+    @Test
+    void testDropsDuplicatesAndKeepsOrder() {
+        List<List<String>> batches = BatchPlanner.plan(List.of("B", "A", "B", "C"), 10);
+
+        assertEquals(List.of(List.of("B", "A", "C")), batches);
+    }
+
+    @Test
+    void testEmptyInputNeedsNoCalls() {
+        assertTrue(BatchPlanner.plan(List.of(), 5).isEmpty());
+    }
+
+    @Test
+    void testCallsForCountsQuoteAndHistoryBatchesSeparately() {
+        BatchPlanner planner = new BatchPlanner();
+        ReflectionTestUtils.setField(planner, "quoteBatchSize", 120);
+        ReflectionTestUtils.setField(planner, "historyBatchSize", 8);
+
+        assertEquals(0, planner.callsFor(0, 0));
+        assertEquals(1, planner.callsFor(120, 0));
+        assertEquals(2, planner.callsFor(121, 0));
+        assertEquals(3, planner.callsFor(4, 9));
+    }
+}
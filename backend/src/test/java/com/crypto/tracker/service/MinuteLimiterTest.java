@@ -3,6 +3,12 @@ package com.crypto.tracker.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -59,4 +65,31 @@ class MinuteLimiterTest {
         assertEquals(20, limiter.getRemainingRequests(),
             "Should have 20 requests available initially");
     }
+
+    @Test
+    void testConcurrentCallersNeverExceedLimit() throws InterruptedException {
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        for (int t = 0; t < 16; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    if (limiter.allowRequest()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(20, allowed.get(), "Exactly 20 of 1600 concurrent requests should be allowed");
+        assertEquals(0, limiter.getRemainingRequests());
+        assertTrue(limiter.getSecondsUntilReset() > 0, "Window should report time until a permit frees up");
+    }
 }
@@ -0,0 +1,145 @@
+package com.crypto.tracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MonthlyBudget leasing and batched flushing. The Lua scripts are stubbed.
+ */
+class MonthlyBudgetTest {
+
+    private static final RedisScript<List<Long>> RESERVE_SCRIPT = script("RESERVE_SCRIPT");
+    private static final RedisScript<List<Long>> FLUSH_SCRIPT = script("FLUSH_SCRIPT");
+
+    private StringRedisTemplate redisTemplate;
+    private MonthlyBudget budget;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        budget = new MonthlyBudget(redisTemplate);
+        ReflectionTestUtils.setField(budget, "leaseSize", 5);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisScript<List<Long>> script(String name) {
+        return (RedisScript<List<Long>>) ReflectionTestUtils.getField(MonthlyBudget.class, name);
+    }
+
+    private void reserveReturns(long granted, long reserved, long used) {
+        when(redisTemplate.execute(eq(RESERVE_SCRIPT), anyList(), any(Object[].class)))
+            .thenReturn(List.of(granted, reserved, used));
+    }
+
+    @Test
+    void testLeaseServesSeveralCallsWithOneRoundTrip() {
+        reserveReturns(5, 5, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(budget.tryReserve());
+        }
+
+        verify(redisTemplate, times(1)).execute(any(), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void testExhaustedWhenNothingIsGranted() {
+        reserveReturns(0, 500, 498);
+
+        assertFalse(budget.tryReserve());
+    }
+
+    @Test
+    void testReleasedReservationIsReusedLocally() {
+        reserveReturns(1, 1, 0);
+
+        assertTrue(budget.tryReserve());
+        budget.release();
+        assertTrue(budget.tryReserve());
+
+        verify(redisTemplate, times(1)).execute(any(), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void testUsageIsCountedLocallyAndFlushedInOneRoundTrip() {
+        // Usage counter, reserved in total
+        when(redisTemplate.execute(eq(FLUSH_SCRIPT), anyList(), any(Object[].class))).thenReturn(List.of(3L, 5L));
+
+        budget.incrementUsage();
+        budget.incrementUsage();
+        budget.incrementUsage();
+        budget.flush();
+
+        assertEquals(3, budget.getCurrentUsage());
+        assertEquals(497, budget.getRemainingBudget());
+        assertEquals(0.6, budget.getUsagePercentage(), 0.0001);
+
+        // Reads after the flush are answered locally
+        verify(redisTemplate, times(1)).execute(any(), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void testFailedFlushKeepsUsageForTheNextOne() {
+        when(redisTemplate.execute(eq(FLUSH_SCRIPT), anyList(), any(Object[].class)))
+            .thenThrow(new RuntimeException("connection refused"))
+            .thenReturn(List.of(2L, 2L));
+
+        budget.incrementUsage();
+        budget.incrementUsage();
+        budget.flush();
+        budget.flush();
+
+        assertEquals(2, budget.getCurrentUsage());
+        assertEquals("2", lastFlush()[4], "Both calls are written back by the second flush");
+    }
+
+    @Test
+    void testLeaseIsHeldUntilItsCallsAreWrittenBack() {
+        reserveReturns(5, 5, 0);
+        when(redisTemplate.execute(eq(FLUSH_SCRIPT), anyList(), any(Object[].class))).thenReturn(List.of(2L, 5L));
+
+        assertTrue(budget.tryReserve());
+        assertTrue(budget.tryReserve());
+        budget.incrementUsage();
+        budget.incrementUsage();
+        budget.flush();
+
+        // Three calls still leased here; the two made are usage now
+        Object[] args = lastFlush();
+        assertEquals("3", args[1]);
+        assertEquals("2", args[4]);
+        assertEquals(3, budget.getStats().get("heldHere"));
+    }
+
+    @Test
+    void testShutdownHandsBackTheUnusedLease() {
+        reserveReturns(5, 5, 0);
+        when(redisTemplate.execute(eq(FLUSH_SCRIPT), anyList(), any(Object[].class))).thenReturn(List.of(1L, 1L));
+
+        assertTrue(budget.tryReserve());
+        budget.incrementUsage();
+        budget.shutdown();
+
+        Object[] args = lastFlush();
+        assertEquals("0", args[1], "Nothing is held on top of the usage any more");
+        assertEquals("1", args[4]);
+    }
+
+    private Object[] lastFlush() {
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate, atLeastOnce()).execute(eq(FLUSH_SCRIPT), anyList(), args.capture());
+        return args.getValue();
+    }
+}
@@ -0,0 +1,85 @@
+package com.crypto.tracker.service;
+
+import com.crypto.tracker.model.CryptoQuote;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for QuoteResponseParser.
+ */
+class QuoteResponseParserTest {
+
+    private final QuoteResponseParser parser = new QuoteResponseParser(new JsonFactory());
+
+    private QuoteResponseParser.Result parse(String json, String... batch) throws IOException {
+        return parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), List.of(batch));
+    }
+
+    @Test
+    void testSingleSymbolResponseIsTheQuoteItself() throws Exception {
+        QuoteResponseParser.Result result = parse("""
+            {"symbol":"SPY","name":"SPDR S&P 500","exchange":"NYSE","datetime":"2024-01-02",
+             "timestamp":1704205800,"close":"472.65","percent_change":"-0.61",
+             "fifty_two_week":{"low":"380.65","high":"477.55","range":"380.65 - 477.55"},"is_market_open":false}
+            """, "SPY");
+
+        CryptoQuote quote = result.quotes().get("SPY");
+        assertEquals("SPDR S&P 500", quote.getName());
+        assertEquals(1704205800L, quote.getTimestamp());
+        assertEquals(472.65, quote.getCurrentPrice());
+        assertEquals(-0.61, quote.getPercentChangeValue());
+        assertTrue(result.errors().isEmpty());
+        assertNull(result.error());
+    }
+
+    @Test
+    void testMultiSymbolResponseKeepsGoodQuotesAndPerSymbolErrors() throws Exception {
+        QuoteResponseParser.Result result = parse("""
+            {"SPY":{"symbol":"SPY","close":"472.65","volume":123},
+             "BAD":{"code":404,"message":"symbol not found","status":"error"},
+             "DIA":{"symbol":"DIA","close":"376.9","timestamp":null}}
+            """, "SPY", "BAD", "DIA");
+
+        assertEquals(2, result.quotes().size());
+        assertEquals("123", result.quotes().get("SPY").getVolume());
+        assertNull(result.quotes().get("DIA").getTimestamp());
+
+        QuoteResponseParser.QuoteError error = result.errors().get("BAD");
+        assertEquals(404, error.code());
+        assertTrue(error.isUnknownSymbol());
+        assertNull(result.error());
+    }
+
+    @Test
+    void testWholeRequestError() throws Exception {
+        QuoteResponseParser.Result result = parse("""
+            {"code":429,"message":"You have run out of API credits","status":"error"}
+            """, "SPY", "DIA");
+
+        assertTrue(result.quotes().isEmpty());
+        assertEquals(429, result.error().code());
+        assertFalse(result.error().isUnknownSymbol());
+    }
+
+    @Test
+    void testSingleSymbolError() throws Exception {
+        QuoteResponseParser.Result result = parse("""
+            {"code":400,"message":"**symbol** not found","status":"error"}
+            """, "NOPE");
+
+        assertTrue(result.quotes().isEmpty());
+        assertTrue(result.errors().get("NOPE").isUnknownSymbol());
+    }
+
+    @Test
+    void testRejectsNonObjectResponse() {
+        assertThrows(IOException.class, () -> parse("[1,2]", "SPY"));
+    }
+}
@@ -0,0 +1,181 @@
+package com.crypto.tracker.service;
+
+import com.crypto.tracker.dto.CryptoIndexResponse;
+import com.crypto.tracker.model.CryptoQuote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for QuoteStreamHub diffing, per-subscriber merging and cleanup. Emitters record the events they
+ * are asked to send instead of writing to a response.
+ */
+class QuoteStreamHubTest {
+
+    private TwelveDataService twelveDataService;
+    private List<Runnable> sendTasks;
+    private List<RecordingEmitter> emitters;
+    private QuoteStreamHub hub;
+
+    @BeforeEach
+    void setUp() {
+        twelveDataService = mock(TwelveDataService.class);
+        sendTasks = new ArrayList<>();
+        emitters = new ArrayList<>();
+        // Sends run when the test says so, to control what piles up in between
+        hub = new QuoteStreamHub(twelveDataService, new AccessTracker(), sendTasks::add) {
+            @Override
+            SseEmitter newEmitter(long timeoutMs) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private static CryptoQuote quote(String symbol, String close) {
+        CryptoQuote quote = new CryptoQuote();
+        quote.setSymbol(symbol);
+        quote.setClose(close);
+        quote.setTimestamp(1_700_000_000L);
+        return quote;
+    }
+
+    private void poll(CryptoQuote... quotes) throws Exception {
+        Map<String, CryptoQuote> bySymbol = new LinkedHashMap<>();
+        for (CryptoQuote quote : quotes) {
+            bySymbol.put(quote.getSymbol(), quote);
+        }
+        when(twelveDataService.getCurrentPrices()).thenReturn(bySymbol);
+        hub.pollAndBroadcast();
+    }
+
+    private void runSends() {
+        List<Runnable> tasks = new ArrayList<>(sendTasks);
+        sendTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private static List<Double> prices(List<CryptoIndexResponse> batch) {
+        return batch.stream().map(CryptoIndexResponse::getCurrentPrice).toList();
+    }
+
+    @Test
+    void testOnlyChangedQuotesArePushed() throws Exception {
+        hub.subscribe();
+        RecordingEmitter emitter = emitters.get(0);
+
+        poll(quote("SPY", "500.0"), quote("QQQ", "400.0"));
+        runSends();
+        poll(quote("SPY", "500.0"), quote("QQQ", "401.5"));
+        runSends();
+
+        assertEquals(2, emitter.batches.size());
+        assertEquals(2, emitter.batches.get(0).size());
+        assertEquals(List.of(401.5), prices(emitter.batches.get(1)), "Unchanged SPY is not sent again");
+    }
+
+    @Test
+    void testUnchangedSnapshotSendsAHeartbeat() throws Exception {
+        hub.subscribe();
+        RecordingEmitter emitter = emitters.get(0);
+
+        poll(quote("SPY", "500.0"));
+        runSends();
+        poll(quote("SPY", "500.0"));
+        runSends();
+
+        assertEquals(1, emitter.batches.size());
+        assertEquals(1, emitter.heartbeats);
+    }
+
+    @Test
+    void testSlowSubscriberGetsOnlyTheLatestPrice() throws Exception {
+        hub.subscribe();
+        RecordingEmitter emitter = emitters.get(0);
+
+        // The first send has not run yet when the next prices arrive
+        poll(quote("SPY", "500.0"));
+        poll(quote("SPY", "501.0"));
+        poll(quote("SPY", "502.0"));
+        runSends();
+
+        assertEquals(1, emitter.batches.size());
+        assertEquals(List.of(502.0), prices(emitter.batches.get(0)));
+        assertEquals(2L, hub.getStats().get("updatesDropped"));
+    }
+
+    @Test
+    void testNewSubscriberStartsWithTheLatestSnapshot() throws Exception {
+        hub.subscribe();
+        poll(quote("SPY", "500.0"), quote("QQQ", "400.0"));
+        runSends();
+
+        hub.subscribe();
+        runSends();
+
+        assertEquals(2, emitters.get(1).batches.get(0).size());
+    }
+
+    @Test
+    void testSubscriberIsDroppedWhenASendFails() throws Exception {
+        hub.subscribe();
+        hub.subscribe();
+        emitters.get(0).failing = true;
+
+        poll(quote("SPY", "500.0"));
+        runSends();
+
+        assertEquals(1, hub.getStats().get("subscribers"));
+        poll(quote("SPY", "501.0"));
+        runSends();
+        assertTrue(emitters.get(0).batches.isEmpty());
+        assertEquals(2, emitters.get(1).batches.size());
+    }
+
+    @Test
+    void testNoPollWithoutSubscribers() throws Exception {
+        hub.pollAndBroadcast();
+
+        assertTrue(sendTasks.isEmpty());
+        verifyNoInteractions(twelveDataService);
+    }
+
+    /**
+     * Keeps the quote batches and keepalive comments it is asked to send.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        final List<List<CryptoIndexResponse>> batches = new CopyOnWriteArrayList<>();
+        int heartbeats;
+        boolean failing;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            for (DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof List<?> batch && MediaType.APPLICATION_JSON.equals(part.getMediaType())) {
+                    batches.add((List<CryptoIndexResponse>) batch);
+                } else if (part.getData().toString().contains("keepalive")) {
+                    heartbeats++;
+                }
+            }
+        }
+    }
+}
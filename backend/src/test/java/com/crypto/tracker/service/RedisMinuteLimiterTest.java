@@ -0,0 +1,119 @@
+package com.crypto.tracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RedisMinuteLimiter lease handling. The Lua script itself is stubbed.
+ */
+class RedisMinuteLimiterTest {
+
+    private StringRedisTemplate redisTemplate;
+    private RedisMinuteLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        limiter = new RedisMinuteLimiter(redisTemplate);
+        ReflectionTestUtils.setField(limiter, "windowKey", "api:ratelimit:minute");
+        ReflectionTestUtils.setField(limiter, "leaseSize", 2);
+        ReflectionTestUtils.setField(limiter, "leaseTtlMs", 60_000L);
+        ReflectionTestUtils.setField(limiter, "statusTtlMs", 60_000L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scriptReturns(List<Long> first, List<Long>... rest) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(first, (Object[]) rest);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLeasedPermitIsServedWithoutRoundTrip() {
+        scriptReturns(List.of(2L, 2L, 60_000L));
+
+        assertTrue(limiter.allowRequest());
+        assertTrue(limiter.allowRequest());
+
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void testRejectsWhenWindowIsFull() {
+        scriptReturns(List.of(0L, 20L, 30_000L));
+
+        assertFalse(limiter.allowRequest());
+        assertEquals(0, limiter.getRemainingRequests());
+        assertEquals(30, limiter.getSecondsUntilReset());
+    }
+
+    @Test
+    void testRejectsWhenRedisIsUnavailable() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+            .thenThrow(new RuntimeException("connection refused"));
+
+        assertFalse(limiter.allowRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExpiredLeaseIsReturnedToTheWindow() {
+        ZSetOperations<String, String> zSetOps = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        ReflectionTestUtils.setField(limiter, "leaseTtlMs", 0L);
+        scriptReturns(List.of(2L, 2L, 60_000L), List.of(1L, 2L, 60_000L));
+
+        assertTrue(limiter.allowRequest());
+        assertTrue(limiter.allowRequest());
+
+        // The unused second permit of the first lease was handed back before claiming again
+        verify(zSetOps).remove(eq("api:ratelimit:minute"), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRedisIsCalledWithoutHoldingTheLock() {
+        ReentrantLock lock = (ReentrantLock) ReflectionTestUtils.getField(limiter, "lock");
+        ZSetOperations<String, String> zSetOps = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        when(zSetOps.remove(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            assertFalse(lock.isLocked(), "Lock held while returning permits");
+            return 1L;
+        });
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(invocation -> {
+            assertFalse(lock.isLocked(), "Lock held while claiming permits");
+            return List.of(2L, 2L, 60_000L);
+        });
+        ReflectionTestUtils.setField(limiter, "leaseTtlMs", 0L);
+
+        assertTrue(limiter.allowRequest());
+        assertTrue(limiter.allowRequest());
+        limiter.getSecondsUntilReset();
+
+        verify(zSetOps).remove(eq("api:ratelimit:minute"), any(Object[].class));
+    }
+
+    @Test
+    void testRemainingIncludesPermitsLeasedHere() {
+        scriptReturns(List.of(2L, 10L, 60_000L));
+
+        assertTrue(limiter.allowRequest());
+
+        assertEquals(10, limiter.getCurrentRequestCount());
+        assertEquals(11, limiter.getRemainingRequests());
+    }
+}
@@ -0,0 +1,138 @@
+package com.crypto.tracker.service;
+
+import com.crypto.tracker.cache.CacheInvalidationPublisher;
+import com.crypto.tracker.cache.CachedValue;
+import com.crypto.tracker.cache.NearCache;
+import com.crypto.tracker.cache.TwoTierCache;
+import com.crypto.tracker.cache.TwoTierCacheManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.crypto.tracker.config.RedisCacheConfig.CRYPTO_HISTORY_CACHE;
+import static com.crypto.tracker.config.RedisCacheConfig.PRICE_LIST_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RefreshAheadScheduler: which keys it picks and how many it refreshes per tick.
+ */
+class RefreshAheadSchedulerTest {
+
+    private TwelveDataService twelveDataService;
+    private AccessTracker accessTracker;
+    private UpstreamScheduler upstreamScheduler;
+    private ValueOperations<String, String> locks;
+    private ConcurrentMapCache quotes;
+    private ConcurrentMapCache history;
+    private RefreshAheadScheduler scheduler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        twelveDataService = mock(TwelveDataService.class);
+        accessTracker = new AccessTracker();
+        upstreamScheduler = mock(UpstreamScheduler.class);
+        when(upstreamScheduler.allowance(UpstreamScheduler.Priority.BACKGROUND)).thenReturn(10);
+
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        locks = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(locks);
+        when(locks.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+        quotes = new ConcurrentMapCache(PRICE_LIST_CACHE, false);
+        history = new ConcurrentMapCache(CRYPTO_HISTORY_CACHE, false);
+        CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(redisTemplate);
+        TwoTierCacheManager cacheManager = mock(TwoTierCacheManager.class);
+        when(cacheManager.getCache(PRICE_LIST_CACHE)).thenReturn(new TwoTierCache(PRICE_LIST_CACHE, quotes,
+            new NearCache(10, 60_000), publisher, Duration.ofSeconds(120), Runnable::run));
+        when(cacheManager.getCache(CRYPTO_HISTORY_CACHE)).thenReturn(new TwoTierCache(CRYPTO_HISTORY_CACHE,
+            history, new NearCache(10, 60_000), publisher, Duration.ofSeconds(300), Runnable::run));
+
+        BatchPlanner batchPlanner = new BatchPlanner();
+        ReflectionTestUtils.setField(batchPlanner, "quoteBatchSize", 120);
+        ReflectionTestUtils.setField(batchPlanner, "historyBatchSize", 1);
+
+        scheduler = new RefreshAheadScheduler(twelveDataService, accessTracker, upstreamScheduler, redisTemplate,
+            cacheManager, batchPlanner);
+        ReflectionTestUtils.setField(scheduler, "leadSeconds", 30L);
+    }
+
+    private void read(String key, int times) {
+        for (int i = 0; i < times; i++) {
+            accessTracker.recordAccess(key);
+        }
+    }
+
+    /**
+     * An entry stored {@code ageSeconds} ago with the cache's own soft TTL.
+     */
+    private static void stored(ConcurrentMapCache cache, String symbol, long ageSeconds) {
+        cache.put(symbol, new CachedValue(symbol, System.currentTimeMillis() - ageSeconds * 1000));
+    }
+
+    @Test
+    void testRefreshesExpiringAndMissingEntriesMostReadFirst() throws Exception {
+        stored(quotes, "SPY", 10);   // 110 s left: fresh
+        stored(quotes, "QQQ", 100);  // 20 s left: within the lead
+        read("priceList::SPY", 5);
+        read("priceList::DIA", 2);   // nothing cached yet
+        read("priceList::QQQ", 3);
+
+        scheduler.refreshExpiringEntries();
+
+        verify(twelveDataService).refreshQuotes(List.of("QQQ", "DIA"));
+        verify(twelveDataService, never()).refreshHistoricalPrices(anyCollection());
+    }
+
+    @Test
+    void testTickIsSizedToTheBackgroundAllowance() throws Exception {
+        when(upstreamScheduler.allowance(UpstreamScheduler.Priority.BACKGROUND)).thenReturn(2);
+        read("priceList::SPY", 4);
+        read("historyBars::SPY", 3);
+        read("historyBars::QQQ", 2);  // a second history call would make three
+        read("priceList::DIA", 1);    // joins the quote batch already paid for
+
+        scheduler.refreshExpiringEntries();
+
+        verify(twelveDataService).refreshQuotes(List.of("SPY", "DIA"));
+        verify(twelveDataService).refreshHistoricalPrices(List.of("SPY"));
+        assertEquals(1L, scheduler.getStats().get("skippedForBudget"));
+    }
+
+    @Test
+    void testNothingIsRefreshedWithoutAllowance() throws Exception {
+        when(upstreamScheduler.allowance(UpstreamScheduler.Priority.BACKGROUND)).thenReturn(0);
+        read("priceList::SPY", 1);
+
+        scheduler.refreshExpiringEntries();
+
+        verify(twelveDataService, never()).refreshQuotes(anyCollection());
+        assertEquals(1L, scheduler.getStats().get("skippedForBudget"));
+    }
+
+    @Test
+    void testKeysLockedByAnotherReplicaAreSkipped() throws Exception {
+        when(locks.setIfAbsent(eq("refresh:lock:priceList::SPY"), anyString(), any(Duration.class)))
+            .thenReturn(false);
+        read("priceList::SPY", 2);
+        read("priceList::QQQ", 1);
+
+        scheduler.refreshExpiringEntries();
+
+        verify(twelveDataService).refreshQuotes(List.of("QQQ"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.crypto.tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SingleFlight request coalescing.
+ */
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallersShareOneExecution() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CompletableFuture<String>>> callers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                callers.add(executor.submit(() -> {
+                    start.await();
+                    return singleFlight.executeAsync("quotes", () -> {
+                        loaderCalls.incrementAndGet();
+                        return upstream;
+                    });
+                }));
+            }
+            start.countDown();
+
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (Future<CompletableFuture<String>> caller : callers) {
+                results.add(caller.get(5, TimeUnit.SECONDS));
+            }
+            upstream.complete("prices");
+
+            for (CompletableFuture<String> result : results) {
+                assertEquals("prices", result.get(1, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loaderCalls.get(), "Loader should run once for all callers");
+        assertEquals(7L, singleFlight.getStats().get("coalesced"));
+        assertEquals(0, singleFlight.getStats().get("inFlight"));
+    }
+
+    @Test
+    void testCancellingOneCallerDoesNotCancelTheFetch() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.executeAsync("history:SPY", () -> {
+            loaderCalls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = singleFlight.executeAsync("history:SPY", () -> {
+            loaderCalls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        second.cancel(true);
+        upstream.complete("bars");
+
+        assertEquals("bars", first.get(1, TimeUnit.SECONDS));
+        assertFalse(upstream.isCancelled());
+        assertEquals(1, loaderCalls.get(), "Loader should run once for all callers");
+    }
+
+    @Test
+    void testAsyncFailureIsUnwrappedAndKeyIsReleased() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+
+        CompletableFuture<String> failed = singleFlight.executeAsync("quotes", () ->
+            CompletableFuture.supplyAsync(() -> {
+                throw new IllegalStateException("API call failed");
+            }));
+
+        Exception error = assertThrows(Exception.class, () -> failed.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+
+        // A later call must start a fresh fetch instead of seeing the old failure
+        assertEquals("ok", singleFlight.executeAsync("quotes", () -> CompletableFuture.completedFuture("ok"))
+            .get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testLoaderErrorFailsTheFlightAndReleasesTheKey() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+
+        CompletableFuture<String> failed = singleFlight.executeAsync("quotes", () -> {
+            throw new StackOverflowError();
+        });
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, error.getCause());
+        assertEquals(0, singleFlight.getStats().get("inFlight"));
+        assertEquals("ok", singleFlight.executeAsync("quotes", () -> CompletableFuture.completedFuture("ok"))
+            .get(1, TimeUnit.SECONDS));
+    }
+}
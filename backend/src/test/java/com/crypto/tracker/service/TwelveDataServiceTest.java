@@ -0,0 +1,227 @@
+package com.crypto.tracker.service;
+
+import com.crypto.tracker.cache.CacheInvalidationPublisher;
+import com.crypto.tracker.cache.CachedValue;
+import com.crypto.tracker.cache.NearCache;
+import com.crypto.tracker.cache.TwoTierCache;
+import com.crypto.tracker.cache.TwoTierCacheManager;
+import com.crypto.tracker.client.UpstreamClient;
+import com.crypto.tracker.model.BarSeries;
+import com.crypto.tracker.series.HistoryInterval;
+import com.crypto.tracker.series.HistoryRange;
+import com.crypto.tracker.store.BarStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.crypto.tracker.config.RedisCacheConfig.CRYPTO_HISTORY_CACHE;
+import static com.crypto.tracker.model.BarFixtures.DAY;
+import static com.crypto.tracker.model.BarFixtures.START;
+import static com.crypto.tracker.model.BarFixtures.days;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for TwelveDataService history reads from the bar store, with the cache and the store prepared
+ * separately, and for the intraday syncs shared through the cache. Upstream calls are answered with a canned
+ * daily series unless a test stubs its own.
+ */
+class TwelveDataServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private static final int FETCHED_DAYS = 60;
+
+    private UpstreamScheduler upstreamScheduler;
+    private ConcurrentMapCache history;
+    private BarStore barStore;
+    private TwelveDataService service;
+
+    @BeforeEach
+    void setUp() {
+        upstreamScheduler = mock(UpstreamScheduler.class);
+        when(upstreamScheduler.submit(any(UpstreamScheduler.Priority.class), anyString(), any()))
+            .thenReturn(CompletableFuture.completedFuture(timeSeriesJson(days(0, FETCHED_DAYS), "1day")));
+
+        history = new ConcurrentMapCache(CRYPTO_HISTORY_CACHE, false);
+        TwoTierCacheManager cacheManager = mock(TwoTierCacheManager.class);
+        when(cacheManager.getCache(CRYPTO_HISTORY_CACHE)).thenReturn(new TwoTierCache(CRYPTO_HISTORY_CACHE,
+            history, new NearCache(10, 60_000), new CacheInvalidationPublisher(mock(StringRedisTemplate.class)),
+            Duration.ofSeconds(300), Runnable::run));
+
+        BatchPlanner batchPlanner = new BatchPlanner();
+        ReflectionTestUtils.setField(batchPlanner, "historyBatchSize", 8);
+
+        // Synced bars stay current for one bar age, as in the regular session
+        AdaptiveTtlPolicy ttlPolicy = mock(AdaptiveTtlPolicy.class);
+        when(ttlPolicy.intradaySyncAge(anyString(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        barStore = new BarStore(dir.toString(), 16);
+        service = new TwelveDataService(mock(RateLimiter.class), mock(MonthlyBudget.class), new ObjectMapper(),
+            new SingleFlight(), mock(SymbolUniverse.class), batchPlanner, cacheManager, Runnable::run, barStore,
+            mock(UpstreamClient.class), ttlPolicy, upstreamScheduler);
+        ReflectionTestUtils.setField(service, "baseUrl", "https://api.twelvedata.com");
+        ReflectionTestUtils.setField(service, "apiKey", "test");
+        ReflectionTestUtils.setField(service, "initialHistoryBars", 365);
+    }
+
+    @AfterEach
+    void tearDown() {
+        barStore.close();
+    }
+
+    /**
+     * Hourly bars 09:30 to 15:30 for each of the first {@code n} days, close = bar index.
+     */
+    private static BarSeries hours(int n) {
+        int perDay = 7;
+        long[] epochs = new long[n * perDay];
+        double[] prices = new double[epochs.length];
+        long[] volume = new long[epochs.length];
+        for (int i = 0; i < epochs.length; i++) {
+            epochs[i] = START + (i / perDay) * DAY + 9 * 3600 + 1800 + (i % perDay) * 3600;
+            prices[i] = i;
+            volume[i] = 10;
+        }
+        return new BarSeries(epochs, prices.clone(), prices.clone(), prices.clone(), prices.clone(), volume);
+    }
+
+    /**
+     * A single-symbol time_series response with the bars, newest first like Twelve Data. Prices are the closes.
+     */
+    private static String timeSeriesJson(BarSeries bars, String interval) {
+        StringBuilder values = new StringBuilder();
+        for (int i = bars.size() - 1; i >= 0; i--) {
+            String date = BarSeries.formatDatetime(bars.getEpochs()[i], BarSeries.isDateOnly(interval));
+            double price = bars.getClose()[i];
+            values.append(values.isEmpty() ? "" : ",")
+                .append("{\"datetime\":\"").append(date).append("\",\"open\":\"").append(price)
+                .append("\",\"high\":\"").append(price).append("\",\"low\":\"").append(price)
+                .append("\",\"close\":\"").append(price)
+                .append("\",\"volume\":\"").append(bars.getVolume()[i]).append("\"}");
+        }
+        return "{\"meta\":{\"symbol\":\"SPY\",\"interval\":\"" + interval + "\"},\"values\":[" + values
+            + "],\"status\":\"ok\"}";
+    }
+
+    private void answerUpstream(CompletableFuture<String> response) {
+        when(upstreamScheduler.<String>submit(any(UpstreamScheduler.Priority.class), anyString(), any()))
+            .thenReturn(response);
+    }
+
+    private BarSeries getHistory(HistoryInterval interval, String range) throws Exception {
+        return service.getHistoryAsync("SPY", interval, range != null ? HistoryRange.parse(range) : null)
+            .get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testEmptyStoreIsSyncedEvenWhenTheCacheIsWarm() throws Exception {
+        // Cached by another replica: only the last few days, and nothing in this replica's store
+        history.put("SPY", new CachedValue(days(FETCHED_DAYS - 5, FETCHED_DAYS), System.currentTimeMillis()));
+
+        BarSeries bars = getHistory(HistoryInterval.ONE_DAY, "max");
+
+        assertNotNull(bars);
+        assertEquals(FETCHED_DAYS, bars.size());
+        assertEquals(START, bars.getEpochs()[0]);
+        assertEquals(FETCHED_DAYS, barStore.readLast("SPY", "1day", 1000).size());
+        verify(upstreamScheduler, times(1)).submit(eq(UpstreamScheduler.Priority.INTERACTIVE), anyString(), any());
+
+        // Stored now, so the next read is served from the store and the cache
+        getHistory(HistoryInterval.ONE_WEEK, null);
+        verify(upstreamScheduler, times(1)).submit(any(UpstreamScheduler.Priority.class), anyString(), any());
+    }
+
+    @Test
+    void testIntradayRangeKeepsTheSessionBuckets() throws Exception {
+        answerUpstream(CompletableFuture.completedFuture(timeSeriesJson(hours(3), "1h")));
+        getHistory(HistoryInterval.ONE_HOUR, null);
+        verify(upstreamScheduler).submit(eq(UpstreamScheduler.Priority.INTERACTIVE), anyString(), any());
+
+        // A day back from 15:30 on the 3rd starts at 15:30 on the 2nd, which is inside its 13:30 bucket
+        BarSeries bars = getHistory(HistoryInterval.FOUR_HOURS, "1d");
+
+        assertEquals(3, bars.size());
+        assertEquals(BarSeries.parseDatetime("2024-01-02 13:30:00"), bars.getEpochs()[0]);
+        assertEquals(BarSeries.parseDatetime("2024-01-03 09:30:00"), bars.getEpochs()[1]);
+        assertEquals(BarSeries.parseDatetime("2024-01-03 13:30:00"), bars.getEpochs()[2]);
+        assertEquals(11.0, bars.getOpen()[0]);
+        assertEquals(13.0, bars.getClose()[0]);
+        assertEquals(30, bars.getVolume()[0]);
+        verify(upstreamScheduler, times(1)).submit(any(UpstreamScheduler.Priority.class), anyString(), any());
+    }
+
+    @Test
+    void testStoredIntradayBarsAreServedWhileTheResyncRunsAtPrefetchPriority() throws Exception {
+        barStore.append("SPY", "1h", hours(2));
+        CompletableFuture<String> response = new CompletableFuture<>();
+        answerUpstream(response);
+
+        BarSeries bars = getHistory(HistoryInterval.ONE_HOUR, null);
+
+        assertEquals(14, bars.size());
+        verify(upstreamScheduler).submit(eq(UpstreamScheduler.Priority.PREFETCH), anyString(), any());
+
+        response.complete(timeSeriesJson(hours(3), "1h"));
+        assertEquals(21, getHistory(HistoryInterval.ONE_HOUR, "max").size());
+        verify(upstreamScheduler, times(1)).submit(any(UpstreamScheduler.Priority.class), anyString(), any());
+        assertEquals(21, ((BarSeries) ((CachedValue) history.get("SPY|1h").get()).getValue()).size(),
+            "The sync is shared with the newest bars");
+    }
+
+    @Test
+    void testFailedSyncIsNotRetriedBeforeItGoesStale() throws Exception {
+        answerUpstream(CompletableFuture.failedFuture(new IllegalStateException("daily pace")));
+
+        assertThrows(ExecutionException.class, () -> getHistory(HistoryInterval.ONE_MINUTE, null));
+        assertNull(getHistory(HistoryInterval.ONE_MINUTE, null));
+
+        verify(upstreamScheduler, times(1)).submit(any(UpstreamScheduler.Priority.class), anyString(), any());
+        CachedValue synced = (CachedValue) history.get("SPY|1min").get();
+        assertEquals(0, ((BarSeries) synced.getValue()).size());
+        assertEquals(60_000, synced.getSoftTtlMillis(), "Stale after one bar");
+    }
+
+    @Test
+    void testReplicaCatchesUpFromAnotherReplicasSync() throws Exception {
+        barStore.append("SPY", "1h", hours(2));
+        history.put("SPY|1h", new CachedValue(hours(3).last(10), System.currentTimeMillis()));
+
+        BarSeries bars = getHistory(HistoryInterval.ONE_HOUR, "max");
+
+        assertEquals(21, bars.size());
+        assertEquals(20.0, bars.getClose()[20]);
+        verify(upstreamScheduler, never()).submit(any(UpstreamScheduler.Priority.class), anyString(), any());
+    }
+
+    @Test
+    void testStoredBarsAreReadWithoutFetching() throws Exception {
+        barStore.append("SPY", "1day", days(0, 40));
+        history.put("SPY", new CachedValue(days(10, 40), System.currentTimeMillis()));
+
+        BarSeries bars = getHistory(HistoryInterval.ONE_DAY, null);
+
+        assertEquals(30, bars.size());
+        assertEquals(39.0, bars.getClose()[bars.size() - 1]);
+        verify(upstreamScheduler, never()).submit(any(UpstreamScheduler.Priority.class), anyString(), any());
+    }
+}
@@ -0,0 +1,254 @@
+package com.crypto.tracker.service;
+
+import com.crypto.tracker.config.MetricsConfig;
+import com.crypto.tracker.service.UpstreamScheduler.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for UpstreamScheduler admission order, deadlines and budget pacing.
+ */
+class UpstreamSchedulerTest {
+
+    private FakeLimiter limiter;
+    private MonthlyBudget monthlyBudget;
+    private SimpleMeterRegistry registry;
+    private UpstreamScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new FakeLimiter();
+        monthlyBudget = mock(MonthlyBudget.class);
+        when(monthlyBudget.hasRemainingBudget()).thenReturn(true);
+        when(monthlyBudget.tryReserve()).thenReturn(true);
+        when(monthlyBudget.getMonthlyLimit()).thenReturn(500);
+        // At least 100 calls a day for the rest of any month
+        when(monthlyBudget.getRemainingBudget()).thenReturn(3100);
+        registry = new SimpleMeterRegistry();
+        scheduler = new UpstreamScheduler(limiter, monthlyBudget, registry, 2, 0.5, 100, 10_000, 60_000, 30_000);
+        new MetricsConfig().upstreamSchedulerMetrics(scheduler).bindTo(registry);
+    }
+
+    private static String failure(CompletableFuture<?> future) {
+        return assertThrows(CompletionException.class, future::join).getCause().getMessage();
+    }
+
+    @Test
+    void testAdmitsRightAwayWhenPermitsAreFree() {
+        limiter.permits = 20;
+
+        CompletableFuture<String> result = scheduler.submit(Priority.INTERACTIVE, "quote",
+                () -> CompletableFuture.completedFuture("ok"));
+
+        assertEquals("ok", result.join());
+        assertEquals(19, limiter.permits);
+        verify(monthlyBudget).incrementUsage();
+        assertEquals(1.0, registry.get("twelvedata.budget.consumed").counter().count());
+    }
+
+    @Test
+    void testQueuesInsteadOfRejectingUntilAPermitFrees() {
+        limiter.permits = 0;
+
+        CompletableFuture<String> result = scheduler.submit(Priority.INTERACTIVE, "quote",
+                () -> CompletableFuture.completedFuture("ok"));
+
+        assertFalse(result.isDone(), "No permit yet, so the call waits");
+        assertEquals(1.0, registry.get("upstream.scheduler.queued").tag("priority", "interactive").gauge().value());
+
+        limiter.permits = 1;
+        scheduler.dispatch();
+
+        assertEquals("ok", result.join());
+        assertEquals(0.0, registry.get("upstream.scheduler.queued").tag("priority", "interactive").gauge().value());
+    }
+
+    @Test
+    void testHigherPriorityIsAdmittedFirst() {
+        limiter.permits = 0;
+        List<String> order = new ArrayList<>();
+
+        scheduler.submit(Priority.BACKGROUND, "background", () -> record(order, "background"));
+        scheduler.submit(Priority.PREFETCH, "prefetch", () -> record(order, "prefetch"));
+        scheduler.submit(Priority.INTERACTIVE, "interactive", () -> record(order, "interactive"));
+
+        // Two permits are the minute reserve, only interactive calls may take them
+        limiter.permits = 4;
+        scheduler.dispatch();
+        assertEquals(List.of("interactive", "prefetch"), order);
+
+        limiter.permits = 3;
+        scheduler.dispatch();
+        assertEquals(List.of("interactive", "prefetch", "background"), order);
+    }
+
+    @Test
+    void testCallFailsWithTheReasonWhenItsDeadlinePasses() throws InterruptedException {
+        limiter.permits = 0;
+
+        CompletableFuture<String> result = scheduler.submit(Priority.INTERACTIVE, Duration.ofMillis(20), "quote",
+                () -> CompletableFuture.completedFuture("ok"));
+        Thread.sleep(40);
+        scheduler.dispatch();
+
+        assertEquals("Rate limit exceeded. Try again in 42 seconds.", failure(result));
+        assertEquals(1.0, registry.get("twelvedata.calls.rejected").tag("reason", "minute_limit").counter().count());
+        verify(monthlyBudget, never()).tryReserve();
+    }
+
+    @Test
+    void testDailyPaceHoldsBackgroundButNotInteractive() throws InterruptedException {
+        // A single call left this month: nothing of it is background's share today
+        when(monthlyBudget.getRemainingBudget()).thenReturn(1);
+        limiter.permits = 20;
+
+        assertEquals(0, scheduler.allowance(Priority.BACKGROUND));
+        CompletableFuture<String> background = scheduler.submit(Priority.BACKGROUND, Duration.ofMillis(20),
+                "refresh", () -> CompletableFuture.completedFuture("background"));
+        CompletableFuture<String> interactive = scheduler.submit(Priority.INTERACTIVE, "quote",
+                () -> CompletableFuture.completedFuture("interactive"));
+
+        assertEquals("interactive", interactive.join());
+        Thread.sleep(40);
+        scheduler.dispatch();
+        assertEquals("Deferred: today's share of the monthly API budget is spent", failure(background));
+    }
+
+    @Test
+    void testExhaustedBudgetFailsEverythingQueued() {
+        limiter.permits = 0;
+        CompletableFuture<String> queued = scheduler.submit(Priority.PREFETCH, "quote",
+                () -> CompletableFuture.completedFuture("ok"));
+
+        when(monthlyBudget.hasRemainingBudget()).thenReturn(false);
+        when(monthlyBudget.getCurrentUsage()).thenReturn(500);
+        scheduler.dispatch();
+
+        assertEquals("Monthly API budget exhausted (500/500)", failure(queued));
+        assertEquals(0, scheduler.allowance(Priority.INTERACTIVE));
+    }
+
+    @Test
+    void testFailedCallGivesTheBudgetBack() {
+        limiter.permits = 20;
+
+        CompletableFuture<String> result = scheduler.submit(Priority.INTERACTIVE, "quote",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("HTTP 502")));
+
+        assertEquals("API call failed: HTTP 502", failure(result));
+        verify(monthlyBudget).release();
+        verify(monthlyBudget, never()).incrementUsage();
+    }
+
+    @Test
+    void testFullQueueRejectsNewCalls() {
+        scheduler = new UpstreamScheduler(limiter, monthlyBudget, registry, 2, 0.5, 1, 10_000, 60_000, 30_000);
+        limiter.permits = 0;
+
+        CompletableFuture<String> first = scheduler.submit(Priority.INTERACTIVE, "first",
+                () -> CompletableFuture.completedFuture("ok"));
+        CompletableFuture<String> second = scheduler.submit(Priority.INTERACTIVE, "second",
+                () -> CompletableFuture.completedFuture("ok"));
+
+        assertFalse(first.isDone());
+        assertEquals("Too many upstream calls waiting (1)", failure(second));
+    }
+
+    @Test
+    void testBudgetIsGivenBackWhenThePermitIsGone() {
+        // The limiter still reports room, but another caller takes the last permit first
+        limiter.permits = 0;
+        limiter.reported = 5;
+
+        CompletableFuture<String> result = scheduler.submit(Priority.INTERACTIVE, "quote",
+                () -> CompletableFuture.completedFuture("ok"));
+
+        assertFalse(result.isDone());
+        verify(monthlyBudget).tryReserve();
+        verify(monthlyBudget).release();
+    }
+
+    @Test
+    void testLimiterAndBudgetAreCalledWithoutTheLock() {
+        ReentrantLock lock = (ReentrantLock) ReflectionTestUtils.getField(scheduler, "lock");
+        limiter.lock = lock;
+        when(monthlyBudget.tryReserve()).thenAnswer(invocation -> !lock.isLocked());
+        when(monthlyBudget.hasRemainingBudget()).thenAnswer(invocation -> !lock.isLocked());
+        when(monthlyBudget.getRemainingBudget()).thenAnswer(invocation -> lock.isLocked() ? 0 : 3100);
+        limiter.permits = 20;
+
+        scheduler.submit(Priority.BACKGROUND, "refresh", () -> CompletableFuture.completedFuture("ok"));
+        scheduler.allowance(Priority.BACKGROUND);
+        scheduler.getStats();
+
+        assertFalse(limiter.calledUnderLock);
+        verify(monthlyBudget).incrementUsage();
+    }
+
+    private static CompletableFuture<String> record(List<String> order, String name) {
+        order.add(name);
+        return CompletableFuture.completedFuture(name);
+    }
+
+    /**
+     * Limiter whose remaining permits the test sets directly.
+     */
+    private static final class FakeLimiter implements RateLimiter {
+
+        int permits;
+        // What getRemainingRequests reports, when set; otherwise the actual permits
+        int reported = -1;
+        ReentrantLock lock;
+        boolean calledUnderLock;
+
+        @Override
+        public boolean allowRequest() {
+            checkLock();
+            if (permits <= 0) {
+                return false;
+            }
+            permits--;
+            return true;
+        }
+
+        @Override
+        public int getCurrentRequestCount() {
+            return 20 - permits;
+        }
+
+        @Override
+        public int getRemainingRequests() {
+            checkLock();
+            return reported >= 0 ? reported : permits;
+        }
+
+        @Override
+        public long getSecondsUntilReset() {
+            return 42;
+        }
+
+        @Override
+        public int getMaxRequestsPerMinute() {
+            return 20;
+        }
+
+        private void checkLock() {
+            calledUnderLock |= lock != null && lock.isLocked();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.crypto.tracker.store;
+
+import com.crypto.tracker.model.BarSeries;
+import com.crypto.tracker.model.TimeSeriesValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.crypto.tracker.model.BarFixtures.DAY;
+import static com.crypto.tracker.model.BarFixtures.START;
+import static com.crypto.tracker.model.BarFixtures.days;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BarStore and its memory-mapped files.
+ */
+class BarStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testBarsSurviveReopening() throws Exception {
+        BarStore store = new BarStore(dir.toString(), 16);
+        assertEquals(10, store.append("SPY", "1day", days(0, 10)));
+        store.close();
+
+        BarStore reopened = new BarStore(dir.toString(), 16);
+        BarSeries bars = reopened.readLast("SPY", "1day", 30);
+
+        assertEquals(10, bars.size());
+        assertEquals(START + 9 * DAY, reopened.lastEpoch("SPY", "1day"));
+        assertEquals(9.0, bars.getClose()[9]);
+        assertEquals(1009L, bars.getVolume()[9]);
+        reopened.close();
+    }
+
+    @Test
+    void testOnlyNewerBarsAreAppendedAndTheLastOneIsReplaced() throws Exception {
+        BarStore store = new BarStore(dir.toString(), 16);
+        store.append("SPY", "1day", days(0, 5));
+
+        // Overlapping sync: days 2..6, where day 4 (the newest stored) changed
+        BarSeries sync = days(2, 7);
+        sync.getClose()[2] = 44.0;
+
+        assertEquals(3, store.append("SPY", "1day", sync));
+
+        BarSeries bars = store.readLast("SPY", "1day", 30);
+        assertEquals(7, bars.size());
+        assertEquals(2.0, bars.getClose()[2]);
+        assertEquals(44.0, bars.getClose()[4]);
+        assertEquals(6.0, bars.getClose()[6]);
+        store.close();
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() throws Exception {
+        BarStore store = new BarStore(dir.toString(), 4);
+        for (int day = 0; day < 100; day += 10) {
+            store.append("BTC/USD", "1day", days(day, day + 10));
+        }
+
+        BarSeries bars = store.readLast("BTC/USD", "1day", 1000);
+        assertEquals(100, bars.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(START + i * DAY, bars.getEpochs()[i]);
+            assertEquals(i, bars.getClose()[i]);
+        }
+        store.close();
+    }
+
+    @Test
+    void testReadLastAndRange() throws Exception {
+        BarStore store = new BarStore(dir.toString(), 16);
+        store.append("SPY", "1day", days(0, 40));
+
+        BarSeries last = store.readLast("SPY", "1day", 30);
+        assertEquals(30, last.size());
+        assertEquals(10.0, last.getClose()[0]);
+
+        BarSeries range = store.readRange("SPY", "1day", START + 5 * DAY, START + 8 * DAY);
+        assertEquals(3, range.size());
+        assertEquals(5.0, range.getClose()[0]);
+        store.close();
+    }
+
+    @Test
+    void testSeriesRoundTripsThroughTwelveDataValues() {
+        List<TimeSeriesValue> values = new ArrayList<>();
+        for (String date : List.of("2024-01-03", "2024-01-02")) {
+            TimeSeriesValue value = new TimeSeriesValue();
+            value.setDatetime(date);
+            value.setOpen("1.5");
+            value.setHigh("2.0");
+            value.setLow("1.0");
+            value.setClose("1.75");
+            values.add(value);
+        }
+
+        BarSeries bars = BarSeries.fromValues(values);
+        assertEquals(BarSeries.parseDatetime("2024-01-02"), bars.getEpochs()[0]);
+        assertEquals(-1L, bars.getVolume()[0]);
+
+        List<TimeSeriesValue> back = bars.toValues("1day");
+        assertEquals("2024-01-03", back.get(0).getDatetime());
+        assertEquals(1.75, back.get(0).getClosePrice());
+        assertNull(back.get(0).getVolume());
+    }
+}
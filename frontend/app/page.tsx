@@ -2,19 +2,21 @@
 
 import { useEffect, useState } from 'react';
 import Link from 'next/link';
-import { fetchCryptoIndices, symbolToUrlFormat } from '@/lib/api';
+import { fetchCryptoIndices, subscribeToIndices, symbolToUrlFormat } from '@/lib/api';
 import { CryptoIndex } from '@/types/crypto';
 import ApiLimits from '@/components/ApiLimits';
 
 
  //Home page displaying all tracked cryptocurrencies.
- //Auto-refreshes every 90 seconds to show live prices.
+ //Receives live price pushes from the backend stream; falls back to
+ //refreshing every 90 seconds while the stream is disconnected.
 
 export default function HomePage() {
   const [cryptos, setCryptos] = useState<CryptoIndex[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
   const [lastUpdate, setLastUpdate] = useState<Date | null>(null);
+  const [streaming, setStreaming] = useState(false);
 
   // Fetch cryptocurrency data
   const loadCryptoData = async () => {
@@ -36,14 +38,31 @@ export default function HomePage() {
     loadCryptoData();
   }, []);
 
-  // Auto-refresh every 90 seconds
+  // Live updates: merge changed indices into the list
   useEffect(() => {
+    return subscribeToIndices((changed) => {
+      setCryptos((current) => {
+        const bySymbol = new Map(current.map((crypto) => [crypto.symbol, crypto]));
+        changed.forEach((crypto) => bySymbol.set(crypto.symbol, crypto));
+        return Array.from(bySymbol.values());
+      });
+      setLastUpdate(new Date());
+      setLoading(false);
+    }, setStreaming);
+  }, []);
+
+  // Auto-refresh every 90 seconds, only while the stream is down
+  useEffect(() => {
+    if (streaming) {
+      return;
+    }
+
     const interval = setInterval(() => {
       loadCryptoData();
     }, 90000); // 90 seconds
 
     return () => clearInterval(interval);
-  }, []);
+  }, [streaming]);
 
   // Format price with thousand separators
   const formatPrice = (price: number): string => {
@@ -118,7 +137,7 @@ export default function HomePage() {
               {lastUpdate.toLocaleTimeString()}
             </p>
             <p className="text-xs text-gray-500 mt-1">
-              Auto-refresh: 90s
+              {streaming ? 'Live' : 'Auto-refresh: 90s'}
             </p>
           </div>
         )}
@@ -179,7 +198,7 @@ export default function HomePage() {
           📊 How This Works
         </h3>
         <ul className="text-blue-200 text-sm space-y-1">
-          <li>• Data updates automatically every 90 seconds</li>
+          <li>• Prices are pushed live as they change (90-second refresh as a fallback)</li>
           <li>• Backend caches responses for 120 seconds to respect API limits</li>
           <li>• Click any stock indices to view 30-day price history</li>
           <li>• Rate limits: 20 requests/minute, 500 requests/month</li>
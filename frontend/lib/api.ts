@@ -5,6 +5,7 @@
  *
  * Endpoints:
  * - GET /indices - List all cryptocurrencies
+ * - GET /indices/stream - Server-Sent Events stream of changed quotes
  * - GET /indices/{symbol}/history - Get 30-day history
  * - GET /meta/limits - Get API usage statistics
  */
@@ -40,6 +41,30 @@ export async function fetchCryptoIndices(): Promise<CryptoIndex[]> {
   }
 }
 
+/**
+ * Subscribe to live index updates pushed by the backend over Server-Sent Events.
+ * Each event carries only the indices whose data changed since the last push.
+ *
+ * @param onUpdate - Called with the changed indices
+ * @param onConnectionChange - Called with true when the stream is open, false when it dropped
+ * @returns Function that closes the stream
+ */
+export function subscribeToIndices(
+  onUpdate: (changed: CryptoIndex[]) => void,
+  onConnectionChange?: (connected: boolean) => void
+): () => void {
+  // EventSource reconnects on its own after network errors
+  const source = new EventSource(`${API_BASE_URL}/indices/stream`);
+
+  source.onopen = () => onConnectionChange?.(true);
+  source.onerror = () => onConnectionChange?.(false);
+  source.addEventListener('quotes', (event) => {
+    onUpdate(JSON.parse((event as MessageEvent).data) as CryptoIndex[]);
+  });
+
+  return () => source.close();
+}
+
 /**
  * Fetch 30-day historical price data for a specific cryptocurrency.
  *
@@ -13,7 +13,7 @@ export interface CryptoIndex {
 
 
  //Single data point in historical chart.
- //Matches: HistoryDataPoint.java
+ //Matches: the "history" entries of CryptoHistoryResponse.java
 
 export interface HistoryDataPoint {
   date: string;                // e.g., "2024-11-05"